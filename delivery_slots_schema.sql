@@ -18,7 +18,7 @@ SET search_path TO app, public;
 -- ============================================================
 -- TIPO ENUM para estados de reserva
 -- ============================================================
-CREATE TYPE app.reservation_status AS ENUM ('CONFIRMED', 'CANCELLED', 'EXPIRED');
+CREATE TYPE app.reservation_status AS ENUM ('CONFIRMED', 'CANCELLED', 'EXPIRED', 'HELD');
 
 -- ============================================================
 -- 1. DIVISIÓN POLÍTICO-ADMINISTRATIVA DE CHILE
@@ -80,6 +80,9 @@ CREATE TABLE app.zone_coverage (
     postal_code      VARCHAR(20)  NULL,                        -- Código postal (opcional)
     delivery_slot_id BIGINT       NULL,                        -- FK a delivery_slot (1 zone_coverage → 1 slot, 1 slot → N zone_coverages)
     max_capacity     INT          NOT NULL DEFAULT 0,          -- Capacidad máxima de reservas para esta zona en este turno
+    reserved_count   INT          NOT NULL DEFAULT 0,          -- Reservas que ocupan cupo en esta zona (contador por zona)
+    capacity_version BIGINT       NOT NULL DEFAULT 0,          -- Versión del contador (modo de concurrencia optimista)
+    boundary_version BIGINT       NOT NULL DEFAULT 0,          -- Cambia solo con boundary o is_active (índice de zonas en memoria)
     boundary         GEOMETRY(POLYGON, 4326) NULL,             -- Polígono geográfico de la zona (GeoJSON → PostGIS)
     location         GEOMETRY(POINT, 4326) NULL,               -- Punto representativo / centroide de la zona
     is_active        BOOLEAN      NOT NULL DEFAULT TRUE,
@@ -88,12 +91,15 @@ CREATE TABLE app.zone_coverage (
 
     CONSTRAINT chk_zone_max_capacity_positive
         CHECK (max_capacity >= 0),
+    CONSTRAINT chk_zone_capacity
+        CHECK (reserved_count >= 0 AND reserved_count <= max_capacity),
     CONSTRAINT fk_zone_coverage_comuna
         FOREIGN KEY (comuna_id) REFERENCES app.comuna(id)
             ON DELETE SET NULL
 );
 
 COMMENT ON COLUMN app.zone_coverage.max_capacity IS 'Capacidad máxima de reservas por turno en esta zona. La suma de todas las max_capacity de las zone_coverages de un delivery_slot determina el max_capacity del delivery_slot.';
+COMMENT ON COLUMN app.zone_coverage.reserved_count IS 'Cupos tomados en esta zona. Cada zona es un contador independiente; delivery_slot.reserved_count se recalcula periódicamente como la SUM(zone_coverage.reserved_count) de sus zonas.';
 COMMENT ON COLUMN app.zone_coverage.boundary IS 'Polígono geográfico de la zona en SRID 4326 (WGS84). Se almacena desde GeoJSON del frontend con ST_GeomFromGeoJSON().';
 COMMENT ON COLUMN app.zone_coverage.location IS 'Punto representativo o centroide de la zona. Útil para búsquedas rápidas y visualización en mapa.';
 
@@ -123,7 +129,7 @@ CREATE TABLE app.delivery_slot (
     delivery_date         DATE          NOT NULL,              -- Fecha de entrega
     delivery_cost         NUMERIC(10,2) NOT NULL,              -- Costo del despacho (ej: 2990)
     max_capacity          INT           NOT NULL DEFAULT 0,    -- Calculado: SUM(zone_coverage.max_capacity) de sus zonas asociadas
-    reserved_count        INT           NOT NULL DEFAULT 0,    -- Contador de reservas actuales
+    reserved_count        INT           NOT NULL DEFAULT 0,    -- Contador de reservas actuales (SUM de zone_coverage.reserved_count)
     is_active             BOOLEAN       NOT NULL DEFAULT TRUE,
     created_at            TIMESTAMPTZ   NOT NULL DEFAULT NOW(),
     updated_at            TIMESTAMPTZ   NOT NULL DEFAULT NOW(),
@@ -266,9 +272,11 @@ CREATE TABLE app.reservation (
     customer_id         BIGINT             NOT NULL,
     delivery_address_id BIGINT             NOT NULL,
     delivery_slot_id    BIGINT             NOT NULL,              -- FK a delivery_slot (1 delivery_slot → N reservations)
+    zone_coverage_id    BIGINT             NULL,                  -- Zona cuyo cupo ocupa la reserva
     status              app.reservation_status NOT NULL DEFAULT 'CONFIRMED',
     reserved_at         TIMESTAMPTZ        NOT NULL DEFAULT NOW(),
     cancelled_at        TIMESTAMPTZ        NULL,
+    expires_at          TIMESTAMPTZ        NULL,                  -- Vencimiento de la retención (solo HELD)
     version             INT                NOT NULL DEFAULT 0,     -- Optimistic locking
 
     CONSTRAINT fk_reservation_customer
@@ -276,7 +284,10 @@ CREATE TABLE app.reservation (
     CONSTRAINT fk_reservation_address
         FOREIGN KEY (delivery_address_id) REFERENCES app.delivery_address(id),
     CONSTRAINT fk_reservation_slot
-        FOREIGN KEY (delivery_slot_id) REFERENCES app.delivery_slot(id)
+        FOREIGN KEY (delivery_slot_id) REFERENCES app.delivery_slot(id),
+    CONSTRAINT fk_reservation_zone_coverage
+        FOREIGN KEY (zone_coverage_id) REFERENCES app.zone_coverage(id)
+            ON DELETE SET NULL
 );
 
 CREATE INDEX idx_reservation_slot
@@ -285,6 +296,73 @@ CREATE INDEX idx_reservation_slot
 CREATE INDEX idx_reservation_customer
     ON app.reservation (customer_id, status);
 
+CREATE INDEX idx_reservation_zone_coverage
+    ON app.reservation (zone_coverage_id, status);
+
+-- Paginación keyset del listado de reservas: ORDER BY reserved_at DESC, id DESC
+CREATE INDEX idx_reservation_reserved_at_id
+    ON app.reservation (reserved_at DESC, id DESC);
+
+CREATE INDEX idx_reservation_customer_reserved_at
+    ON app.reservation (customer_id, reserved_at DESC, id DESC);
+
+CREATE INDEX idx_reservation_slot_reserved_at
+    ON app.reservation (delivery_slot_id, reserved_at DESC, id DESC);
+
+CREATE INDEX idx_reservation_status_reserved_at
+    ON app.reservation (status, reserved_at DESC, id DESC);
+
+-- Barrido de retenciones vencidas
+CREATE INDEX idx_reservation_hold_expiry
+    ON app.reservation (expires_at)
+    WHERE status = 'HELD';
+
+-- Claves de idempotencia de escrituras de reservas (cabecera Idempotency-Key).
+-- status_code NULL = solicitud en curso. La respuesta se guarda en la misma
+-- transacción que la escritura y solo si attempt_id sigue siendo el de la
+-- ejecución, de modo que una ejecución reemplazada ya no puede confirmarse.
+CREATE TABLE app.idempotency_key (
+    idempotency_key VARCHAR(100) NOT NULL,
+    operation       VARCHAR(100) NOT NULL,                     -- Ej: 'POST /api/reservations'
+    request_hash    CHAR(64)     NOT NULL,                     -- SHA-256 de la operación y el cuerpo
+    attempt_id      UUID         NOT NULL,                     -- Ejecución dueña de la clave
+    status_code     SMALLINT     NULL,
+    response_body   TEXT         NULL,
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    expires_at      TIMESTAMPTZ  NOT NULL,
+
+    CONSTRAINT pk_idempotency_key
+        PRIMARY KEY (idempotency_key, operation)
+);
+
+CREATE INDEX idx_idempotency_key_expires
+    ON app.idempotency_key (expires_at);
+
+-- Re-zonificación pendiente de direcciones tras cambiar el límite o el estado de
+-- una zone_coverage. delta es la diferencia simétrica entre el área activa
+-- anterior y la nueva; solo las direcciones dentro de delta se reevalúan, en
+-- lotes por id ascendente a partir de last_address_id. Sin FK: la zona pudo
+-- haberse eliminado.
+CREATE TABLE app.address_rezoning_task (
+    id                   BIGSERIAL             PRIMARY KEY,
+    zone_coverage_id     BIGINT                NOT NULL,
+    delta                GEOMETRY(GEOMETRY, 4326) NOT NULL,
+    candidates_resolved  BOOLEAN               NOT NULL DEFAULT false,
+    last_address_id      BIGINT                NOT NULL DEFAULT 0,
+    created_at           TIMESTAMPTZ           NOT NULL DEFAULT NOW()
+);
+
+-- Direcciones dentro del delta de cada tarea. Se calculan una sola vez al tomar
+-- la tarea (un único ST_Intersects) y los lotes las recorren por la PK; se
+-- borran junto con la tarea.
+CREATE TABLE app.address_rezoning_candidate (
+    task_id     BIGINT  NOT NULL REFERENCES app.address_rezoning_task (id) ON DELETE CASCADE,
+    address_id  BIGINT  NOT NULL,
+
+    CONSTRAINT pk_address_rezoning_candidate
+        PRIMARY KEY (task_id, address_id)
+);
+
 -- ============================================================
 -- 9. FUNCIÓN TRIGGER: actualizar updated_at automáticamente
 --    (reemplaza ON UPDATE CURRENT_TIMESTAMP de MySQL)
@@ -305,6 +383,22 @@ CREATE TRIGGER trg_delivery_slot_updated_at
     BEFORE UPDATE ON app.delivery_slot
     FOR EACH ROW EXECUTE FUNCTION app.fn_update_timestamp();
 
+-- updated_at cambia con cada reserva (reserved_count); el índice de zonas en
+-- memoria necesita una versión que solo cambie con el polígono o la activación
+CREATE OR REPLACE FUNCTION app.fn_bump_boundary_version()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.boundary IS DISTINCT FROM OLD.boundary OR NEW.is_active IS DISTINCT FROM OLD.is_active THEN
+        NEW.boundary_version = OLD.boundary_version + 1;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_zone_coverage_boundary_version
+    BEFORE UPDATE ON app.zone_coverage
+    FOR EACH ROW EXECUTE FUNCTION app.fn_bump_boundary_version();
+
 -- ============================================================
 -- 9b. TRIGGER: sincronizar delivery_slot.max_capacity
 --     cada vez que se inserta, actualiza o elimina una zone_coverage.
@@ -366,6 +460,61 @@ CREATE TRIGGER trg_zone_coverage_sync_capacity
     ON app.zone_coverage
     FOR EACH ROW EXECUTE FUNCTION app.fn_sync_slot_max_capacity();
 
+-- ============================================================
+-- 9c. VERSIÓN DE CATÁLOGOS servidos con ETag
+--     (ver CatalogVersionRepository). Un trigger por sentencia suma 1 al
+--     contador de la tabla si la sentencia modificó filas. El contador se
+--     reparte en 16 filas según la conexión para que las reservas que
+--     actualizan contadores de zona no compitan por una sola fila; la
+--     versión de la tabla es SUM(version).
+-- ============================================================
+CREATE TABLE app.catalog_version (
+    table_name VARCHAR(64) NOT NULL,
+    shard      SMALLINT    NOT NULL,
+    version    BIGINT      NOT NULL DEFAULT 0,
+
+    CONSTRAINT pk_catalog_version
+        PRIMARY KEY (table_name, shard)
+);
+
+CREATE OR REPLACE FUNCTION app.fn_bump_catalog_version()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- Los UPDATE condicionales que no afectan filas no cambian la versión
+    IF EXISTS (SELECT 1 FROM changed_rows) THEN
+        INSERT INTO app.catalog_version (table_name, shard, version)
+        VALUES (TG_TABLE_NAME, pg_backend_pid() % 16, 1)
+        ON CONFLICT (table_name, shard) DO UPDATE
+        SET version = app.catalog_version.version + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION app.fn_bump_catalog_version() IS 'Incrementa la versión de un catálogo (app.catalog_version) cuando una sentencia modifica filas.';
+
+DO $$
+DECLARE
+    v_table TEXT;
+BEGIN
+    FOREACH v_table IN ARRAY ARRAY['region', 'ciudad', 'comuna', 'time_slot_template', 'zone_coverage', 'delivery_slot']
+    LOOP
+        EXECUTE format(
+            'CREATE TRIGGER trg_%1$s_version_insert AFTER INSERT ON app.%1$I '
+            'REFERENCING NEW TABLE AS changed_rows '
+            'FOR EACH STATEMENT EXECUTE FUNCTION app.fn_bump_catalog_version()', v_table);
+        EXECUTE format(
+            'CREATE TRIGGER trg_%1$s_version_update AFTER UPDATE ON app.%1$I '
+            'REFERENCING NEW TABLE AS changed_rows '
+            'FOR EACH STATEMENT EXECUTE FUNCTION app.fn_bump_catalog_version()', v_table);
+        EXECUTE format(
+            'CREATE TRIGGER trg_%1$s_version_delete AFTER DELETE ON app.%1$I '
+            'REFERENCING OLD TABLE AS changed_rows '
+            'FOR EACH STATEMENT EXECUTE FUNCTION app.fn_bump_catalog_version()', v_table);
+    END LOOP;
+END;
+$$;
+
 -- ============================================================
 -- DIAGRAMA DE RELACIONES (resumen)
 -- ============================================================
@@ -990,7 +1139,8 @@ INSERT INTO zone_coverage (name, commune, region, locality, delivery_slot_id, ma
 --   slot 2 → max_capacity = 15
 --   slot 5 → max_capacity = 25
 --   slot 7 → max_capacity = 10
--- Marcamos slot 7 como agotado (reserved_count = max_capacity = 10)
+-- Marcamos slot 7 como agotado (reserved_count = max_capacity = 10) en sus zonas y en el slot
+UPDATE zone_coverage SET reserved_count = max_capacity WHERE delivery_slot_id = 7;
 UPDATE delivery_slot SET reserved_count = 10 WHERE id = 7;
 
 -- Cliente de ejemplo
@@ -0,0 +1,62 @@
+package com.app.demo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Un pool Hikari por carga de trabajo detrás de un único DataSource enrutado.
+ * Cada pool tiene su propio tamaño y tiempo máximo de espera por conexión, de
+ * modo que lecturas lentas de geometrías no agotan las conexiones de las
+ * escrituras de reservas. Las métricas de cada pool (hikaricp.connections.*,
+ * incluida la espera en cola) se publican con el nombre del pool.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${spring.datasource.driver-class-name}") String driverClassName,
+            Environment environment,
+            MeterRegistry meterRegistry
+    ) {
+        MicrometerMetricsTrackerFactory metricsTrackerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+        Map<Object, Object> pools = new EnumMap<>(DataSourceWorkload.class);
+        for (DataSourceWorkload workload : DataSourceWorkload.values()) {
+            String prefix = "app.datasource.pools." + workload.getPropertyName() + ".";
+
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(workload.getPropertyName());
+            config.setJdbcUrl(url);
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setDriverClassName(driverClassName);
+            config.setMaximumPoolSize(environment.getProperty(prefix + "maximum-pool-size", Integer.class, 10));
+            config.setMinimumIdle(environment.getProperty(prefix + "minimum-idle", Integer.class, 2));
+            config.setConnectionTimeout(environment.getProperty(prefix + "connection-timeout", Long.class, 30000L));
+            config.setMetricsTrackerFactory(metricsTrackerFactory);
+            pools.put(workload, new HikariDataSource(config));
+        }
+
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource();
+        dataSource.setTargetDataSources(pools);
+        // Tareas programadas y el arranque no pasan por el filtro: no compiten con los requests
+        dataSource.setDefaultTargetDataSource(pools.get(DataSourceWorkload.BACKGROUND));
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+}
@@ -0,0 +1,54 @@
+package com.app.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Asigna a cada request el pool de conexiones de su carga de trabajo antes de
+ * que se abra cualquier transacción.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DataSourceRoutingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        WorkloadRoutingDataSource.use(resolveWorkload(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            WorkloadRoutingDataSource.clear();
+        }
+    }
+
+    private DataSourceWorkload resolveWorkload(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean isRead = HttpMethod.GET.matches(request.getMethod());
+
+        // Importaciones y exportaciones retienen su conexión durante toda la transferencia
+        if (path.equals("/api/delivery-addresses/import") || path.equals("/api/reservations/export")) {
+            return DataSourceWorkload.BACKGROUND;
+        }
+        if (path.startsWith("/api/reservations") && !isRead) {
+            return DataSourceWorkload.RESERVATION_WRITES;
+        }
+        if (path.startsWith("/api/zone-coverages") || path.startsWith("/api/locations")
+                || path.startsWith("/api/tiles")) {
+            return DataSourceWorkload.ADMIN_GEOMETRY;
+        }
+        return DataSourceWorkload.CATALOG_READS;
+    }
+}
@@ -0,0 +1,24 @@
+package com.app.demo.config;
+
+/**
+ * Cargas de trabajo con pool de conexiones propio (bulkheads). Cada una toma
+ * su configuración de {@code app.datasource.pools.<propertyName>}.
+ */
+public enum DataSourceWorkload {
+
+    RESERVATION_WRITES("reservation-writes"),
+    CATALOG_READS("catalog-reads"),
+    ADMIN_GEOMETRY("admin-geometry"),
+    /** Tareas programadas, arranque, importaciones y exportaciones masivas. */
+    BACKGROUND("background");
+
+    private final String propertyName;
+
+    DataSourceWorkload(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+}
@@ -0,0 +1,12 @@
+package com.app.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (flush y reconciliación de contadores de capacidad).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,38 @@
+package com.app.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Enruta cada conexión al pool de la carga de trabajo del hilo actual. Sin
+ * carga asignada (tareas programadas, arranque) se usa el pool por defecto,
+ * {@link DataSourceWorkload#BACKGROUND}.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<DataSourceWorkload> CURRENT = new ThreadLocal<>();
+
+    public static void use(DataSourceWorkload workload) {
+        CURRENT.set(workload);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Cierra los pools al detener el contexto.
+     */
+    public void close() {
+        getResolvedDataSources().values().forEach(dataSource -> {
+            if (dataSource instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.app.demo.config.geometry;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+/**
+ * Escritor de TWKB (Tiny Well-Known Binary) para polígonos 2D.
+ * <p>
+ * Las coordenadas se cuantizan a {@code precision} decimales y se escriben como
+ * diferencias respecto del punto anterior en varints zigzag, por lo que cada
+ * vértice ocupa típicamente 2 a 4 bytes. Para colecciones se usa la lista de
+ * ids de TWKB, de modo que cada polígono lleva el id de su zona. La salida es
+ * la de {@code ST_AsTWKB(geom, precision, include_sizes => true)}.
+ */
+public final class TwkbWriter {
+
+    private static final int TYPE_POLYGON = 3;
+    private static final int TYPE_MULTIPOLYGON = 6;
+    private static final int FLAG_SIZE = 0x02;
+    private static final int FLAG_IDLIST = 0x04;
+    private static final int FLAG_EMPTY = 0x10;
+    private static final int MIN_RING_POINTS = 4;
+
+    private final int precision;
+    private final double scale;
+
+    public TwkbWriter(int precision) {
+        if (precision < -7 || precision > 7) {
+            throw new IllegalArgumentException("La precision TWKB debe estar entre -7 y 7");
+        }
+        this.precision = precision;
+        this.scale = Math.pow(10, precision);
+    }
+
+    public byte[] write(Polygon polygon) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (!polygon.isEmpty()) {
+            writePolygon(body, polygon, new long[2]);
+        }
+        return frame(TYPE_POLYGON, 0, polygon.isEmpty(), body);
+    }
+
+    /**
+     * MultiPolygon con un id por polígono, en el mismo orden.
+     */
+    public byte[] writeMultiPolygon(List<Polygon> polygons, List<Long> ids) {
+        if (polygons.size() != ids.size()) {
+            throw new IllegalArgumentException("Debe haber un id por poligono");
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (!polygons.isEmpty()) {
+            writeUnsigned(body, polygons.size());
+            ids.forEach(id -> writeSigned(body, id));
+            long[] previous = new long[2];
+            polygons.forEach(polygon -> writePolygon(body, polygon, previous));
+        }
+        return frame(TYPE_MULTIPOLYGON, FLAG_IDLIST, polygons.isEmpty(), body);
+    }
+
+    private byte[] frame(int type, int flags, boolean empty, ByteArrayOutputStream body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.size() + 8);
+        out.write((int) (zigzag(precision) << 4) | type);
+        if (empty) {
+            out.write(FLAG_EMPTY);
+        } else {
+            out.write(flags | FLAG_SIZE);
+            writeUnsigned(out, body.size());
+            out.writeBytes(body.toByteArray());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Los anillos se escriben cerrados. {@code previous} es el último punto
+     * escrito: los deltas continúan entre anillos y polígonos.
+     */
+    private void writePolygon(ByteArrayOutputStream out, Polygon polygon, long[] previous) {
+        writeUnsigned(out, polygon.getNumInteriorRing() + 1);
+        writeRing(out, polygon.getExteriorRing(), previous);
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            writeRing(out, polygon.getInteriorRingN(i), previous);
+        }
+    }
+
+    /**
+     * Igual que ST_AsTWKB: un punto que tras cuantizar repite al anterior se
+     * omite mientras el anillo conserve al menos {@link #MIN_RING_POINTS}.
+     */
+    private void writeRing(ByteArrayOutputStream out, LineString ring, long[] previous) {
+        CoordinateSequence sequence = ring.getCoordinateSequence();
+        ByteArrayOutputStream points = new ByteArrayOutputStream(sequence.size() * 4);
+        int remaining = sequence.size();
+        int written = 0;
+        for (int i = 0; i < sequence.size(); i++) {
+            long x = quantize(sequence.getX(i));
+            long y = quantize(sequence.getY(i));
+            if (i > 0 && x == previous[0] && y == previous[1] && remaining > MIN_RING_POINTS) {
+                remaining--;
+                continue;
+            }
+            writeSigned(points, x - previous[0]);
+            writeSigned(points, y - previous[1]);
+            previous[0] = x;
+            previous[1] = y;
+            written++;
+        }
+        writeUnsigned(out, written);
+        out.writeBytes(points.toByteArray());
+    }
+
+    /**
+     * Redondeo a la mitad lejos de cero, como llround en PostGIS.
+     */
+    private long quantize(double ordinate) {
+        double scaled = ordinate * scale;
+        return scaled < 0 ? -Math.round(-scaled) : Math.round(scaled);
+    }
+
+    private static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeUnsigned(out, zigzag(value));
+    }
+
+    private static void writeUnsigned(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -1,21 +1,32 @@
 package com.app.demo.config.jackson;
 
 import org.locationtech.jts.geom.*;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
 import tools.jackson.core.JsonParser;
 import tools.jackson.core.JsonToken;
 import tools.jackson.databind.DeserializationContext;
 import tools.jackson.databind.deser.std.StdDeserializer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Deserializador de GeoJSON a geometrías JTS.
  * Compatible con Jackson 3.x (tools.jackson) y Spring Boot 4.
+ * <p>
+ * Las coordenadas se leen token a token en un arreglo de doubles propio de cada
+ * lectura, que crece al doble cuando se llena, y cada anillo o línea se copia
+ * una sola vez a una {@link PackedCoordinateSequence}: no se crean listas ni
+ * doubles boxeados por vértice. No se usa un buffer por hilo: con hilos
+ * virtuales cada request tiene un hilo nuevo y el buffer no se reutilizaría.
+ * "type" puede venir antes o después de "coordinates".
  */
 public class GeometryDeserializer extends StdDeserializer<Geometry> {
 
-    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+    private static final GeometryFactory GEOMETRY_FACTORY =
+            new GeometryFactory(new PrecisionModel(), 4326, PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
 
     public GeometryDeserializer() {
         super(Geometry.class);
@@ -26,7 +37,7 @@ public class GeometryDeserializer extends StdDeserializer<Geometry> {
             throws tools.jackson.core.JacksonException {
 
         String type = null;
-        Object coordinatesNode = null;
+        ParsedCoordinates coordinates = null;
         List<Geometry> geometries = null;
 
         while (parser.nextToken() != JsonToken.END_OBJECT) {
@@ -36,7 +47,7 @@ public class GeometryDeserializer extends StdDeserializer<Geometry> {
             if ("type".equals(fieldName)) {
                 type = parser.getText();
             } else if ("coordinates".equals(fieldName)) {
-                coordinatesNode = parseCoordinates(parser);
+                coordinates = parseCoordinates(parser, context);
             } else if ("geometries".equals(fieldName)) {
                 geometries = parseGeometries(parser, context);
             } else {
@@ -48,105 +59,187 @@ public class GeometryDeserializer extends StdDeserializer<Geometry> {
             return null;
         }
 
-        return switch (type) {
-            case "Point" -> createPoint(coordinatesNode);
-            case "MultiPoint" -> createMultiPoint(coordinatesNode);
-            case "LineString" -> createLineString(coordinatesNode);
-            case "MultiLineString" -> createMultiLineString(coordinatesNode);
-            case "Polygon" -> createPolygon(coordinatesNode);
-            case "MultiPolygon" -> createMultiPolygon(coordinatesNode);
-            case "GeometryCollection" -> createGeometryCollection(geometries);
-            default -> null;
+        if ("GeometryCollection".equals(type)) {
+            return createGeometryCollection(geometries);
+        }
+        int expectedLevel = switch (type) {
+            case "Point" -> 1;
+            case "MultiPoint", "LineString" -> 2;
+            case "MultiLineString", "Polygon" -> 3;
+            case "MultiPolygon" -> 4;
+            default -> 0;
         };
-    }
+        if (expectedLevel == 0) {
+            return null;
+        }
+        if (coordinates == null || coordinates.isEmpty()) {
+            return createEmpty(type);
+        }
+        if (coordinates.positionLevel() != expectedLevel) {
+            return context.reportInputMismatch(Geometry.class, "Coordenadas GeoJSON invalidas para %s", type);
+        }
 
-    @SuppressWarnings("unchecked")
-    private Object parseCoordinates(JsonParser parser) throws tools.jackson.core.JacksonException {
-        return parseArray(parser);
+        try {
+            return switch (type) {
+                case "Point" -> GEOMETRY_FACTORY.createPoint(coordinates.sequence(0));
+                case "MultiPoint" -> GEOMETRY_FACTORY.createMultiPoint(coordinates.sequence(0));
+                case "LineString" -> GEOMETRY_FACTORY.createLineString(coordinates.sequence(0));
+                case "MultiLineString" -> createMultiLineString(coordinates);
+                case "Polygon" -> createPolygon(coordinates, 0, coordinates.sequenceCount());
+                default -> createMultiPolygon(coordinates);
+            };
+        } catch (IllegalArgumentException ex) {
+            // JTS rechaza p. ej. anillos abiertos o con menos de 4 posiciones
+            return context.reportInputMismatch(Geometry.class, "Geometria GeoJSON invalida: %s", ex.getMessage());
+        }
     }
 
-    private Object parseArray(JsonParser parser) throws tools.jackson.core.JacksonException {
-        List<Object> list = new ArrayList<>();
-        while (parser.nextToken() != JsonToken.END_ARRAY) {
-            if (parser.currentToken() == JsonToken.START_ARRAY) {
-                list.add(parseArray(parser));
-            } else {
-                list.add(parser.getDoubleValue());
-            }
+    /**
+     * Lee el arreglo "coordinates" (el parser está en su START_ARRAY).
+     */
+    private ParsedCoordinates parseCoordinates(JsonParser parser, DeserializationContext context)
+            throws tools.jackson.core.JacksonException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            return context.reportInputMismatch(Geometry.class, "\"coordinates\" debe ser un arreglo");
         }
-        return list;
+        OrdinateBuffer buffer = new OrdinateBuffer();
+        readArray(parser, context, buffer, 1);
+        return buffer.finish();
     }
 
-    private List<Geometry> parseGeometries(JsonParser parser, DeserializationContext context)
+    /**
+     * Un arreglo cuyo primer elemento es un número es una posición; el nivel en
+     * que aparecen las posiciones define dónde cierran las secuencias (un nivel
+     * arriba). Los cierres de nivel 2 se registran siempre, porque un {@code []}
+     * inicial cierra antes de conocer ese nivel; {@link OrdinateBuffer#finish()}
+     * los usa como polígonos solo si es un MultiPolygon.
+     */
+    private void readArray(JsonParser parser, DeserializationContext context, OrdinateBuffer buffer, int level)
             throws tools.jackson.core.JacksonException {
-        List<Geometry> geomList = new ArrayList<>();
-        while (parser.nextToken() != JsonToken.END_ARRAY) {
-            geomList.add(deserialize(parser, context));
+        JsonToken token = parser.nextToken();
+        if (token != null && token.isNumeric()) {
+            readPosition(parser, context, buffer, level);
+            return;
+        }
+        while (token != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_ARRAY) {
+                context.reportInputMismatch(Geometry.class, "Coordenadas GeoJSON invalidas");
+            }
+            readArray(parser, context, buffer, level + 1);
+            token = parser.nextToken();
+        }
+        if (level == buffer.positionLevel - 1) {
+            buffer.endSequence();
+        } else if (level == 2) {
+            buffer.endGroup();
         }
-        return geomList;
     }
 
-    @SuppressWarnings("unchecked")
-    private Coordinate toCoordinate(Object obj) {
-        List<Object> coords = (List<Object>) obj;
-        double x = ((Number) coords.get(0)).doubleValue();
-        double y = ((Number) coords.get(1)).doubleValue();
-        if (coords.size() > 2) {
-            double z = ((Number) coords.get(2)).doubleValue();
-            return new Coordinate(x, y, z);
+    /**
+     * El parser está en el primer número de la posición.
+     */
+    private void readPosition(JsonParser parser, DeserializationContext context, OrdinateBuffer buffer, int level)
+            throws tools.jackson.core.JacksonException {
+        if (buffer.positionLevel == 0) {
+            buffer.positionLevel = level;
+        } else if (buffer.positionLevel != level) {
+            context.reportInputMismatch(Geometry.class, "Coordenadas GeoJSON con anidamiento inconsistente");
         }
-        return new Coordinate(x, y);
-    }
 
-    @SuppressWarnings("unchecked")
-    private Coordinate[] toCoordinateArray(Object obj) {
-        List<Object> list = (List<Object>) obj;
-        return list.stream().map(this::toCoordinate).toArray(Coordinate[]::new);
-    }
+        double x = parser.getDoubleValue();
+        JsonToken next = parser.nextToken();
+        if (next == null || !next.isNumeric()) {
+            context.reportInputMismatch(Geometry.class, "Cada posicion GeoJSON requiere al menos dos numeros");
+        }
+        double y = parser.getDoubleValue();
+        JsonToken token = parser.nextToken();
+        int dimension = 2;
+        double z = 0;
+        if (token != JsonToken.END_ARRAY) {
+            if (token == null || !token.isNumeric()) {
+                context.reportInputMismatch(Geometry.class, "Las posiciones GeoJSON solo pueden contener numeros");
+            }
+            z = parser.getDoubleValue();
+            dimension = 3;
+            // Las medidas (M) y ordenadas adicionales no se conservan
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null || !token.isNumeric()) {
+                    context.reportInputMismatch(Geometry.class, "Las posiciones GeoJSON solo pueden contener numeros");
+                }
+            }
+        }
 
-    private Point createPoint(Object coords) {
-        return GEOMETRY_FACTORY.createPoint(toCoordinate(coords));
+        if (buffer.dimension == 0) {
+            buffer.dimension = dimension;
+        } else if (buffer.dimension != dimension) {
+            context.reportInputMismatch(Geometry.class, "Todas las posiciones deben tener la misma dimension");
+        }
+        buffer.add(x);
+        buffer.add(y);
+        if (dimension == 3) {
+            buffer.add(z);
+        }
     }
 
-    @SuppressWarnings("unchecked")
-    private MultiPoint createMultiPoint(Object coords) {
-        List<Object> list = (List<Object>) coords;
-        Point[] points = list.stream()
-                .map(c -> GEOMETRY_FACTORY.createPoint(toCoordinate(c)))
-                .toArray(Point[]::new);
-        return GEOMETRY_FACTORY.createMultiPoint(points);
+    private List<Geometry> parseGeometries(JsonParser parser, DeserializationContext context)
+            throws tools.jackson.core.JacksonException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            return context.reportInputMismatch(Geometry.class, "\"geometries\" debe ser un arreglo");
+        }
+        List<Geometry> geomList = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            Geometry geometry = parser.currentToken() == JsonToken.START_OBJECT ? deserialize(parser, context) : null;
+            if (geometry == null) {
+                return context.reportInputMismatch(Geometry.class, "GeometryCollection con una geometria invalida");
+            }
+            geomList.add(geometry);
+        }
+        return geomList;
     }
 
-    private LineString createLineString(Object coords) {
-        return GEOMETRY_FACTORY.createLineString(toCoordinateArray(coords));
+    private Geometry createEmpty(String type) {
+        return switch (type) {
+            case "Point" -> GEOMETRY_FACTORY.createPoint();
+            case "MultiPoint" -> GEOMETRY_FACTORY.createMultiPoint();
+            case "LineString" -> GEOMETRY_FACTORY.createLineString();
+            case "MultiLineString" -> GEOMETRY_FACTORY.createMultiLineString();
+            case "Polygon" -> GEOMETRY_FACTORY.createPolygon();
+            default -> GEOMETRY_FACTORY.createMultiPolygon();
+        };
     }
 
-    @SuppressWarnings("unchecked")
-    private MultiLineString createMultiLineString(Object coords) {
-        List<Object> list = (List<Object>) coords;
-        LineString[] lines = list.stream()
-                .map(c -> GEOMETRY_FACTORY.createLineString(toCoordinateArray(c)))
-                .toArray(LineString[]::new);
+    private MultiLineString createMultiLineString(ParsedCoordinates coordinates) {
+        LineString[] lines = new LineString[coordinates.sequenceCount()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = GEOMETRY_FACTORY.createLineString(coordinates.sequence(i));
+        }
         return GEOMETRY_FACTORY.createMultiLineString(lines);
     }
 
-    @SuppressWarnings("unchecked")
-    private Polygon createPolygon(Object coords) {
-        List<Object> rings = (List<Object>) coords;
-        LinearRing shell = GEOMETRY_FACTORY.createLinearRing(toCoordinateArray(rings.get(0)));
-        LinearRing[] holes = new LinearRing[rings.size() - 1];
-        for (int i = 1; i < rings.size(); i++) {
-            holes[i - 1] = GEOMETRY_FACTORY.createLinearRing(toCoordinateArray(rings.get(i)));
+    /**
+     * Anillos {@code [from, to)}; sin anillos es un polígono vacío (p. ej. un
+     * {@code []} dentro de un MultiPolygon).
+     */
+    private Polygon createPolygon(ParsedCoordinates coordinates, int from, int to) {
+        if (from == to) {
+            return GEOMETRY_FACTORY.createPolygon();
+        }
+        LinearRing shell = GEOMETRY_FACTORY.createLinearRing(coordinates.sequence(from));
+        LinearRing[] holes = new LinearRing[to - from - 1];
+        for (int i = 0; i < holes.length; i++) {
+            holes[i] = GEOMETRY_FACTORY.createLinearRing(coordinates.sequence(from + 1 + i));
         }
         return GEOMETRY_FACTORY.createPolygon(shell, holes);
     }
 
-    @SuppressWarnings("unchecked")
-    private MultiPolygon createMultiPolygon(Object coords) {
-        List<Object> list = (List<Object>) coords;
-        Polygon[] polygons = list.stream()
-                .map(this::createPolygon)
-                .toArray(Polygon[]::new);
+    private MultiPolygon createMultiPolygon(ParsedCoordinates coordinates) {
+        int[] groupEnds = coordinates.groupEnds();
+        Polygon[] polygons = new Polygon[groupEnds.length];
+        int from = 0;
+        for (int i = 0; i < groupEnds.length; i++) {
+            polygons[i] = createPolygon(coordinates, from, groupEnds[i]);
+            from = groupEnds[i];
+        }
         return GEOMETRY_FACTORY.createMultiPolygon(polygons);
     }
 
@@ -154,4 +247,72 @@ public class GeometryDeserializer extends StdDeserializer<Geometry> {
         if (geometries == null) return GEOMETRY_FACTORY.createGeometryCollection();
         return GEOMETRY_FACTORY.createGeometryCollection(geometries.toArray(new Geometry[0]));
     }
+
+    /**
+     * Secuencias ya empaquetadas de un arreglo "coordinates" y, para
+     * MultiPolygon, el índice de secuencia en que termina cada polígono.
+     */
+    private record ParsedCoordinates(int positionLevel, CoordinateSequence[] sequences, int[] groupEnds) {
+
+        boolean isEmpty() {
+            return sequences.length == 0;
+        }
+
+        int sequenceCount() {
+            return sequences.length;
+        }
+
+        CoordinateSequence sequence(int index) {
+            return sequences[index];
+        }
+    }
+
+    /**
+     * Ordenadas de la geometría en curso; se crea una por arreglo "coordinates".
+     */
+    private static final class OrdinateBuffer {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private double[] ordinates = new double[INITIAL_CAPACITY];
+        private int size;
+        private int sequenceStart;
+        private int dimension;
+        private int positionLevel;
+        private final List<CoordinateSequence> sequences = new ArrayList<>();
+        private int[] groupEnds = new int[8];
+        private int groupCount;
+
+        void add(double ordinate) {
+            if (size == ordinates.length) {
+                ordinates = Arrays.copyOf(ordinates, ordinates.length * 2);
+            }
+            ordinates[size++] = ordinate;
+        }
+
+        void endSequence() {
+            sequences.add(new PackedCoordinateSequence.Double(
+                    Arrays.copyOfRange(ordinates, sequenceStart, size), dimension, 0
+            ));
+            sequenceStart = size;
+        }
+
+        void endGroup() {
+            if (groupCount == groupEnds.length) {
+                groupEnds = Arrays.copyOf(groupEnds, groupCount * 2);
+            }
+            groupEnds[groupCount++] = sequences.size();
+        }
+
+        ParsedCoordinates finish() {
+            if (positionLevel == 1) {
+                endSequence();
+            }
+            return new ParsedCoordinates(
+                    positionLevel,
+                    sequences.toArray(new CoordinateSequence[0]),
+                    Arrays.copyOf(groupEnds, positionLevel == 4 ? groupCount : 0)
+            );
+        }
+    }
 }
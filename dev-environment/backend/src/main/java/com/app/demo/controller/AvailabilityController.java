@@ -0,0 +1,29 @@
+package com.app.demo.controller;
+
+import com.app.demo.dto.SlotAvailabilityResponse;
+import com.app.demo.service.SlotAvailabilityService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/availability")
+public class AvailabilityController {
+
+    private final SlotAvailabilityService slotAvailabilityService;
+
+    public AvailabilityController(SlotAvailabilityService slotAvailabilityService) {
+        this.slotAvailabilityService = slotAvailabilityService;
+    }
+
+    @GetMapping
+    public List<SlotAvailabilityResponse> getForAddress(
+            @RequestParam Long deliveryAddressId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return slotAvailabilityService.findForAddress(deliveryAddressId, from, to);
+    }
+}
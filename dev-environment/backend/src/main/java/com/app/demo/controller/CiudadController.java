@@ -1,8 +1,11 @@
 package com.app.demo.controller;
 
 import com.app.demo.dto.CiudadResponse;
+import com.app.demo.model.CatalogTable;
+import com.app.demo.service.CatalogVersionService;
 import com.app.demo.service.CiudadService;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -11,13 +14,18 @@ import java.util.List;
 public class CiudadController {
 
     private final CiudadService ciudadService;
+    private final CatalogVersionService catalogVersionService;
 
-    public CiudadController(CiudadService ciudadService) {
+    public CiudadController(CiudadService ciudadService, CatalogVersionService catalogVersionService) {
         this.ciudadService = ciudadService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     @GetMapping("/by-region/{regionId}")
-    public List<CiudadResponse> getByRegion(@PathVariable Long regionId) {
+    public List<CiudadResponse> getByRegion(@PathVariable Long regionId, WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.CIUDAD)) {
+            return null;
+        }
         return ciudadService.findByRegionId(regionId)
                 .stream()
                 .map(CiudadResponse::fromEntity)
@@ -25,7 +33,10 @@ public class CiudadController {
     }
 
     @GetMapping("/{id}")
-    public CiudadResponse getById(@PathVariable Long id) {
+    public CiudadResponse getById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.CIUDAD)) {
+            return null;
+        }
         return CiudadResponse.fromEntity(ciudadService.findById(id));
     }
 }
@@ -1,8 +1,11 @@
 package com.app.demo.controller;
 
 import com.app.demo.dto.ComunaResponse;
+import com.app.demo.model.CatalogTable;
+import com.app.demo.service.CatalogVersionService;
 import com.app.demo.service.ComunaService;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -11,13 +14,18 @@ import java.util.List;
 public class ComunaController {
 
     private final ComunaService comunaService;
+    private final CatalogVersionService catalogVersionService;
 
-    public ComunaController(ComunaService comunaService) {
+    public ComunaController(ComunaService comunaService, CatalogVersionService catalogVersionService) {
         this.comunaService = comunaService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     @GetMapping("/by-ciudad/{ciudadId}")
-    public List<ComunaResponse> getByCiudad(@PathVariable Long ciudadId) {
+    public List<ComunaResponse> getByCiudad(@PathVariable Long ciudadId, WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.COMUNA)) {
+            return null;
+        }
         return comunaService.findByCiudadId(ciudadId)
                 .stream()
                 .map(ComunaResponse::fromEntity)
@@ -25,7 +33,10 @@ public class ComunaController {
     }
 
     @GetMapping("/{id}")
-    public ComunaResponse getById(@PathVariable Long id) {
+    public ComunaResponse getById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.COMUNA)) {
+            return null;
+        }
         return ComunaResponse.fromEntity(comunaService.findById(id));
     }
 }
@@ -1,13 +1,18 @@
 package com.app.demo.controller;
 
+import com.app.demo.dto.DeliveryAddressImportResponse;
 import com.app.demo.dto.DeliveryAddressRequest;
 import com.app.demo.dto.DeliveryAddressResponse;
+import com.app.demo.service.DeliveryAddressImportService;
 import com.app.demo.service.DeliveryAddressService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,9 +20,14 @@ import java.util.List;
 public class DeliveryAddressController {
 
     private final DeliveryAddressService deliveryAddressService;
+    private final DeliveryAddressImportService deliveryAddressImportService;
 
-    public DeliveryAddressController(DeliveryAddressService deliveryAddressService) {
+    public DeliveryAddressController(
+            DeliveryAddressService deliveryAddressService,
+            DeliveryAddressImportService deliveryAddressImportService
+    ) {
         this.deliveryAddressService = deliveryAddressService;
+        this.deliveryAddressImportService = deliveryAddressImportService;
     }
 
     @GetMapping("/by-customer/{customerId}")
@@ -36,6 +46,21 @@ public class DeliveryAddressController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Importa direcciones de un customer desde el cuerpo de la solicitud: text/csv
+     * con cabecera o un FeatureCollection GeoJSON (application/geo+json).
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/geo+json", MediaType.APPLICATION_JSON_VALUE})
+    public DeliveryAddressImportResponse importAddresses(
+            @RequestParam Long customerId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body
+    ) {
+        return deliveryAddressImportService.importAddresses(
+                customerId, DeliveryAddressImportService.parseFormat(contentType), body
+        );
+    }
+
     @PutMapping("/{id}")
     public DeliveryAddressResponse update(@PathVariable Long id, @Valid @RequestBody DeliveryAddressRequest request) {
         return deliveryAddressService.update(id, request);
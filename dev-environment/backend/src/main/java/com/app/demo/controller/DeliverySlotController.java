@@ -1,13 +1,27 @@
 package com.app.demo.controller;
 
+import com.app.demo.dto.DeliverySlotFilter;
+import com.app.demo.dto.DeliverySlotPageResponse;
 import com.app.demo.dto.DeliverySlotRequest;
 import com.app.demo.dto.DeliverySlotResponse;
+import com.app.demo.dto.SlotCalendarResponse;
+import com.app.demo.model.CatalogTable;
+import com.app.demo.service.CatalogVersionService;
+import com.app.demo.service.DeliverySlotCache;
 import com.app.demo.service.DeliverySlotService;
+import com.app.demo.service.SlotCalendarIndex;
+import com.app.demo.service.SlotCapacityStream;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -15,22 +29,69 @@ import java.util.List;
 public class DeliverySlotController {
 
     private final DeliverySlotService deliverySlotService;
+    private final DeliverySlotCache deliverySlotCache;
+    private final SlotCapacityStream slotCapacityStream;
+    private final SlotCalendarIndex slotCalendarIndex;
+    private final CatalogVersionService catalogVersionService;
 
-    public DeliverySlotController(DeliverySlotService deliverySlotService) {
+    public DeliverySlotController(
+            DeliverySlotService deliverySlotService,
+            DeliverySlotCache deliverySlotCache,
+            SlotCapacityStream slotCapacityStream,
+            SlotCalendarIndex slotCalendarIndex,
+            CatalogVersionService catalogVersionService
+    ) {
         this.deliverySlotService = deliverySlotService;
+        this.deliverySlotCache = deliverySlotCache;
+        this.slotCapacityStream = slotCapacityStream;
+        this.slotCalendarIndex = slotCalendarIndex;
+        this.catalogVersionService = catalogVersionService;
     }
 
     @GetMapping
-    public List<DeliverySlotResponse> getAll() {
-        return deliverySlotService.findAll()
-                .stream()
-                .map(DeliverySlotResponse::fromEntity)
-                .toList();
+    public List<DeliverySlotResponse> getAll(WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.DELIVERY_SLOT)) {
+            return null;
+        }
+        return deliverySlotCache.findAll();
+    }
+
+    @GetMapping("/search")
+    public DeliverySlotPageResponse search(
+            DeliverySlotFilter filter,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return deliverySlotService.search(filter, page, size);
+    }
+
+    /**
+     * Matriz compacta día x template servida desde memoria; ver {@link SlotCalendarResponse}.
+     */
+    @GetMapping("/calendar")
+    public SlotCalendarResponse calendar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "28") int days
+    ) {
+        return slotCalendarIndex.calendar(from, days);
+    }
+
+    /**
+     * Eventos "capacity" con un arreglo de {slotId, reservedCount, maxCapacity, isActive}.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(HttpServletResponse response) {
+        // Evita que nginx acumule los eventos en su buffer
+        response.setHeader("X-Accel-Buffering", "no");
+        return slotCapacityStream.subscribe();
     }
 
     @GetMapping("/{id}")
-    public DeliverySlotResponse getById(@PathVariable Long id) {
-        return DeliverySlotResponse.fromEntity(deliverySlotService.findById(id));
+    public DeliverySlotResponse getById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.DELIVERY_SLOT)) {
+            return null;
+        }
+        return deliverySlotCache.findById(id);
     }
 
     @PostMapping
@@ -1,8 +1,11 @@
 package com.app.demo.controller;
 
 import com.app.demo.dto.RegionResponse;
+import com.app.demo.model.CatalogTable;
+import com.app.demo.service.CatalogVersionService;
 import com.app.demo.service.RegionService;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -11,13 +14,18 @@ import java.util.List;
 public class RegionController {
 
     private final RegionService regionService;
+    private final CatalogVersionService catalogVersionService;
 
-    public RegionController(RegionService regionService) {
+    public RegionController(RegionService regionService, CatalogVersionService catalogVersionService) {
         this.regionService = regionService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     @GetMapping
-    public List<RegionResponse> getAll() {
+    public List<RegionResponse> getAll(WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.REGION)) {
+            return null;
+        }
         return regionService.findAll()
                 .stream()
                 .map(RegionResponse::fromEntity)
@@ -25,7 +33,10 @@ public class RegionController {
     }
 
     @GetMapping("/{id}")
-    public RegionResponse getById(@PathVariable Long id) {
+    public RegionResponse getById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.REGION)) {
+            return null;
+        }
         return RegionResponse.fromEntity(regionService.findById(id));
     }
 }
@@ -1,39 +1,82 @@
 package com.app.demo.controller;
 
+import com.app.demo.dto.ReservationBatchRequest;
+import com.app.demo.dto.ReservationBatchResponse;
+import com.app.demo.dto.ReservationFilter;
+import com.app.demo.dto.ReservationPageResponse;
 import com.app.demo.dto.ReservationRequest;
 import com.app.demo.dto.ReservationResponse;
+import com.app.demo.model.Reservation;
+import com.app.demo.service.IdempotencyService;
+import com.app.demo.service.ReservationBatchService;
+import com.app.demo.service.ReservationExportService;
+import com.app.demo.service.ReservationPipeline;
 import com.app.demo.service.ReservationService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/reservations")
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final ReservationBatchService reservationBatchService;
+    private final ReservationPipeline reservationPipeline;
+    private final IdempotencyService idempotencyService;
+    private final ReservationExportService reservationExportService;
 
-    public ReservationController(ReservationService reservationService) {
+    public ReservationController(
+            ReservationService reservationService,
+            ReservationBatchService reservationBatchService,
+            ReservationPipeline reservationPipeline,
+            IdempotencyService idempotencyService,
+            ReservationExportService reservationExportService
+    ) {
         this.reservationService = reservationService;
+        this.reservationBatchService = reservationBatchService;
+        this.reservationPipeline = reservationPipeline;
+        this.idempotencyService = idempotencyService;
+        this.reservationExportService = reservationExportService;
     }
 
     @GetMapping
-    public List<ReservationResponse> getAll() {
-        return reservationService.findAll()
-                .stream()
-                .map(ReservationResponse::fromEntity)
-                .toList();
+    public ReservationPageResponse getAll(
+            ReservationFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return toPageResponse(reservationService.findPage(null, filter, cursor, limit));
     }
 
     @GetMapping("/by-customer/{customerId}")
-    public List<ReservationResponse> getByCustomer(@PathVariable Long customerId) {
-        return reservationService.findByCustomerId(customerId)
-                .stream()
-                .map(ReservationResponse::fromEntity)
-                .toList();
+    public ReservationPageResponse getByCustomer(
+            @PathVariable Long customerId,
+            ReservationFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return toPageResponse(reservationService.findPage(customerId, filter, cursor, limit));
+    }
+
+    @GetMapping("/export")
+    public void export(
+            ReservationFilter filter,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        ReservationExportService.Format exportFormat = ReservationExportService.parseFormat(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"reservations." + exportFormat.name().toLowerCase() + "\""
+        );
+        reservationExportService.export(filter, exportFormat, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -42,19 +85,61 @@ public class ReservationController {
     }
 
     @PostMapping
-    public ResponseEntity<ReservationResponse> create(@Valid @RequestBody ReservationRequest request) {
-        ReservationResponse response = ReservationResponse.fromEntity(reservationService.create(request));
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<?> create(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody ReservationRequest request
+    ) {
+        if (reservationPipeline.manages(request.getDeliverySlotId())) {
+            // La respuesta se guarda dentro de la transacción del lote
+            return idempotencyService.executeRecording(idempotencyKey, "POST /api/reservations", request, recorder ->
+                    created(reservationPipeline.submit(request, reservation -> recorder.record(created(reservation))))
+            );
+        }
+        return idempotencyService.execute(idempotencyKey, "POST /api/reservations", request, () ->
+                created(reservationService.create(request))
+        );
+    }
+
+    @PostMapping("/batch")
+    public ReservationBatchResponse createBatch(@Valid @RequestBody ReservationBatchRequest request) {
+        return ReservationBatchResponse.of(reservationBatchService.createAll(request.getReservations()));
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ReservationResponse confirm(@PathVariable Long id) {
+        return ReservationResponse.fromEntity(reservationService.confirm(id));
     }
 
     @PutMapping("/{id}")
-    public ReservationResponse update(@PathVariable Long id, @Valid @RequestBody ReservationRequest request) {
-        return ReservationResponse.fromEntity(reservationService.update(id, request));
+    public ResponseEntity<?> update(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable Long id,
+            @Valid @RequestBody ReservationRequest request
+    ) {
+        return idempotencyService.execute(idempotencyKey, "PUT /api/reservations/" + id, request, () ->
+                ResponseEntity.ok(ReservationResponse.fromEntity(reservationService.update(id, request)))
+        );
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        reservationService.delete(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<?> delete(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable Long id
+    ) {
+        return idempotencyService.execute(idempotencyKey, "DELETE /api/reservations/" + id, null, () -> {
+            reservationService.delete(id);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    private static ResponseEntity<ReservationResponse> created(Reservation reservation) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(ReservationResponse.fromEntity(reservation));
+    }
+
+    private ReservationPageResponse toPageResponse(ReservationService.ReservationPage page) {
+        return ReservationPageResponse.of(
+                page.items().stream().map(ReservationResponse::fromEntity).toList(),
+                page.nextCursor()
+        );
     }
 }
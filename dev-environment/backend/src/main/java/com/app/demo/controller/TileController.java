@@ -0,0 +1,31 @@
+package com.app.demo.controller;
+
+import com.app.demo.service.VectorTileService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tiles")
+public class TileController {
+
+    private static final MediaType MVT = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    private final VectorTileService vectorTileService;
+
+    public TileController(VectorTileService vectorTileService) {
+        this.vectorTileService = vectorTileService;
+    }
+
+    /**
+     * Capas "zone_coverages" y "delivery_addresses"; 204 si el tile no tiene geometrías.
+     */
+    @GetMapping("/{z}/{x}/{y}.mvt")
+    public ResponseEntity<byte[]> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        byte[] tile = vectorTileService.findTile(z, x, y);
+        if (tile.length == 0) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok().contentType(MVT).body(tile);
+    }
+}
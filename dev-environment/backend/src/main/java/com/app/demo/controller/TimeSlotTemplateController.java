@@ -2,11 +2,14 @@ package com.app.demo.controller;
 
 import com.app.demo.dto.TimeSlotTemplateRequest;
 import com.app.demo.dto.TimeSlotTemplateResponse;
+import com.app.demo.model.CatalogTable;
+import com.app.demo.service.CatalogVersionService;
 import com.app.demo.service.TimeSlotTemplateService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,13 +18,18 @@ import java.util.List;
 public class TimeSlotTemplateController {
 
     private final TimeSlotTemplateService service;
+    private final CatalogVersionService catalogVersionService;
 
-    public TimeSlotTemplateController(TimeSlotTemplateService service) {
+    public TimeSlotTemplateController(TimeSlotTemplateService service, CatalogVersionService catalogVersionService) {
         this.service = service;
+        this.catalogVersionService = catalogVersionService;
     }
 
     @GetMapping
-    public List<TimeSlotTemplateResponse> getAll() {
+    public List<TimeSlotTemplateResponse> getAll(WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.TIME_SLOT_TEMPLATE)) {
+            return null;
+        }
         return service.findAll()
                 .stream()
                 .map(TimeSlotTemplateResponse::fromEntity)
@@ -29,7 +37,10 @@ public class TimeSlotTemplateController {
     }
 
     @GetMapping("/{id}")
-    public TimeSlotTemplateResponse getById(@PathVariable Long id) {
+    public TimeSlotTemplateResponse getById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.TIME_SLOT_TEMPLATE)) {
+            return null;
+        }
         return TimeSlotTemplateResponse.fromEntity(service.findById(id));
     }
 
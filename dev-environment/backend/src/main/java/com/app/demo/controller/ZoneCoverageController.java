@@ -2,11 +2,20 @@ package com.app.demo.controller;
 
 import com.app.demo.dto.ZoneCoverageRequest;
 import com.app.demo.dto.ZoneCoverageResponse;
+import com.app.demo.model.CatalogTable;
+import com.app.demo.model.ZoneCoverage;
+import com.app.demo.service.CatalogVersionService;
+import com.app.demo.service.ZoneBoundaryEncoder;
+import com.app.demo.service.ZoneBoundarySimplifier;
 import com.app.demo.service.ZoneCoverageService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,22 +24,84 @@ import java.util.List;
 public class ZoneCoverageController {
 
     private final ZoneCoverageService zoneCoverageService;
+    private final CatalogVersionService catalogVersionService;
+    private final ZoneBoundarySimplifier zoneBoundarySimplifier;
+    private final ZoneBoundaryEncoder zoneBoundaryEncoder;
 
-    public ZoneCoverageController(ZoneCoverageService zoneCoverageService) {
+    public ZoneCoverageController(
+            ZoneCoverageService zoneCoverageService,
+            CatalogVersionService catalogVersionService,
+            ZoneBoundarySimplifier zoneBoundarySimplifier,
+            ZoneBoundaryEncoder zoneBoundaryEncoder
+    ) {
         this.zoneCoverageService = zoneCoverageService;
+        this.catalogVersionService = catalogVersionService;
+        this.zoneBoundarySimplifier = zoneBoundarySimplifier;
+        this.zoneBoundaryEncoder = zoneBoundaryEncoder;
     }
 
+    /**
+     * Con {@code zoom} (0-22) el boundary se simplifica para ese nivel del mapa.
+     */
     @GetMapping
-    public List<ZoneCoverageResponse> getAll() {
+    public List<ZoneCoverageResponse> getAll(@RequestParam(required = false) Integer zoom, WebRequest webRequest) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.ZONE_COVERAGE, "json")) {
+            return null;
+        }
         return zoneCoverageService.findAll()
                 .stream()
-                .map(ZoneCoverageResponse::fromEntity)
+                .map(zone -> toResponse(zone, zoom))
                 .toList();
     }
 
     @GetMapping("/{id}")
-    public ZoneCoverageResponse getById(@PathVariable Long id) {
-        return ZoneCoverageResponse.fromEntity(zoneCoverageService.findById(id));
+    public ZoneCoverageResponse getById(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer zoom,
+            WebRequest webRequest
+    ) {
+        if (catalogVersionService.notModified(webRequest, CatalogTable.ZONE_COVERAGE, "json")) {
+            return null;
+        }
+        return toResponse(zoneCoverageService.findById(id), zoom);
+    }
+
+    /**
+     * Solo los boundaries, en binario; ver {@link ZoneBoundaryEncoder} para el formato.
+     */
+    @GetMapping(produces = {ZoneBoundaryEncoder.WKB_VALUE, ZoneBoundaryEncoder.TWKB_VALUE})
+    public ResponseEntity<byte[]> getAllBoundaries(
+            @RequestParam(required = false) Integer zoom,
+            @RequestHeader(HttpHeaders.ACCEPT) String accept,
+            WebRequest webRequest
+    ) throws HttpMediaTypeNotAcceptableException {
+        MediaType format = binaryFormat(accept);
+        if (catalogVersionService.notModified(webRequest, CatalogTable.ZONE_COVERAGE, format.getSubtype())) {
+            return null;
+        }
+        List<ZoneCoverage> zones = zoneCoverageService.findAll();
+        byte[] body = ZoneBoundaryEncoder.TWKB.equals(format)
+                ? zoneBoundaryEncoder.twkb(zones, zoom)
+                : zoneBoundaryEncoder.wkb(zones, zoom);
+        return ResponseEntity.ok().contentType(format).body(body);
+    }
+
+    @GetMapping(value = "/{id}", produces = {ZoneBoundaryEncoder.WKB_VALUE, ZoneBoundaryEncoder.TWKB_VALUE})
+    public ResponseEntity<byte[]> getBoundaryById(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer zoom,
+            @RequestHeader(HttpHeaders.ACCEPT) String accept,
+            WebRequest webRequest
+    ) throws HttpMediaTypeNotAcceptableException {
+        MediaType format = binaryFormat(accept);
+        if (catalogVersionService.notModified(webRequest, CatalogTable.ZONE_COVERAGE, format.getSubtype())) {
+            return null;
+        }
+        ZoneCoverage zone = zoneCoverageService.findById(id);
+        byte[] body = ZoneBoundaryEncoder.TWKB.equals(format)
+                ? zoneBoundaryEncoder.twkb(zone, zoom)
+                : zoneBoundaryEncoder.wkb(zone, zoom);
+        return ResponseEntity.ok().contentType(format).body(body);
     }
 
     @PostMapping
@@ -49,4 +120,45 @@ public class ZoneCoverageController {
         zoneCoverageService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Negociación según Accept (RFC 9110): cada formato toma la calidad del
+     * rango más específico que lo incluye y gana la calidad más alta. Con la
+     * misma calidad se elige TWKB solo si el cliente lo nombró explícitamente;
+     * {@code application/*} y los comodines obtienen WKB.
+     */
+    private MediaType binaryFormat(String accept) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MediaType twkbRange = mostSpecificRange(accepted, ZoneBoundaryEncoder.TWKB);
+        MediaType wkbRange = mostSpecificRange(accepted, ZoneBoundaryEncoder.WKB);
+        double twkbQuality = twkbRange == null ? 0 : twkbRange.getQualityValue();
+        double wkbQuality = wkbRange == null ? 0 : wkbRange.getQualityValue();
+        if (twkbQuality == 0 && wkbQuality == 0) {
+            throw new HttpMediaTypeNotAcceptableException(List.of(ZoneBoundaryEncoder.WKB, ZoneBoundaryEncoder.TWKB));
+        }
+        boolean twkb = twkbQuality > wkbQuality
+                || (twkbQuality == wkbQuality && specificity(twkbRange) == 2);
+        return twkb ? ZoneBoundaryEncoder.TWKB : ZoneBoundaryEncoder.WKB;
+    }
+
+    private static MediaType mostSpecificRange(List<MediaType> accepted, MediaType format) {
+        MediaType best = null;
+        for (MediaType range : accepted) {
+            if (range.includes(format) && (best == null || specificity(range) > specificity(best))) {
+                best = range;
+            }
+        }
+        return best;
+    }
+
+    private static int specificity(MediaType range) {
+        if (range.isWildcardType()) {
+            return 0;
+        }
+        return range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    private ZoneCoverageResponse toResponse(ZoneCoverage zone, Integer zoom) {
+        return ZoneCoverageResponse.fromEntity(zone, zoneBoundarySimplifier.boundaryForZoom(zone, zoom));
+    }
 }
@@ -0,0 +1,14 @@
+package com.app.demo.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva: totales y solo las filas rechazadas.
+ * {@code row} es el número de registro del archivo, comenzando en 1 (sin contar
+ * la cabecera del CSV).
+ */
+public record DeliveryAddressImportResponse(int imported, int rejected, List<RowError> errors) {
+
+    public record RowError(int row, int status, String error) {
+    }
+}
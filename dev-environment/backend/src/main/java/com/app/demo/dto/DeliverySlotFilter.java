@@ -0,0 +1,62 @@
+package com.app.demo.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros de la búsqueda de delivery_slots (parámetros de query). {@code from}
+ * y {@code to} son fechas de entrega inclusivas; los demás filtros son opcionales.
+ */
+public class DeliverySlotFilter {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private Boolean active;
+    private Long templateId;
+    private Boolean hasCapacity;
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public Long getTemplateId() {
+        return templateId;
+    }
+
+    public void setTemplateId(Long templateId) {
+        this.templateId = templateId;
+    }
+
+    public Boolean getHasCapacity() {
+        return hasCapacity;
+    }
+
+    public void setHasCapacity(Boolean hasCapacity) {
+        this.hasCapacity = hasCapacity;
+    }
+}
@@ -0,0 +1,15 @@
+package com.app.demo.dto;
+
+import java.util.List;
+
+/**
+ * Página de la búsqueda de delivery_slots. No incluye el total para evitar el
+ * COUNT; {@code hasNext} indica si existe una página siguiente.
+ */
+public record DeliverySlotPageResponse(
+        List<DeliverySlotView> items,
+        int page,
+        int size,
+        boolean hasNext
+) {
+}
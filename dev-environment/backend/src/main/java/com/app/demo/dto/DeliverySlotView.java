@@ -0,0 +1,22 @@
+package com.app.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Fila de la búsqueda de delivery_slots, proyectada directamente desde JPQL
+ * junto con el horario de su template.
+ */
+public record DeliverySlotView(
+        Long id,
+        Long timeSlotTemplateId,
+        LocalDate deliveryDate,
+        LocalTime startTime,
+        LocalTime endTime,
+        BigDecimal deliveryCost,
+        Integer maxCapacity,
+        Integer reservedCount,
+        Boolean isActive
+) {
+}
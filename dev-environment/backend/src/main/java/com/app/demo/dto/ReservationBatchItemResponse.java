@@ -0,0 +1,57 @@
+package com.app.demo.dto;
+
+public class ReservationBatchItemResponse {
+
+    private int index;
+    private int status;
+    private ReservationResponse reservation;
+    private String error;
+
+    public static ReservationBatchItemResponse created(int index, ReservationResponse reservation) {
+        ReservationBatchItemResponse response = new ReservationBatchItemResponse();
+        response.setIndex(index);
+        response.setStatus(201);
+        response.setReservation(reservation);
+        return response;
+    }
+
+    public static ReservationBatchItemResponse rejected(int index, int status, String error) {
+        ReservationBatchItemResponse response = new ReservationBatchItemResponse();
+        response.setIndex(index);
+        response.setStatus(status);
+        response.setError(error);
+        return response;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public ReservationResponse getReservation() {
+        return reservation;
+    }
+
+    public void setReservation(ReservationResponse reservation) {
+        this.reservation = reservation;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,22 @@
+package com.app.demo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class ReservationBatchRequest {
+
+    @NotEmpty(message = "Debe incluir al menos una reserva")
+    @Size(max = 500, message = "El lote no puede superar 500 reservas")
+    private List<@Valid ReservationRequest> reservations;
+
+    public List<ReservationRequest> getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(List<ReservationRequest> reservations) {
+        this.reservations = reservations;
+    }
+}
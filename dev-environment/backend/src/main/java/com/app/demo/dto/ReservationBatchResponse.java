@@ -0,0 +1,43 @@
+package com.app.demo.dto;
+
+import java.util.List;
+
+public class ReservationBatchResponse {
+
+    private int created;
+    private int rejected;
+    private List<ReservationBatchItemResponse> results;
+
+    public static ReservationBatchResponse of(List<ReservationBatchItemResponse> results) {
+        ReservationBatchResponse response = new ReservationBatchResponse();
+        int created = (int) results.stream().filter(item -> item.getError() == null).count();
+        response.setCreated(created);
+        response.setRejected(results.size() - created);
+        response.setResults(results);
+        return response;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<ReservationBatchItemResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ReservationBatchItemResponse> results) {
+        this.results = results;
+    }
+}
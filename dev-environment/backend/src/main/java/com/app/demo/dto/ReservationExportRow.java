@@ -0,0 +1,29 @@
+package com.app.demo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+
+/**
+ * Fila plana de la exportación de reservas para despacho.
+ */
+public record ReservationExportRow(
+        Long id,
+        String status,
+        OffsetDateTime reservedAt,
+        OffsetDateTime cancelledAt,
+        Long customerId,
+        Long deliverySlotId,
+        LocalDate deliveryDate,
+        LocalTime startTime,
+        LocalTime endTime,
+        Long zoneCoverageId,
+        Long deliveryAddressId,
+        String street,
+        String locality,
+        String commune,
+        String region,
+        Double latitude,
+        Double longitude
+) {
+}
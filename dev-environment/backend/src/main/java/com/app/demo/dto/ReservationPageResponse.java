@@ -0,0 +1,32 @@
+package com.app.demo.dto;
+
+import java.util.List;
+
+public class ReservationPageResponse {
+
+    private List<ReservationResponse> items;
+    private String nextCursor;
+
+    public static ReservationPageResponse of(List<ReservationResponse> items, String nextCursor) {
+        ReservationPageResponse response = new ReservationPageResponse();
+        response.setItems(items);
+        response.setNextCursor(nextCursor);
+        return response;
+    }
+
+    public List<ReservationResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReservationResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -13,11 +13,13 @@ public class ReservationResponse {
     private Long customerId;
     private Long deliveryAddressId;
     private Long deliverySlotId;
+    private Long zoneCoverageId;
     private ReservationStatus status;
     private LocalDate reservationDate;
     private LocalTime reservationTime;
     private OffsetDateTime reservedAt;
     private OffsetDateTime cancelledAt;
+    private OffsetDateTime expiresAt;
     private Integer version;
 
     public static ReservationResponse fromEntity(Reservation entity) {
@@ -26,9 +28,11 @@ public class ReservationResponse {
         response.setCustomerId(entity.getCustomerId());
         response.setDeliveryAddressId(entity.getDeliveryAddressId());
         response.setDeliverySlotId(entity.getDeliverySlotId());
+        response.setZoneCoverageId(entity.getZoneCoverageId());
         response.setStatus(entity.getStatus());
         response.setReservedAt(entity.getReservedAt());
         response.setCancelledAt(entity.getCancelledAt());
+        response.setExpiresAt(entity.getExpiresAt());
         response.setVersion(entity.getVersion());
         if (entity.getReservedAt() != null) {
             response.setReservationDate(entity.getReservedAt().toLocalDate());
@@ -69,6 +73,14 @@ public class ReservationResponse {
         this.deliverySlotId = deliverySlotId;
     }
 
+    public Long getZoneCoverageId() {
+        return zoneCoverageId;
+    }
+
+    public void setZoneCoverageId(Long zoneCoverageId) {
+        this.zoneCoverageId = zoneCoverageId;
+    }
+
     public ReservationStatus getStatus() {
         return status;
     }
@@ -109,6 +121,14 @@ public class ReservationResponse {
         this.cancelledAt = cancelledAt;
     }
 
+    public OffsetDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(OffsetDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
     public Integer getVersion() {
         return version;
     }
@@ -0,0 +1,24 @@
+package com.app.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Ventana de entrega disponible para una dirección, con el cupo que le queda a
+ * la zona de cobertura de esa dirección.
+ */
+public record SlotAvailabilityResponse(
+        Long deliverySlotId,
+        LocalDate deliveryDate,
+        Long timeSlotTemplateId,
+        LocalTime startTime,
+        LocalTime endTime,
+        BigDecimal deliveryCost,
+        Long zoneCoverageId,
+        String zoneName,
+        Integer maxCapacity,
+        Integer reservedCount,
+        Integer remainingCapacity
+) {
+}
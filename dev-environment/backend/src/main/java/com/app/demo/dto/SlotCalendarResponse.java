@@ -0,0 +1,24 @@
+package com.app.demo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Calendario compacto de capacidad. Las celdas se recorren por día y luego por
+ * template: la celda {@code d * templates.size() + t} corresponde al día
+ * {@code from + d} y al template {@code templates[t]}. Un slotId 0 indica que no
+ * hay ventana activa en esa celda.
+ */
+public record SlotCalendarResponse(
+        LocalDate from,
+        int days,
+        List<Template> templates,
+        long[] slotIds,
+        int[] remaining,
+        int[] maxCapacity
+) {
+
+    public record Template(Long id, LocalTime startTime, LocalTime endTime) {
+    }
+}
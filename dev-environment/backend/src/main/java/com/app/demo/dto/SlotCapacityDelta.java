@@ -0,0 +1,17 @@
+package com.app.demo.dto;
+
+/**
+ * Estado de capacidad de un delivery_slot enviado por el stream SSE. Un slot
+ * eliminado se informa inactivo y con capacidad 0.
+ */
+public record SlotCapacityDelta(
+        Long slotId,
+        Integer reservedCount,
+        Integer maxCapacity,
+        Boolean isActive
+) {
+
+    public static SlotCapacityDelta removed(Long slotId) {
+        return new SlotCapacityDelta(slotId, 0, 0, Boolean.FALSE);
+    }
+}
@@ -17,6 +17,7 @@ public class ZoneCoverageResponse {
     private String postalCode;
     private Long deliverySlotId;
     private Integer maxCapacity;
+    private Integer reservedCount;
     private Polygon boundary;
     private Point location;
     private Boolean isActive;
@@ -24,6 +25,13 @@ public class ZoneCoverageResponse {
     private OffsetDateTime updatedAt;
 
     public static ZoneCoverageResponse fromEntity(ZoneCoverage entity) {
+        return fromEntity(entity, entity.getBoundary());
+    }
+
+    /**
+     * Igual que {@link #fromEntity(ZoneCoverage)} pero con otro límite, por ejemplo simplificado.
+     */
+    public static ZoneCoverageResponse fromEntity(ZoneCoverage entity, Polygon boundary) {
         ZoneCoverageResponse response = new ZoneCoverageResponse();
         response.setId(entity.getId());
         response.setName(entity.getName());
@@ -34,7 +42,8 @@ public class ZoneCoverageResponse {
         response.setPostalCode(entity.getPostalCode());
         response.setDeliverySlotId(entity.getDeliverySlotId());
         response.setMaxCapacity(entity.getMaxCapacity());
-        response.setBoundary(entity.getBoundary());
+        response.setReservedCount(entity.getReservedCount());
+        response.setBoundary(boundary);
         response.setLocation(entity.getLocation());
         response.setIsActive(entity.getIsActive());
         response.setCreatedAt(entity.getCreatedAt());
@@ -114,6 +123,14 @@ public class ZoneCoverageResponse {
         this.maxCapacity = maxCapacity;
     }
 
+    public Integer getReservedCount() {
+        return reservedCount;
+    }
+
+    public void setReservedCount(Integer reservedCount) {
+        this.reservedCount = reservedCount;
+    }
+
     public Polygon getBoundary() {
         return boundary;
     }
@@ -0,0 +1,12 @@
+package com.app.demo.exception;
+
+/**
+ * Conflicto transitorio de la toma optimista de cupo: la zona cambió o está
+ * bloqueada por otra transacción. Se resuelve repitiendo la transacción completa.
+ */
+public class CapacityConflictException extends ConflictException {
+
+    public CapacityConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.app.demo.exception;
+
+/**
+ * 503 en el que la operación pudo haberse confirmado igualmente (por ejemplo, un
+ * lote que seguía en curso). Quien la reciba no debe asumir que no se aplicó.
+ */
+public class OutcomeUnknownException extends ServiceUnavailableException {
+
+    public OutcomeUnknownException(String message) {
+        super(message);
+    }
+}
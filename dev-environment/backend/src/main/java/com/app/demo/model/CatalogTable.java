@@ -0,0 +1,26 @@
+package com.app.demo.model;
+
+/**
+ * Tablas de catálogo cuyos listados se sirven con ETag (ver CatalogVersionService).
+ */
+public enum CatalogTable {
+    REGION("region"),
+    CIUDAD("ciudad"),
+    COMUNA("comuna"),
+    TIME_SLOT_TEMPLATE("time_slot_template"),
+    ZONE_COVERAGE("zone_coverage"),
+    DELIVERY_SLOT("delivery_slot");
+
+    private final String tableName;
+
+    CatalogTable(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * Nombre de la tabla en el esquema app, tal como lo registra app.catalog_version.
+     */
+    public String getTableName() {
+        return tableName;
+    }
+}
@@ -23,6 +23,9 @@ public class Reservation {
     @Column(name = "delivery_slot_id", nullable = false)
     private Long deliverySlotId;
 
+    @Column(name = "zone_coverage_id")
+    private Long zoneCoverageId;
+
     @Enumerated(EnumType.STRING)
     @JdbcTypeCode(SqlTypes.NAMED_ENUM)
     @Column(nullable = false, columnDefinition = "app.reservation_status")
@@ -34,6 +37,9 @@ public class Reservation {
     @Column(name = "cancelled_at")
     private OffsetDateTime cancelledAt;
 
+    @Column(name = "expires_at")
+    private OffsetDateTime expiresAt;
+
     @Version
     @Column(nullable = false)
     private Integer version;
@@ -77,6 +83,14 @@ public class Reservation {
         this.deliverySlotId = deliverySlotId;
     }
 
+    public Long getZoneCoverageId() {
+        return zoneCoverageId;
+    }
+
+    public void setZoneCoverageId(Long zoneCoverageId) {
+        this.zoneCoverageId = zoneCoverageId;
+    }
+
     public ReservationStatus getStatus() {
         return status;
     }
@@ -101,7 +115,19 @@ public class Reservation {
         this.cancelledAt = cancelledAt;
     }
 
+    public OffsetDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(OffsetDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
     public Integer getVersion() {
         return version;
     }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
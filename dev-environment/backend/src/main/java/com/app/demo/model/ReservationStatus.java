@@ -3,5 +3,6 @@ package com.app.demo.model;
 public enum ReservationStatus {
     CONFIRMED,
     CANCELLED,
-    EXPIRED
+    EXPIRED,
+    HELD
 }
@@ -38,6 +38,36 @@ public class ZoneCoverage {
     @Column(name = "max_capacity", nullable = false)
     private Integer maxCapacity;
 
+    // Lo mantienen los UPDATE condicionales de SlotCapacityService, nunca el guardado de la entidad
+    @Column(
+            name = "reserved_count",
+            nullable = false,
+            insertable = false,
+            updatable = false,
+            columnDefinition = "INT NOT NULL DEFAULT 0"
+    )
+    private Integer reservedCount;
+
+    // Versión del contador de cupos para el modo optimista; no versiona la entidad
+    @Column(
+            name = "capacity_version",
+            nullable = false,
+            insertable = false,
+            updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0"
+    )
+    private Long capacityVersion;
+
+    // La mantiene un trigger: cambia solo con boundary o is_active
+    @Column(
+            name = "boundary_version",
+            nullable = false,
+            insertable = false,
+            updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0"
+    )
+    private Long boundaryVersion;
+
     @Column(columnDefinition = "geometry(Polygon, 4326)")
     private Polygon boundary;
 
@@ -141,6 +171,18 @@ public class ZoneCoverage {
         this.maxCapacity = maxCapacity;
     }
 
+    public Integer getReservedCount() {
+        return reservedCount;
+    }
+
+    public Long getCapacityVersion() {
+        return capacityVersion;
+    }
+
+    public Long getBoundaryVersion() {
+        return boundaryVersion;
+    }
+
     public Polygon getBoundary() {
         return boundary;
     }
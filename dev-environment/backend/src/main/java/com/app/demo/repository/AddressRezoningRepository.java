@@ -0,0 +1,151 @@
+package com.app.demo.repository;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKBWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cola de re-zonificación de direcciones (app.address_rezoning_task) y la
+ * actualización por lotes que reasigna zone_coverage_id.
+ */
+@Repository
+public class AddressRezoningRepository {
+
+    private static final String CLAIM_SQL = """
+            SELECT id, candidates_resolved, last_address_id FROM app.address_rezoning_task
+            ORDER BY id
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    /**
+     * Única búsqueda espacial de la tarea: guarda en la tabla de trabajo las
+     * direcciones dentro del delta (índice GiST de location).
+     */
+    private static final String RESOLVE_CANDIDATES_SQL = """
+            INSERT INTO app.address_rezoning_candidate (task_id, address_id)
+            SELECT t.id, da.id
+            FROM app.address_rezoning_task t
+            JOIN app.delivery_address da
+              ON da.location IS NOT NULL
+             AND ST_Intersects(t.delta, da.location)
+            WHERE t.id = ?
+            """;
+
+    /**
+     * Toma las siguientes candidatas de la tarea por su PK, les busca la zona
+     * activa de menor id que las contiene y solo escribe las filas cuya zona
+     * cambió. Devuelve el último id evaluado (null si no quedan) y la cantidad
+     * de direcciones reasignadas.
+     */
+    private static final String REZONE_CHUNK_SQL = """
+            WITH candidates AS (
+                SELECT c.address_id AS id
+                FROM app.address_rezoning_candidate c
+                WHERE c.task_id = ?
+                  AND c.address_id > ?
+                ORDER BY c.address_id
+                LIMIT ?
+            ),
+            resolved AS (
+                SELECT da.id,
+                       (SELECT zc.id FROM app.zone_coverage zc
+                        WHERE zc.is_active = true
+                          AND zc.boundary IS NOT NULL
+                          AND ST_Contains(zc.boundary, da.location)
+                        ORDER BY zc.id
+                        LIMIT 1) AS zone_coverage_id
+                FROM candidates c
+                JOIN app.delivery_address da ON da.id = c.id
+                WHERE da.location IS NOT NULL
+            ),
+            updated AS (
+                UPDATE app.delivery_address da
+                SET zone_coverage_id = r.zone_coverage_id
+                FROM resolved r
+                WHERE da.id = r.id
+                  AND da.zone_coverage_id IS DISTINCT FROM r.zone_coverage_id
+                RETURNING da.id
+            )
+            SELECT (SELECT MAX(id) FROM candidates) AS last_id,
+                   (SELECT COUNT(*) FROM updated) AS updated
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AddressRezoningRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void enqueue(Long zoneCoverageId, Geometry delta) {
+        jdbcTemplate.update(
+                "INSERT INTO app.address_rezoning_task (zone_coverage_id, delta) VALUES (?, ST_GeomFromWKB(?, 4326))",
+                zoneCoverageId,
+                new WKBWriter().write(delta)
+        );
+    }
+
+    /**
+     * Bloquea la tarea más antigua que ninguna otra instancia esté procesando.
+     * Debe llamarse dentro de una transacción.
+     */
+    public Optional<Task> claimNext() {
+        List<Task> tasks = jdbcTemplate.query(
+                CLAIM_SQL,
+                (rs, rowNum) -> new Task(
+                        rs.getLong("id"),
+                        rs.getBoolean("candidates_resolved"),
+                        rs.getLong("last_address_id")
+                )
+        );
+        return tasks.stream().findFirst();
+    }
+
+    /**
+     * Materializa las direcciones candidatas de la tarea. Devuelve cuántas hay.
+     */
+    public int resolveCandidates(long taskId) {
+        int candidates = jdbcTemplate.update(RESOLVE_CANDIDATES_SQL, taskId);
+        jdbcTemplate.update(
+                "UPDATE app.address_rezoning_task SET candidates_resolved = true WHERE id = ?",
+                taskId
+        );
+        return candidates;
+    }
+
+    /**
+     * Las direcciones eliminadas desde que se resolvieron las candidatas se
+     * omiten; las creadas después ya recibieron su zona al insertarse.
+     */
+    public ChunkResult rezoneChunk(Task task, int chunkSize) {
+        return jdbcTemplate.queryForObject(REZONE_CHUNK_SQL, (rs, rowNum) -> {
+            long lastId = rs.getLong("last_id");
+            return new ChunkResult(rs.wasNull() ? null : lastId, rs.getInt("updated"));
+        }, task.id(), task.lastAddressId(), chunkSize);
+    }
+
+    public void advance(long taskId, long lastAddressId) {
+        jdbcTemplate.update(
+                "UPDATE app.address_rezoning_task SET last_address_id = ? WHERE id = ?",
+                lastAddressId,
+                taskId
+        );
+    }
+
+    /**
+     * Elimina la tarea; sus candidatas se borran en cascada.
+     */
+    public void complete(long taskId) {
+        jdbcTemplate.update("DELETE FROM app.address_rezoning_task WHERE id = ?", taskId);
+    }
+
+    public record Task(long id, boolean candidatesResolved, long lastAddressId) {
+    }
+
+    public record ChunkResult(Long lastAddressId, int updated) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.app.demo.repository;
+
+import com.app.demo.model.CatalogTable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Versión por tabla de catálogo, sin cargar entidades ni recorrer la tabla.
+ * <p>
+ * Un trigger por sentencia (fn_bump_catalog_version) incrementa un contador en
+ * app.catalog_version cada vez que una sentencia modifica filas del catálogo.
+ * El contador está repartido en filas por conexión, de modo que las reservas
+ * que actualizan contadores de zona no compiten por una única fila de versión;
+ * la versión es la suma, que solo crece y solo incluye escrituras confirmadas.
+ */
+@Repository
+public class CatalogVersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String fingerprint(CatalogTable table) {
+        Long version = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(version), 0) FROM app.catalog_version WHERE table_name = ?",
+                Long.class,
+                table.getTableName()
+        );
+        return Long.toHexString(version == null ? 0 : version);
+    }
+}
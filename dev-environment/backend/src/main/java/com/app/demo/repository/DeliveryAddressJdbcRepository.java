@@ -0,0 +1,131 @@
+package com.app.demo.repository;
+
+import com.app.demo.model.DeliveryAddress;
+import org.locationtech.jts.geom.Point;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Acceso JDBC a direcciones de entrega para importaciones masivas: asignación de
+ * zona con un único join espacial por lote e inserciones con JDBC batching.
+ */
+@Repository
+public class DeliveryAddressJdbcRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO app.delivery_address (
+                customer_id, zone_coverage_id, comuna_id, street, locality, commune, region, postal_code, location, is_default
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ST_SetSRID(ST_MakePoint(?, ?), 4326), ?)
+            """;
+
+    // Ante varias zonas activas que contienen el punto se elige la de menor id
+    private static final String ZONES_CONTAINING_SQL = """
+            SELECT DISTINCT ON (p.ord) p.ord, zc.id
+            FROM unnest(CAST(? AS float8[]), CAST(? AS float8[])) WITH ORDINALITY AS p(lon, lat, ord)
+            JOIN app.zone_coverage zc
+              ON zc.is_active = true
+             AND zc.boundary IS NOT NULL
+             AND ST_Contains(zc.boundary, ST_SetSRID(ST_MakePoint(p.lon, p.lat), 4326))
+            ORDER BY p.ord, zc.id
+            """;
+
+    private static final String EXISTING_COMUNAS_SQL = "SELECT id FROM app.comuna WHERE id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeliveryAddressJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Zona activa que contiene cada punto, en el mismo orden; null si ninguna.
+     */
+    public Long[] findZonesContaining(List<Point> points) {
+        Long[] zoneIds = new Long[points.size()];
+        if (points.isEmpty()) {
+            return zoneIds;
+        }
+
+        Double[] lons = points.stream().map(Point::getX).toArray(Double[]::new);
+        Double[] lats = points.stream().map(Point::getY).toArray(Double[]::new);
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(ZONES_CONTAINING_SQL);
+                    ps.setArray(1, connection.createArrayOf("float8", lons));
+                    ps.setArray(2, connection.createArrayOf("float8", lats));
+                    return ps;
+                },
+                rs -> {
+                    zoneIds[(int) rs.getLong(1) - 1] = rs.getLong(2);
+                }
+        );
+        return zoneIds;
+    }
+
+    /**
+     * Ids de {@code comunaIds} que existen en app.comuna, con una sola consulta.
+     */
+    public Set<Long> findExistingComunaIds(Collection<Long> comunaIds) {
+        Set<Long> existing = new HashSet<>();
+        if (comunaIds.isEmpty()) {
+            return existing;
+        }
+
+        Long[] ids = comunaIds.toArray(Long[]::new);
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(EXISTING_COMUNAS_SQL);
+                    ps.setArray(1, connection.createArrayOf("bigint", ids));
+                    return ps;
+                },
+                rs -> {
+                    existing.add(rs.getLong(1));
+                }
+        );
+        return existing;
+    }
+
+    public void insertAll(List<DeliveryAddress> addresses) {
+        if (addresses.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                DeliveryAddress address = addresses.get(i);
+                ps.setLong(1, address.getCustomerId());
+                ps.setObject(2, address.getZoneCoverageId(), Types.BIGINT);
+                ps.setObject(3, address.getComunaId(), Types.BIGINT);
+                ps.setString(4, address.getStreet());
+                ps.setString(5, address.getLocality());
+                ps.setString(6, address.getCommune());
+                ps.setString(7, address.getRegion());
+                ps.setString(8, address.getPostalCode());
+                Point location = address.getLocation();
+                if (location == null) {
+                    ps.setNull(9, Types.DOUBLE);
+                    ps.setNull(10, Types.DOUBLE);
+                } else {
+                    ps.setDouble(9, location.getX());
+                    ps.setDouble(10, location.getY());
+                }
+                ps.setBoolean(11, Boolean.TRUE.equals(address.getIsDefault()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return addresses.size();
+            }
+        });
+    }
+}
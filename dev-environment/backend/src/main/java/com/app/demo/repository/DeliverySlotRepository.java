@@ -1,15 +1,19 @@
 package com.app.demo.repository;
 
+import com.app.demo.dto.DeliverySlotView;
+import com.app.demo.dto.SlotAvailabilityResponse;
+import com.app.demo.dto.SlotCapacityDelta;
 import com.app.demo.model.DeliverySlot;
-import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface DeliverySlotRepository extends JpaRepository<DeliverySlot, Long> {
@@ -18,7 +22,85 @@ public interface DeliverySlotRepository extends JpaRepository<DeliverySlot, Long
 
     boolean existsByDeliveryDateAndTimeSlotTemplateIdAndIdNot(LocalDate deliveryDate, Long timeSlotTemplateId, Long id);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT ds FROM DeliverySlot ds WHERE ds.id = :id")
-    Optional<DeliverySlot> findByIdForUpdate(@Param("id") Long id);
+    /**
+     * Slots activos que atiende la zona de cobertura de la dirección, resueltos
+     * con un join por claves primarias (dirección → zona → slot → template).
+     */
+    @Query("""
+            SELECT new com.app.demo.dto.SlotAvailabilityResponse(
+                ds.id, ds.deliveryDate, t.id, t.startTime, t.endTime, ds.deliveryCost,
+                zc.id, zc.name, zc.maxCapacity, zc.reservedCount, zc.maxCapacity - zc.reservedCount
+            )
+            FROM DeliveryAddress da
+            JOIN ZoneCoverage zc ON zc.id = da.zoneCoverageId
+            JOIN DeliverySlot ds ON ds.id = zc.deliverySlotId
+            JOIN TimeSlotTemplate t ON t.id = ds.timeSlotTemplateId
+            WHERE da.id = :deliveryAddressId
+              AND zc.isActive = true
+              AND ds.isActive = true
+              AND ds.deliveryDate BETWEEN :from AND :to
+            ORDER BY ds.deliveryDate, t.startTime
+            """)
+    List<SlotAvailabilityResponse> findAvailabilityByAddress(
+            @Param("deliveryAddressId") Long deliveryAddressId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
+    @Query("""
+            SELECT new com.app.demo.dto.SlotCapacityDelta(ds.id, ds.reservedCount, ds.maxCapacity, ds.isActive)
+            FROM DeliverySlot ds
+            WHERE ds.id IN :ids
+            """)
+    List<SlotCapacityDelta> findCapacityByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Búsqueda por rango de fechas; el rango se resuelve con idx_delivery_slot_date
+     * (delivery_date, is_active) y los filtros nulos no restringen.
+     */
+    @Query("""
+            SELECT new com.app.demo.dto.DeliverySlotView(
+                ds.id, ds.timeSlotTemplateId, ds.deliveryDate, t.startTime, t.endTime,
+                ds.deliveryCost, ds.maxCapacity, ds.reservedCount, ds.isActive
+            )
+            FROM DeliverySlot ds
+            JOIN TimeSlotTemplate t ON t.id = ds.timeSlotTemplateId
+            WHERE ds.deliveryDate BETWEEN :from AND :to
+              AND (:active IS NULL OR ds.isActive = :active)
+              AND (:templateId IS NULL OR ds.timeSlotTemplateId = :templateId)
+              AND (:hasCapacity IS NULL
+                   OR (:hasCapacity = true AND ds.reservedCount < ds.maxCapacity)
+                   OR (:hasCapacity = false AND ds.reservedCount >= ds.maxCapacity))
+            ORDER BY ds.deliveryDate, t.startTime, ds.id
+            """)
+    Slice<DeliverySlotView> search(
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("active") Boolean active,
+            @Param("templateId") Long templateId,
+            @Param("hasCapacity") Boolean hasCapacity,
+            Pageable pageable
+    );
+
+    @Query("""
+            SELECT new com.app.demo.dto.DeliverySlotView(
+                ds.id, ds.timeSlotTemplateId, ds.deliveryDate, t.startTime, t.endTime,
+                ds.deliveryCost, ds.maxCapacity, ds.reservedCount, ds.isActive
+            )
+            FROM DeliverySlot ds
+            JOIN TimeSlotTemplate t ON t.id = ds.timeSlotTemplateId
+            WHERE ds.deliveryDate BETWEEN :from AND :to
+            """)
+    List<DeliverySlotView> findViewsByDeliveryDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("""
+            SELECT new com.app.demo.dto.DeliverySlotView(
+                ds.id, ds.timeSlotTemplateId, ds.deliveryDate, t.startTime, t.endTime,
+                ds.deliveryCost, ds.maxCapacity, ds.reservedCount, ds.isActive
+            )
+            FROM DeliverySlot ds
+            JOIN TimeSlotTemplate t ON t.id = ds.timeSlotTemplateId
+            WHERE ds.id IN :ids
+            """)
+    List<DeliverySlotView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
 }
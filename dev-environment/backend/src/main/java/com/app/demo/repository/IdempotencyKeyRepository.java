@@ -0,0 +1,114 @@
+package com.app.demo.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Registro de claves de idempotencia. Cada clave se reserva con un INSERT
+ * condicional antes de ejecutar la operación y se completa con la respuesta
+ * dentro de la transacción de la operación. Completar y liberar exigen el
+ * attempt_id de la reserva: una ejecución cuya clave fue tomada por otra no
+ * puede escribir ni borrar el registro ajeno.
+ */
+@Repository
+public class IdempotencyKeyRepository {
+
+    private static final String RESERVE_SQL = """
+            INSERT INTO app.idempotency_key (idempotency_key, operation, request_hash, attempt_id, expires_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (idempotency_key, operation) DO UPDATE
+            SET request_hash = EXCLUDED.request_hash,
+                attempt_id = EXCLUDED.attempt_id,
+                status_code = NULL,
+                response_body = NULL,
+                created_at = NOW(),
+                expires_at = EXCLUDED.expires_at
+            WHERE app.idempotency_key.expires_at < NOW()
+               OR (app.idempotency_key.status_code IS NULL AND app.idempotency_key.created_at < ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserva la clave para la ejecución {@code attemptId}. Devuelve false si ya
+     * existe una vigente, salvo que sea una ejecución en curso iniciada antes de
+     * {@code staleBefore}. Tomarla es seguro aunque la ejecución anterior siga
+     * viva: si hubiera hecho commit la clave estaría completa, y a partir de
+     * aquí su {@link #complete} ya no encuentra la fila y su transacción se revierte.
+     */
+    public boolean tryReserve(
+            String idempotencyKey,
+            String operation,
+            String requestHash,
+            UUID attemptId,
+            OffsetDateTime expiresAt,
+            OffsetDateTime staleBefore
+    ) {
+        return jdbcTemplate.update(
+                RESERVE_SQL, idempotencyKey, operation, requestHash, attemptId, expiresAt, staleBefore
+        ) > 0;
+    }
+
+    public Optional<StoredResponse> find(String idempotencyKey, String operation) {
+        return jdbcTemplate.query("""
+                        SELECT request_hash, status_code, response_body
+                        FROM app.idempotency_key
+                        WHERE idempotency_key = ? AND operation = ? AND expires_at >= NOW()
+                        """,
+                (rs, rowNum) -> new StoredResponse(
+                        rs.getString("request_hash"),
+                        rs.getObject("status_code", Integer.class),
+                        rs.getString("response_body")
+                ),
+                idempotencyKey,
+                operation
+        ).stream().findFirst();
+    }
+
+    /**
+     * Guarda la respuesta de la ejecución {@code attemptId}. Devuelve false si la
+     * clave ya no le pertenece.
+     */
+    public boolean complete(
+            String idempotencyKey,
+            String operation,
+            UUID attemptId,
+            int statusCode,
+            String responseBody
+    ) {
+        return jdbcTemplate.update("""
+                        UPDATE app.idempotency_key
+                        SET status_code = ?, response_body = ?
+                        WHERE idempotency_key = ? AND operation = ? AND attempt_id = ? AND status_code IS NULL
+                        """,
+                statusCode, responseBody, idempotencyKey, operation, attemptId
+        ) > 0;
+    }
+
+    public void delete(String idempotencyKey, String operation, UUID attemptId) {
+        jdbcTemplate.update("""
+                        DELETE FROM app.idempotency_key
+                        WHERE idempotency_key = ? AND operation = ? AND attempt_id = ? AND status_code IS NULL
+                        """,
+                idempotencyKey, operation, attemptId
+        );
+    }
+
+    public int deleteExpired() {
+        return jdbcTemplate.update("DELETE FROM app.idempotency_key WHERE expires_at < NOW()");
+    }
+
+    /**
+     * Respuesta almacenada; {@code statusCode} es null mientras la operación está en curso.
+     */
+    public record StoredResponse(String requestHash, Integer statusCode, String responseBody) {
+    }
+}
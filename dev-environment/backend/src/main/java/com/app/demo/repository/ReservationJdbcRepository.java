@@ -0,0 +1,163 @@
+package com.app.demo.repository;
+
+import com.app.demo.dto.ReservationExportRow;
+import com.app.demo.dto.ReservationFilter;
+import com.app.demo.model.Reservation;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Acceso JDBC a reservas: inserciones con JDBC batching (Hibernate no agrupa
+ * inserts de entidades con id IDENTITY) y lectura con cursor para exportaciones.
+ */
+@Repository
+public class ReservationJdbcRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO app.reservation (
+                customer_id, delivery_address_id, delivery_slot_id, zone_coverage_id, status, reserved_at, cancelled_at, expires_at, version
+            ) VALUES (?, ?, ?, ?, CAST(? AS app.reservation_status), ?, ?, ?, 0)
+            """;
+
+    private static final String EXPORT_SQL = """
+            SELECT r.id, r.status, r.reserved_at, r.cancelled_at, r.customer_id,
+                   r.delivery_slot_id, ds.delivery_date, tst.start_time, tst.end_time,
+                   r.zone_coverage_id, r.delivery_address_id,
+                   da.street, da.locality, da.commune, da.region,
+                   ST_Y(da.location) AS latitude, ST_X(da.location) AS longitude
+            FROM app.reservation r
+            JOIN app.delivery_slot ds ON ds.id = r.delivery_slot_id
+            JOIN app.time_slot_template tst ON tst.id = ds.time_slot_template_id
+            JOIN app.delivery_address da ON da.id = r.delivery_address_id
+            WHERE 1 = 1
+            """;
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportJdbcTemplate;
+
+    public ReservationJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        // PostgreSQL solo usa un cursor con fetch size dentro de una transacción
+        this.exportJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.exportJdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+    }
+
+    /**
+     * Inserta las reservas en un único batch y asigna a cada una su id y versión.
+     */
+    public void insertAll(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id", "version"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Reservation reservation = reservations.get(i);
+                        ps.setLong(1, reservation.getCustomerId());
+                        ps.setLong(2, reservation.getDeliveryAddressId());
+                        ps.setLong(3, reservation.getDeliverySlotId());
+                        ps.setLong(4, reservation.getZoneCoverageId());
+                        ps.setString(5, reservation.getStatus().name());
+                        ps.setObject(6, reservation.getReservedAt());
+                        if (reservation.getCancelledAt() == null) {
+                            ps.setNull(7, Types.TIMESTAMP_WITH_TIMEZONE);
+                        } else {
+                            ps.setObject(7, reservation.getCancelledAt());
+                        }
+                        if (reservation.getExpiresAt() == null) {
+                            ps.setNull(8, Types.TIMESTAMP_WITH_TIMEZONE);
+                        } else {
+                            ps.setObject(8, reservation.getExpiresAt());
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return reservations.size();
+                    }
+                },
+                keyHolder
+        );
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < reservations.size(); i++) {
+            Map<String, Object> row = keys.get(i);
+            reservations.get(i).setId(((Number) row.get("id")).longValue());
+            reservations.get(i).setVersion(((Number) row.get("version")).intValue());
+        }
+    }
+
+    /**
+     * Recorre las reservas del filtro con un cursor de solo avance, entregando
+     * cada fila a {@code consumer} sin acumularlas. Debe llamarse dentro de una transacción.
+     */
+    public void forEachForExport(ReservationFilter filter, Consumer<ReservationExportRow> consumer) {
+        StringBuilder sql = new StringBuilder(EXPORT_SQL);
+        List<Object> args = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            sql.append(" AND r.status = CAST(? AS app.reservation_status)");
+            args.add(filter.getStatus().name());
+        }
+        if (filter.getDeliverySlotId() != null) {
+            sql.append(" AND r.delivery_slot_id = ?");
+            args.add(filter.getDeliverySlotId());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND r.reserved_at >= ?");
+            args.add(filter.getFrom().atStartOfDay().atOffset(ZoneOffset.UTC));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND r.reserved_at < ?");
+            args.add(filter.getTo().plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+        }
+        sql.append(" ORDER BY r.reserved_at, r.id");
+
+        exportJdbcTemplate.query(sql.toString(), rs -> {
+            consumer.accept(toExportRow(rs));
+        }, args.toArray());
+    }
+
+    private ReservationExportRow toExportRow(ResultSet rs) throws SQLException {
+        return new ReservationExportRow(
+                rs.getLong("id"),
+                rs.getString("status"),
+                rs.getObject("reserved_at", OffsetDateTime.class),
+                rs.getObject("cancelled_at", OffsetDateTime.class),
+                rs.getLong("customer_id"),
+                rs.getLong("delivery_slot_id"),
+                rs.getObject("delivery_date", LocalDate.class),
+                rs.getObject("start_time", LocalTime.class),
+                rs.getObject("end_time", LocalTime.class),
+                rs.getObject("zone_coverage_id", Long.class),
+                rs.getLong("delivery_address_id"),
+                rs.getString("street"),
+                rs.getString("locality"),
+                rs.getString("commune"),
+                rs.getString("region"),
+                rs.getObject("latitude", Double.class),
+                rs.getObject("longitude", Double.class)
+        );
+    }
+}
@@ -3,16 +3,15 @@ package com.app.demo.repository;
 import com.app.demo.model.Reservation;
 import com.app.demo.model.ReservationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.Collection;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
-
-    List<Reservation> findByCustomerIdOrderByReservedAtDescIdDesc(Long customerId);
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation> {
 
     long countByDeliverySlotIdAndStatus(Long deliverySlotId, ReservationStatus status);
 
-    long countByDeliverySlotIdAndStatusAndIdNot(Long deliverySlotId, ReservationStatus status, Long id);
+    long countByDeliverySlotIdAndStatusIn(Long deliverySlotId, Collection<ReservationStatus> statuses);
 }
@@ -0,0 +1,64 @@
+package com.app.demo.repository;
+
+import com.app.demo.dto.ReservationFilter;
+import com.app.demo.model.Reservation;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criterios del listado paginado de reservas, ordenado por (reserved_at, id) descendente.
+ */
+public final class ReservationSpecifications {
+
+    private ReservationSpecifications() {
+    }
+
+    /**
+     * Filtros más la condición keyset "después del cursor". La condición se
+     * escribe como {@code reserved_at <= :t AND (reserved_at < :t OR id < :id)}
+     * para que el primer término acote el rango del índice y el segundo solo
+     * desempate filas con el mismo reserved_at.
+     */
+    public static Specification<Reservation> page(
+            Long customerId,
+            ReservationFilter filter,
+            OffsetDateTime afterReservedAt,
+            Long afterId
+    ) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (customerId != null) {
+                predicates.add(cb.equal(root.get("customerId"), customerId));
+            }
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getDeliverySlotId() != null) {
+                predicates.add(cb.equal(root.get("deliverySlotId"), filter.getDeliverySlotId()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(
+                        root.get("reservedAt"), filter.getFrom().atStartOfDay().atOffset(ZoneOffset.UTC)
+                ));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(
+                        root.get("reservedAt"), filter.getTo().plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC)
+                ));
+            }
+            if (afterReservedAt != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("reservedAt"), afterReservedAt));
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("reservedAt"), afterReservedAt),
+                        cb.lessThan(root.get("id"), afterId)
+                ));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.app.demo.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Genera tiles Mapbox Vector Tile con ST_AsMVT a partir de zone_coverage y
+ * delivery_address. Las geometrías se filtran con && sobre los índices GiST en
+ * 4326 y se recortan al tile (con buffer) en Web Mercator. Los tiles solo
+ * llevan atributos que cambian junto con la geometría: la ocupación
+ * (reserved_count) cambia con cada reserva y se consulta por la API.
+ */
+@Repository
+public class VectorTileRepository {
+
+    public static final int EXTENT = 4096;
+    public static final int BUFFER = 64;
+
+    private static final String TILE_SQL = """
+            WITH bounds AS (
+                SELECT ST_TileEnvelope(?, ?, ?) AS tile,
+                       ST_Transform(ST_TileEnvelope(?, ?, ?, margin => ?), 4326) AS filter
+            ),
+            zones AS (
+                SELECT zc.id, zc.name, zc.delivery_slot_id, zc.max_capacity, zc.is_active,
+                       ST_AsMVTGeom(ST_Transform(zc.boundary, 3857), b.tile, %1$d, %2$d, true) AS geom
+                FROM app.zone_coverage zc, bounds b
+                WHERE zc.boundary IS NOT NULL
+                  AND zc.boundary && b.filter
+            ),
+            addresses AS (
+                SELECT da.id, da.zone_coverage_id,
+                       ST_AsMVTGeom(ST_Transform(da.location, 3857), b.tile, %1$d, %2$d, true) AS geom
+                FROM app.delivery_address da, bounds b
+                WHERE CAST(? AS boolean)
+                  AND da.location IS NOT NULL
+                  AND da.location && b.filter
+            )
+            SELECT COALESCE((SELECT ST_AsMVT(z, 'zone_coverages', %1$d, 'geom') FROM zones z WHERE z.geom IS NOT NULL), ''::bytea)
+                || COALESCE((SELECT ST_AsMVT(a, 'delivery_addresses', %1$d, 'geom') FROM addresses a WHERE a.geom IS NOT NULL), ''::bytea)
+            """.formatted(EXTENT, BUFFER);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VectorTileRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Tile {@code z/x/y} con las capas zone_coverages y, si {@code includeAddresses},
+     * delivery_addresses. Un tile sin geometrías es un arreglo vacío.
+     */
+    public byte[] findTile(int z, int x, int y, boolean includeAddresses) {
+        double margin = (double) BUFFER / EXTENT;
+        return jdbcTemplate.queryForObject(TILE_SQL, byte[].class, z, x, y, z, x, y, margin, includeAddresses);
+    }
+}
@@ -1,13 +1,18 @@
 package com.app.demo.repository;
 
 import com.app.demo.model.ZoneCoverage;
+import jakarta.persistence.LockModeType;
 import org.locationtech.jts.geom.Point;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ZoneCoverageRepository extends JpaRepository<ZoneCoverage, Long> {
@@ -19,4 +24,97 @@ public interface ZoneCoverageRepository extends JpaRepository<ZoneCoverage, Long
               AND ST_Contains(zc.boundary, :point)
             """, nativeQuery = true)
     List<ZoneCoverage> findByPointInsideBoundary(@Param("point") Point point);
+
+    List<ZoneCoverage> findByIsActiveTrueAndBoundaryIsNotNull();
+
+    @Query(value = """
+            SELECT zc.id AS id, zc.boundary_version AS boundaryVersion
+            FROM app.zone_coverage zc
+            WHERE zc.id IN (:ids)
+            """, nativeQuery = true)
+    List<BoundaryVersion> findBoundaryVersions(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Bloquea la fila para que su reserved_count no cambie mientras se valida una edición.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT zc FROM ZoneCoverage zc WHERE zc.id = :id")
+    Optional<ZoneCoverage> findByIdForUpdate(@Param("id") Long id);
+
+    @Query(value = """
+            SELECT zc.max_capacity - zc.reserved_count FROM app.zone_coverage zc
+            WHERE zc.id = :id
+            FOR UPDATE
+            """, nativeQuery = true)
+    Optional<Integer> findAvailableCapacityForUpdate(@Param("id") Long id);
+
+    @Query(value = """
+            SELECT zc.max_capacity AS maxCapacity,
+                   zc.reserved_count AS reservedCount,
+                   zc.capacity_version AS capacityVersion
+            FROM app.zone_coverage zc
+            WHERE zc.id = :id
+            """, nativeQuery = true)
+    Optional<CapacitySnapshot> findCapacitySnapshot(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE app.zone_coverage
+            SET reserved_count = reserved_count + :amount,
+                capacity_version = capacity_version + 1
+            WHERE id = :id
+              AND reserved_count + :amount <= max_capacity
+            """, nativeQuery = true)
+    int claimCapacity(@Param("id") Long id, @Param("amount") int amount);
+
+    /**
+     * Toma cupos solo si el contador no cambió desde que se leyó {@code capacityVersion}.
+     * Si otra transacción tiene la fila bloqueada no espera su commit: devuelve 0
+     * de inmediato (SKIP LOCKED), igual que ante una versión distinta.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE app.zone_coverage
+            SET reserved_count = reserved_count + :amount,
+                capacity_version = capacity_version + 1
+            WHERE id = (
+                    SELECT unlocked.id
+                    FROM app.zone_coverage unlocked
+                    WHERE unlocked.id = :id
+                      AND unlocked.capacity_version = :capacityVersion
+                    FOR UPDATE SKIP LOCKED
+                )
+              AND reserved_count + :amount <= max_capacity
+            """, nativeQuery = true)
+    int claimCapacityIfVersion(
+            @Param("id") Long id,
+            @Param("amount") int amount,
+            @Param("capacityVersion") long capacityVersion
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE app.zone_coverage
+            SET reserved_count = reserved_count - :amount,
+                capacity_version = capacity_version + 1
+            WHERE id = :id
+              AND reserved_count >= :amount
+            """, nativeQuery = true)
+    int releaseCapacity(@Param("id") Long id, @Param("amount") int amount);
+
+    interface BoundaryVersion {
+
+        Long getId();
+
+        Long getBoundaryVersion();
+    }
+
+    interface CapacitySnapshot {
+
+        Integer getMaxCapacity();
+
+        Integer getReservedCount();
+
+        Long getCapacityVersion();
+    }
 }
@@ -0,0 +1,131 @@
+package com.app.demo.service;
+
+import com.app.demo.config.DataSourceWorkload;
+import com.app.demo.config.WorkloadRoutingDataSource;
+import com.app.demo.model.ZoneCoverage;
+import com.app.demo.repository.AddressRezoningRepository;
+import com.app.demo.repository.AddressRezoningRepository.ChunkResult;
+import com.app.demo.repository.AddressRezoningRepository.Task;
+import org.locationtech.jts.geom.Geometry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Re-zonificación incremental de direcciones de entrega.
+ * <p>
+ * Cuando cambia el área activa de una zone_coverage (límite redibujado, zona
+ * activada, desactivada o eliminada) se encola la diferencia simétrica entre el
+ * área anterior y la nueva: solo las direcciones dentro de ese delta pueden
+ * cambiar de zona. Al tomar una tarea se resuelven una sola vez sus direcciones
+ * candidatas; luego el worker las recorre en lotes acotados, cada uno en su
+ * propia transacción, por lo que solo bloquea las filas que reasigna. Las tareas
+ * se toman con SKIP LOCKED, así que varias instancias pueden procesarlas.
+ */
+@Service
+public class AddressRezoningService {
+
+    private static final Logger log = LoggerFactory.getLogger(AddressRezoningService.class);
+
+    private final AddressRezoningRepository addressRezoningRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public AddressRezoningService(
+            AddressRezoningRepository addressRezoningRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.rezoning.chunk-size:1000}") int chunkSize
+    ) {
+        this.addressRezoningRepository = addressRezoningRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Encola la re-zonificación si el área activa de la zona cambió. Ver {@link #activeArea}.
+     */
+    public void schedule(Long zoneCoverageId, Geometry previous, Geometry current) {
+        Geometry delta;
+        if (previous == null && current == null) {
+            return;
+        } else if (previous == null) {
+            delta = current;
+        } else if (current == null) {
+            delta = previous;
+        } else if (previous.equalsExact(current)) {
+            return;
+        } else {
+            delta = previous.symDifference(current);
+        }
+        if (!delta.isEmpty()) {
+            addressRezoningRepository.enqueue(zoneCoverageId, delta);
+        }
+    }
+
+    /**
+     * Área en la que la zona asigna direcciones: su límite si está activa; null
+     * si está inactiva, no tiene límite o no existe.
+     */
+    public Geometry activeArea(ZoneCoverage zone) {
+        if (zone == null || !Boolean.TRUE.equals(zone.getIsActive())) {
+            return null;
+        }
+        return zone.getBoundary();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rezoning.poll-interval-ms:2000}")
+    public void processPending() {
+        WorkloadRoutingDataSource.use(DataSourceWorkload.ADMIN_GEOMETRY);
+        try {
+            while (processNextChunk()) {
+                // Un lote por transacción hasta vaciar la cola
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Fallo la re-zonificacion de direcciones, se reintentara", ex);
+        } finally {
+            WorkloadRoutingDataSource.clear();
+        }
+    }
+
+    /**
+     * Procesa un lote de la tarea más antigua disponible; false si no hay tareas.
+     */
+    private boolean processNextChunk() {
+        Boolean processed = transactionTemplate.execute(status -> {
+            Optional<Task> claimed = addressRezoningRepository.claimNext();
+            if (claimed.isEmpty()) {
+                return false;
+            }
+            Task task = claimed.get();
+            if (!task.candidatesResolved()) {
+                int candidates = addressRezoningRepository.resolveCandidates(task.id());
+                log.debug("Re-zonificacion {}: {} direcciones dentro del delta", task.id(), candidates);
+                return true;
+            }
+            ChunkResult result = addressRezoningRepository.rezoneChunk(task, chunkSize);
+            if (result.lastAddressId() == null) {
+                addressRezoningRepository.complete(task.id());
+                log.info("Re-zonificacion {} completada", task.id());
+            } else {
+                addressRezoningRepository.advance(task.id(), result.lastAddressId());
+                if (result.updated() > 0) {
+                    eventPublisher.publishEvent(DeliveryAddressChangedEvent.unknownLocations());
+                    log.debug("Re-zonificacion {}: {} direcciones reasignadas hasta id {}",
+                            task.id(), result.updated(), result.lastAddressId());
+                }
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(processed);
+    }
+}
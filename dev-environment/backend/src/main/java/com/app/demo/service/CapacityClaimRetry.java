@@ -0,0 +1,101 @@
+package com.app.demo.service;
+
+import com.app.demo.exception.CapacityConflictException;
+import com.app.demo.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Reintentos de la toma optimista de cupo. Se envuelve la transacción completa
+ * que toma el cupo: ante un {@link CapacityConflictException} esa transacción ya
+ * se revirtió, y el backoff corre sin transacción ni conexión abiertas. Dentro de
+ * una transacción en curso no se reintenta: el conflicto sube hasta quien la abrió.
+ * <p>
+ * Publica métricas de intentos, reintentos y reintentos agotados.
+ */
+@Component
+public class CapacityClaimRetry {
+
+    private final CapacityConcurrencyMode mode;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final DistributionSummary attempts;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public CapacityClaimRetry(
+            MeterRegistry meterRegistry,
+            @Value("${app.capacity.concurrency-mode:PESSIMISTIC}") CapacityConcurrencyMode mode,
+            @Value("${app.capacity.optimistic.max-attempts:5}") int maxAttempts,
+            @Value("${app.capacity.optimistic.base-backoff-ms:2}") long baseBackoffMillis,
+            @Value("${app.capacity.optimistic.max-backoff-ms:50}") long maxBackoffMillis
+    ) {
+        this.mode = mode;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.attempts = DistributionSummary.builder("reservation.capacity.claim.attempts")
+                .description("Intentos por transacción que toma cupo")
+                .tag("mode", mode.name())
+                .register(meterRegistry);
+        this.retries = Counter.builder("reservation.capacity.claim.retries")
+                .description("Reintentos por conflicto de versión")
+                .tag("mode", mode.name())
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("reservation.capacity.claim.exhausted")
+                .description("Tomas de cupo rechazadas tras agotar los reintentos")
+                .tag("mode", mode.name())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta {@code transaction}, que debe abrir y cerrar su propia transacción,
+     * repitiéndola mientras falle por conflicto de versión.
+     */
+    public <T> T execute(Supplier<T> transaction) {
+        if (mode != CapacityConcurrencyMode.OPTIMISTIC
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transaction.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transaction.get();
+                attempts.record(attempt);
+                return result;
+            } catch (CapacityConflictException ex) {
+                if (attempt >= maxAttempts) {
+                    attempts.record(attempt);
+                    exhausted.increment();
+                    throw new ConflictException(
+                            "La zona de cobertura tiene alta demanda en este momento, intente nuevamente"
+                    );
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Backoff exponencial con jitter completo: espera un tiempo aleatorio entre 0
+     * y min(max, base * 2^intento) para que los reintentos no vuelvan a chocar.
+     */
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("La toma de cupo fue interrumpida, intente nuevamente");
+        }
+    }
+}
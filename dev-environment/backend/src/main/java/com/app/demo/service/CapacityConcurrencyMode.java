@@ -0,0 +1,19 @@
+package com.app.demo.service;
+
+/**
+ * Estrategia para tomar cupos de una zona de cobertura ({@code app.capacity.concurrency-mode}).
+ */
+public enum CapacityConcurrencyMode {
+
+    /**
+     * UPDATE condicional sobre reserved_count: espera el lock de la fila y nunca reintenta.
+     */
+    PESSIMISTIC,
+
+    /**
+     * Lectura sin lock y UPDATE condicionado a capacity_version que no espera
+     * locks ajenos. Si otra transacción cambió o bloquea el contador, la
+     * transacción completa se repite con backoff y jitter ({@link CapacityClaimRetry}).
+     */
+    OPTIMISTIC
+}
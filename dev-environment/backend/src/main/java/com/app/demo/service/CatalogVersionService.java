@@ -0,0 +1,48 @@
+package com.app.demo.service;
+
+import com.app.demo.model.CatalogTable;
+import com.app.demo.repository.CatalogVersionRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * ETags fuertes de los listados de catálogo. Un GET condicional se resuelve
+ * leyendo la versión del catálogo en app.catalog_version (a lo sumo 16 filas
+ * por tabla): si el {@code If-None-Match} coincide se responde 304 sin cargar
+ * entidades ni serializar con Jackson.
+ */
+@Service
+public class CatalogVersionService {
+
+    private final CatalogVersionRepository catalogVersionRepository;
+
+    public CatalogVersionService(CatalogVersionRepository catalogVersionRepository) {
+        this.catalogVersionRepository = catalogVersionRepository;
+    }
+
+    public String etag(CatalogTable table) {
+        return table.name().toLowerCase() + "-" + catalogVersionRepository.fingerprint(table);
+    }
+
+    /**
+     * Fija el ETag de la respuesta y devuelve true si el cliente ya tiene esta
+     * versión; en ese caso el controlador debe devolver null (304).
+     */
+    public boolean notModified(WebRequest webRequest, CatalogTable table) {
+        return webRequest.checkNotModified(etag(table));
+    }
+
+    /**
+     * Para recursos con varias representaciones (negociadas por Accept): el ETag
+     * incluye la variante y la respuesta declara {@code Vary: Accept}.
+     */
+    public boolean notModified(WebRequest webRequest, CatalogTable table, String variant) {
+        if (webRequest instanceof ServletWebRequest servletWebRequest && servletWebRequest.getResponse() != null) {
+            servletWebRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return webRequest.checkNotModified(table.name().toLowerCase() + "-" + variant + "-"
+                + catalogVersionRepository.fingerprint(table));
+    }
+}
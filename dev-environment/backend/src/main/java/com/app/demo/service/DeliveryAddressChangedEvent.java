@@ -0,0 +1,17 @@
+package com.app.demo.service;
+
+import org.locationtech.jts.geom.Point;
+
+import java.util.List;
+
+/**
+ * Cambiaron direcciones de entrega. {@code locations} trae las ubicaciones
+ * afectadas (anteriores y nuevas); null cuando no se conocen, como en la
+ * re-zonificación por lotes.
+ */
+public record DeliveryAddressChangedEvent(List<Point> locations) {
+
+    public static DeliveryAddressChangedEvent unknownLocations() {
+        return new DeliveryAddressChangedEvent(null);
+    }
+}
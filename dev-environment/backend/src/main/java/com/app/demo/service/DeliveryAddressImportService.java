@@ -0,0 +1,498 @@
+package com.app.demo.service;
+
+import com.app.demo.dto.DeliveryAddressImportResponse;
+import com.app.demo.dto.DeliveryAddressImportResponse.RowError;
+import com.app.demo.dto.DeliveryAddressRequest;
+import com.app.demo.exception.ResourceNotFoundException;
+import com.app.demo.model.DeliveryAddress;
+import com.app.demo.repository.CustomerRepository;
+import com.app.demo.repository.DeliveryAddressJdbcRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Importación masiva de direcciones de entrega desde CSV o GeoJSON.
+ * <p>
+ * El archivo se lee en streaming y se procesa en lotes de tamaño fijo: la zona
+ * de cada punto se busca en paralelo en {@link ZoneBoundaryIndex} y los puntos
+ * que el índice no resuelve se asignan con un único join espacial por lote. Cada
+ * lote se inserta con JDBC batching en su propia transacción; las filas
+ * inválidas no detienen la importación y se informan en el resultado. Las
+ * comunas se verifican con una consulta por lote y, si aun así el lote viola una
+ * restricción, se reintenta fila por fila para rechazar solo las filas culpables.
+ */
+@Service
+public class DeliveryAddressImportService {
+
+    private static final String NO_ZONE_MESSAGE =
+            "La ubicacion seleccionada no se encuentra dentro de ninguna zona de cobertura activa";
+
+    private final CustomerRepository customerRepository;
+    private final DeliveryAddressJdbcRepository deliveryAddressJdbcRepository;
+    private final ZoneBoundaryIndex zoneBoundaryIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GeometryFactory geometryFactory;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public DeliveryAddressImportService(
+            CustomerRepository customerRepository,
+            DeliveryAddressJdbcRepository deliveryAddressJdbcRepository,
+            ZoneBoundaryIndex zoneBoundaryIndex,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            Validator validator,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.address-import.chunk-size:500}") int chunkSize,
+            @Value("${app.address-import.max-rows:50000}") int maxRows
+    ) {
+        this.customerRepository = customerRepository;
+        this.deliveryAddressJdbcRepository = deliveryAddressJdbcRepository;
+        this.zoneBoundaryIndex = zoneBoundaryIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+
+    public static Format parseFormat(MediaType contentType) {
+        if (contentType != null) {
+            if (contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+                return Format.CSV;
+            }
+            if (contentType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                    || contentType.isCompatibleWith(MediaType.parseMediaType("application/geo+json"))) {
+                return Format.GEOJSON;
+            }
+        }
+        throw new IllegalArgumentException("Formato de importacion no soportado: " + contentType);
+    }
+
+    public DeliveryAddressImportResponse importAddresses(Long customerId, Format format, InputStream inputStream) {
+        if (!customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException("Customer no encontrado con id: " + customerId);
+        }
+
+        ImportRun run = new ImportRun(customerId);
+        if (format == Format.CSV) {
+            readCsv(inputStream, run::accept);
+        } else {
+            readGeoJson(inputStream, run);
+        }
+        run.flush();
+        return new DeliveryAddressImportResponse(run.imported, run.errors.size(), run.errors);
+    }
+
+    private void readCsv(InputStream inputStream, Consumer<ParsedRow> consumer) {
+        try (Reader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            List<String> header = readCsvRecord(reader);
+            if (header == null) {
+                throw new IllegalArgumentException("El archivo CSV esta vacio");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+            }
+            for (String required : List.of("street", "locality", "commune", "region")) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("Falta la columna obligatoria del CSV: " + required);
+                }
+            }
+
+            int row = 0;
+            List<String> values;
+            while ((values = readCsvRecord(reader)) != null) {
+                row++;
+                if (values.size() == 1 && values.getFirst().isBlank()) {
+                    continue;
+                }
+                ParsedRow parsed;
+                try {
+                    parsed = ParsedRow.of(row, toRequest(columns, values));
+                } catch (IllegalArgumentException ex) {
+                    parsed = ParsedRow.invalid(row, ex.getMessage());
+                }
+                consumer.accept(parsed);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private DeliveryAddressRequest toRequest(Map<String, Integer> columns, List<String> values) {
+        DeliveryAddressRequest request = new DeliveryAddressRequest();
+        request.setStreet(column(columns, values, "street"));
+        request.setLocality(column(columns, values, "locality"));
+        request.setCommune(column(columns, values, "commune"));
+        request.setRegion(column(columns, values, "region"));
+        request.setPostalCode(column(columns, values, "postalcode"));
+        request.setComunaId(parseNumber(column(columns, values, "comunaid"), "comuna_id", Long::valueOf));
+        request.setLatitude(parseNumber(column(columns, values, "latitude"), "latitude", Double::valueOf));
+        request.setLongitude(parseNumber(column(columns, values, "longitude"), "longitude", Double::valueOf));
+        String isDefault = column(columns, values, "isdefault");
+        request.setIsDefault(isDefault != null && Boolean.parseBoolean(isDefault));
+        return request;
+    }
+
+    private String column(Map<String, Integer> columns, List<String> values, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size() || values.get(index).isBlank()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    private <T> T parseNumber(String value, String column, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Valor invalido en la columna " + column + ": " + value);
+        }
+    }
+
+    /**
+     * Lee un registro CSV (RFC 4180): campos entre comillas pueden contener
+     * comas, comillas dobles escapadas y saltos de línea. Null al final del archivo.
+     */
+    private List<String> readCsvRecord(Reader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        values.add(field.toString());
+        return values;
+    }
+
+    /**
+     * FeatureCollection de puntos; las properties usan los nombres de
+     * {@link DeliveryAddressRequest}. Cada feature se lee como árbol y se
+     * convierte por separado, de modo que una feature con valores inválidos se
+     * informa como fila rechazada. Un GeoJSON mal formado es un 400 si aún no se
+     * insertó ningún lote; si ya se insertaron lotes, la lectura se detiene y el
+     * error se informa en el resultado junto con lo importado.
+     */
+    private void readGeoJson(InputStream inputStream, ImportRun run) {
+        int row = 0;
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("El GeoJSON debe ser un FeatureCollection");
+            }
+            boolean hasFeatures = false;
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("features".equals(fieldName) && value == JsonToken.START_ARRAY) {
+                    hasFeatures = true;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        JsonNode feature = objectMapper.readTree(parser);
+                        run.accept(readFeature(feature, ++row));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (!hasFeatures) {
+                throw new IllegalArgumentException("El GeoJSON debe ser un FeatureCollection con features");
+            }
+        } catch (JacksonException ex) {
+            String message = "El GeoJSON no es valido: " + ex.getOriginalMessage();
+            if (!run.hasFlushed()) {
+                throw new IllegalArgumentException(message);
+            }
+            run.reject(row + 1, message + "; las features restantes no se importaron");
+        }
+    }
+
+    private ParsedRow readFeature(JsonNode feature, int row) {
+        JsonNode properties = feature.get("properties");
+        if (properties == null || !properties.isObject()) {
+            return ParsedRow.invalid(row, "La feature no tiene properties");
+        }
+        JsonNode geometryNode = feature.get("geometry");
+        try {
+            DeliveryAddressRequest request = objectMapper.treeToValue(properties, DeliveryAddressRequest.class);
+            if (geometryNode != null && !geometryNode.isNull()) {
+                Geometry geometry = objectMapper.treeToValue(geometryNode, Geometry.class);
+                if (!(geometry instanceof Point point)) {
+                    return ParsedRow.invalid(row, "La geometria de la feature debe ser un Point");
+                }
+                request.setLongitude(point.getX());
+                request.setLatitude(point.getY());
+            }
+            return ParsedRow.of(row, request);
+        } catch (JacksonException ex) {
+            return ParsedRow.invalid(row, "Feature invalida: " + ex.getOriginalMessage());
+        } catch (IllegalArgumentException ex) {
+            return ParsedRow.invalid(row, "Feature invalida: " + ex.getMessage());
+        }
+    }
+
+    public enum Format {
+        CSV,
+        GEOJSON
+    }
+
+    private record ParsedRow(int row, DeliveryAddressRequest request, String error) {
+
+        static ParsedRow of(int row, DeliveryAddressRequest request) {
+            return new ParsedRow(row, request, null);
+        }
+
+        static ParsedRow invalid(int row, String error) {
+            return new ParsedRow(row, null, error);
+        }
+    }
+
+    /**
+     * Estado de una importación: el lote en curso, los totales y las filas rechazadas.
+     */
+    private final class ImportRun {
+
+        private final Long customerId;
+        private final List<ParsedRow> chunk = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private int imported;
+        private int rows;
+        private boolean flushed;
+
+        private ImportRun(Long customerId) {
+            this.customerId = customerId;
+        }
+
+        private void accept(ParsedRow row) {
+            if (++rows > maxRows) {
+                if (rows == maxRows + 1) {
+                    errors.add(new RowError(row.row(), 413,
+                            "Se supero el maximo de " + maxRows + " filas; las filas restantes no se importaron"));
+                }
+                return;
+            }
+            if (row.error() != null) {
+                errors.add(new RowError(row.row(), 400, row.error()));
+                return;
+            }
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private boolean hasFlushed() {
+            return flushed;
+        }
+
+        private void reject(int row, String error) {
+            errors.add(new RowError(row, 400, error));
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            flushed = true;
+            List<ParsedRow> valid = new ArrayList<>();
+            for (ParsedRow row : chunk) {
+                row.request().setCustomerId(customerId);
+                String violations = validate(row.request());
+                if (violations == null) {
+                    valid.add(row);
+                } else {
+                    errors.add(new RowError(row.row(), 400, violations));
+                }
+            }
+            chunk.clear();
+
+            Point[] points = valid.stream().map(row -> toPoint(row.request())).toArray(Point[]::new);
+            Long[] zoneIds = assignZones(points);
+            Set<Long> comunaIds = deliveryAddressJdbcRepository.findExistingComunaIds(valid.stream()
+                    .map(row -> row.request().getComunaId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+
+            List<DeliveryAddress> toInsert = new ArrayList<>();
+            List<Integer> insertedRows = new ArrayList<>();
+            for (int i = 0; i < valid.size(); i++) {
+                Long comunaId = valid.get(i).request().getComunaId();
+                if (comunaId != null && !comunaIds.contains(comunaId)) {
+                    errors.add(new RowError(valid.get(i).row(), 404, "Comuna no encontrada con id: " + comunaId));
+                } else if (points[i] != null && zoneIds[i] == null) {
+                    errors.add(new RowError(valid.get(i).row(), 400, NO_ZONE_MESSAGE));
+                } else {
+                    toInsert.add(toEntity(valid.get(i).request(), points[i], zoneIds[i]));
+                    insertedRows.add(valid.get(i).row());
+                }
+            }
+
+            if (insert(toInsert)) {
+                imported += toInsert.size();
+                return;
+            }
+            // Una fila que viola una restricción revierte el lote completo
+            for (int i = 0; i < toInsert.size(); i++) {
+                if (insert(List.of(toInsert.get(i)))) {
+                    imported++;
+                } else {
+                    errors.add(new RowError(
+                            insertedRows.get(i), 409, "No se pudo completar la operacion por una restriccion de datos"
+                    ));
+                }
+            }
+        }
+
+        private boolean insert(List<DeliveryAddress> addresses) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    deliveryAddressJdbcRepository.insertAll(addresses);
+                    eventPublisher.publishEvent(new DeliveryAddressChangedEvent(
+                            addresses.stream().map(DeliveryAddress::getLocation).toList()
+                    ));
+                });
+                return true;
+            } catch (DataIntegrityViolationException ex) {
+                return false;
+            }
+        }
+    }
+
+    private String validate(DeliveryAddressRequest request) {
+        List<String> messages = validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+        return messages.isEmpty() ? null : String.join("; ", messages);
+    }
+
+    /**
+     * Primero el índice en memoria en paralelo; sus aciertos se confirman con una
+     * consulta de versiones por lote. Los puntos sin zona confirmada se resuelven
+     * con un único join espacial en la base de datos.
+     */
+    private Long[] assignZones(Point[] points) {
+        Long[] zoneIds = new Long[points.length];
+        IntStream.range(0, points.length).parallel()
+                .filter(i -> points[i] != null)
+                .forEach(i -> zoneIds[i] = zoneBoundaryIndex.findIndexedZone(points[i]).orElse(null));
+        Set<Long> stale = zoneBoundaryIndex.refreshStale(
+                Arrays.stream(zoneIds).filter(Objects::nonNull).collect(Collectors.toSet())
+        );
+        for (int i = 0; i < zoneIds.length; i++) {
+            if (zoneIds[i] != null && stale.contains(zoneIds[i])) {
+                zoneIds[i] = null;
+            }
+        }
+
+        List<Integer> misses = IntStream.range(0, points.length)
+                .filter(i -> points[i] != null && zoneIds[i] == null)
+                .boxed()
+                .toList();
+        if (!misses.isEmpty()) {
+            Long[] found = deliveryAddressJdbcRepository.findZonesContaining(
+                    misses.stream().map(i -> points[i]).collect(Collectors.toList())
+            );
+            for (int k = 0; k < misses.size(); k++) {
+                zoneIds[misses.get(k)] = found[k];
+            }
+        }
+        return zoneIds;
+    }
+
+    private Point toPoint(DeliveryAddressRequest request) {
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            return null;
+        }
+        Point point = geometryFactory.createPoint(new Coordinate(request.getLongitude(), request.getLatitude()));
+        point.setSRID(4326);
+        return point;
+    }
+
+    private DeliveryAddress toEntity(DeliveryAddressRequest request, Point point, Long zoneCoverageId) {
+        DeliveryAddress entity = new DeliveryAddress();
+        entity.setCustomerId(request.getCustomerId());
+        entity.setComunaId(request.getComunaId());
+        entity.setStreet(request.getStreet().trim());
+        entity.setLocality(request.getLocality().trim());
+        entity.setCommune(request.getCommune().trim());
+        entity.setRegion(request.getRegion().trim());
+        entity.setPostalCode(request.getPostalCode() == null || request.getPostalCode().isBlank()
+                ? null
+                : request.getPostalCode().trim());
+        entity.setIsDefault(request.getIsDefault() != null ? request.getIsDefault() : false);
+        entity.setLocation(point);
+        entity.setZoneCoverageId(zoneCoverageId);
+        return entity;
+    }
+}
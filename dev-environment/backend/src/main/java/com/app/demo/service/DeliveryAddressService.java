@@ -12,8 +12,10 @@ import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Service
@@ -22,16 +24,22 @@ public class DeliveryAddressService {
     private final DeliveryAddressRepository deliveryAddressRepository;
     private final CustomerRepository customerRepository;
     private final ZoneCoverageRepository zoneCoverageRepository;
+    private final ZoneBoundaryIndex zoneBoundaryIndex;
+    private final ApplicationEventPublisher eventPublisher;
     private final GeometryFactory geometryFactory;
 
     public DeliveryAddressService(
             DeliveryAddressRepository deliveryAddressRepository,
             CustomerRepository customerRepository,
-            ZoneCoverageRepository zoneCoverageRepository
+            ZoneCoverageRepository zoneCoverageRepository,
+            ZoneBoundaryIndex zoneBoundaryIndex,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.deliveryAddressRepository = deliveryAddressRepository;
         this.customerRepository = customerRepository;
         this.zoneCoverageRepository = zoneCoverageRepository;
+        this.zoneBoundaryIndex = zoneBoundaryIndex;
+        this.eventPublisher = eventPublisher;
         this.geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
     }
 
@@ -56,21 +64,27 @@ public class DeliveryAddressService {
         DeliveryAddress entity = new DeliveryAddress();
         applyChanges(entity, request);
         DeliveryAddress saved = deliveryAddressRepository.save(entity);
+        locationsChanged(saved.getLocation());
         return toResponseWithZoneName(saved);
     }
 
     public DeliveryAddressResponse update(Long id, DeliveryAddressRequest request) {
         DeliveryAddress entity = getOrThrow(id);
+        Point previousLocation = entity.getLocation();
         applyChanges(entity, request);
         DeliveryAddress saved = deliveryAddressRepository.save(entity);
+        locationsChanged(previousLocation, saved.getLocation());
         return toResponseWithZoneName(saved);
     }
 
     public void delete(Long id) {
-        if (!deliveryAddressRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Direccion de entrega no encontrada con id: " + id);
-        }
-        deliveryAddressRepository.deleteById(id);
+        DeliveryAddress entity = getOrThrow(id);
+        deliveryAddressRepository.delete(entity);
+        locationsChanged(entity.getLocation());
+    }
+
+    private void locationsChanged(Point... locations) {
+        eventPublisher.publishEvent(new DeliveryAddressChangedEvent(Arrays.asList(locations)));
     }
 
     private void applyChanges(DeliveryAddress entity, DeliveryAddressRequest request) {
@@ -90,15 +104,13 @@ public class DeliveryAddressService {
             point.setSRID(4326);
 
             // Validate the point is inside at least one active zone_coverage boundary
-            List<ZoneCoverage> matchingZones = zoneCoverageRepository.findByPointInsideBoundary(point);
-            if (matchingZones.isEmpty()) {
-                throw new IllegalArgumentException(
-                        "La ubicacion seleccionada no se encuentra dentro de ninguna zona de cobertura activa"
-                );
-            }
+            Long zoneCoverageId = zoneBoundaryIndex.findZoneContaining(point)
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "La ubicacion seleccionada no se encuentra dentro de ninguna zona de cobertura activa"
+                    ));
 
             entity.setLocation(point);
-            entity.setZoneCoverageId(matchingZones.getFirst().getId());
+            entity.setZoneCoverageId(zoneCoverageId);
         } else {
             entity.setLocation(null);
             entity.setZoneCoverageId(null);
@@ -0,0 +1,108 @@
+package com.app.demo.service;
+
+import com.app.demo.dto.DeliverySlotResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache read-through de delivery_slots delante de {@link DeliverySlotService#findAll}
+ * y {@link DeliverySlotService#findById}. Cada {@link DeliverySlotChangedEvent}
+ * que modifica la fila invalida el slot afectado y el listado completo después
+ * del commit; la expiración por tiempo solo cubre cambios hechos por otras instancias.
+ * <p>
+ * Publica aciertos y fallos (cache.gets) y la antigüedad de lo servido
+ * (delivery_slots.cache.staleness). Las respuestas cacheadas son compartidas y
+ * no deben modificarse.
+ */
+@Service
+public class DeliverySlotCache {
+
+    private static final String ALL = "all";
+
+    private final DeliverySlotService deliverySlotService;
+    private final Cache<Long, Cached<DeliverySlotResponse>> byId;
+    private final Cache<String, Cached<List<DeliverySlotResponse>>> all;
+    private final Timer staleness;
+    private final Counter invalidations;
+
+    public DeliverySlotCache(
+            DeliverySlotService deliverySlotService,
+            MeterRegistry meterRegistry,
+            @Value("${app.delivery-slot-cache.max-size:5000}") long maxSize,
+            @Value("${app.delivery-slot-cache.expire-after-write-seconds:30}") long expireAfterWriteSeconds
+    ) {
+        this.deliverySlotService = deliverySlotService;
+        Duration expireAfterWrite = Duration.ofSeconds(expireAfterWriteSeconds);
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.all = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "delivery_slots", "view", "by_id");
+        CaffeineCacheMetrics.monitor(meterRegistry, all, "delivery_slots", "view", "all");
+        this.staleness = Timer.builder("delivery_slots.cache.staleness")
+                .description("Antigüedad de la respuesta servida desde el cache de delivery_slots")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("delivery_slots.cache.invalidations")
+                .description("Invalidaciones por cambios de delivery_slots")
+                .register(meterRegistry);
+    }
+
+    public List<DeliverySlotResponse> findAll() {
+        return serve(all.get(ALL, key -> load(() -> deliverySlotService.findAll()
+                .stream()
+                .map(DeliverySlotResponse::fromEntity)
+                .toList())));
+    }
+
+    /**
+     * Un slot inexistente lanza {@code ResourceNotFoundException} y no se cachea.
+     */
+    public DeliverySlotResponse findById(Long id) {
+        return serve(byId.get(id, key -> load(() -> DeliverySlotResponse.fromEntity(deliverySlotService.findById(key)))));
+    }
+
+    /**
+     * Las tomas y liberaciones de cupo no tocan la fila de delivery_slot: se
+     * ignoran y el cache se invalida cuando el rollup (o el ledger) escribe el
+     * nuevo reserved_count, una vez por ciclo y no por reserva.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeliverySlotChanged(DeliverySlotChangedEvent event) {
+        if (!event.slotRowChanged()) {
+            return;
+        }
+        byId.invalidate(event.deliverySlotId());
+        all.invalidateAll();
+        invalidations.increment();
+    }
+
+    private <T> Cached<T> load(Supplier<T> loader) {
+        return new Cached<>(loader.get(), System.nanoTime());
+    }
+
+    private <T> T serve(Cached<T> cached) {
+        staleness.record(Duration.ofNanos(System.nanoTime() - cached.loadedAtNanos()));
+        return cached.value();
+    }
+
+    private record Cached<T>(T value, long loadedAtNanos) {
+    }
+}
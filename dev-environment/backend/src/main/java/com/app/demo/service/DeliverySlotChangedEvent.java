@@ -0,0 +1,21 @@
+package com.app.demo.service;
+
+/**
+ * Cambió la capacidad, el contador o los datos de un delivery_slot. Se publica
+ * dentro de la transacción que hizo el cambio; los listeners con
+ * {@code AFTER_COMMIT} lo reciben solo si el cambio llegó a la base.
+ * <p>
+ * {@code slotRowChanged} es false cuando solo cambiaron los contadores por zona
+ * (toma o liberación de cupo): la fila de delivery_slot se actualiza después en
+ * {@link SlotReservedCountRollup}, que publica su propio evento.
+ */
+public record DeliverySlotChangedEvent(Long deliverySlotId, boolean slotRowChanged) {
+
+    public DeliverySlotChangedEvent(Long deliverySlotId) {
+        this(deliverySlotId, true);
+    }
+
+    public static DeliverySlotChangedEvent zoneCountersChanged(Long deliverySlotId) {
+        return new DeliverySlotChangedEvent(deliverySlotId, false);
+    }
+}
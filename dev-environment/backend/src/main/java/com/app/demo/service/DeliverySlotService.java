@@ -1,28 +1,47 @@
 package com.app.demo.service;
 
+import com.app.demo.dto.DeliverySlotFilter;
+import com.app.demo.dto.DeliverySlotPageResponse;
 import com.app.demo.dto.DeliverySlotRequest;
+import com.app.demo.dto.DeliverySlotView;
 import com.app.demo.exception.ConflictException;
 import com.app.demo.exception.ResourceNotFoundException;
 import com.app.demo.model.DeliverySlot;
 import com.app.demo.repository.DeliverySlotRepository;
 import com.app.demo.repository.TimeSlotTemplateRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
 public class DeliverySlotService {
 
+    private static final int DEFAULT_SEARCH_DAYS = 7;
+    private static final int MAX_SEARCH_DAYS = 92;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final DeliverySlotRepository deliverySlotRepository;
     private final TimeSlotTemplateRepository timeSlotTemplateRepository;
+    private final SlotCapacityLedger slotCapacityLedger;
+    private final ApplicationEventPublisher eventPublisher;
 
     public DeliverySlotService(
             DeliverySlotRepository deliverySlotRepository,
-            TimeSlotTemplateRepository timeSlotTemplateRepository
+            TimeSlotTemplateRepository timeSlotTemplateRepository,
+            SlotCapacityLedger slotCapacityLedger,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.deliverySlotRepository = deliverySlotRepository;
         this.timeSlotTemplateRepository = timeSlotTemplateRepository;
+        this.slotCapacityLedger = slotCapacityLedger;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<DeliverySlot> findAll() {
@@ -33,6 +52,37 @@ public class DeliverySlotService {
         return deliverySlotRepository.findAll(sort);
     }
 
+    /**
+     * Búsqueda paginada para vistas de calendario. Sin {@code from} se parte
+     * desde hoy (UTC) y sin {@code to} se cubre una semana.
+     */
+    public DeliverySlotPageResponse search(DeliverySlotFilter filter, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("La pagina no puede ser negativa");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El size debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        LocalDate from = filter.getFrom() == null ? LocalDate.now(ZoneOffset.UTC) : filter.getFrom();
+        LocalDate to = filter.getTo() == null ? from.plusDays(DEFAULT_SEARCH_DAYS - 1) : filter.getTo();
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("La fecha 'to' no puede ser anterior a 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_SEARCH_DAYS) {
+            throw new IllegalArgumentException("El rango de fechas no puede superar " + MAX_SEARCH_DAYS + " dias");
+        }
+
+        Slice<DeliverySlotView> slice = deliverySlotRepository.search(
+                from,
+                to,
+                filter.getActive(),
+                filter.getTemplateId(),
+                filter.getHasCapacity(),
+                PageRequest.of(page, size)
+        );
+        return new DeliverySlotPageResponse(slice.getContent(), page, size, slice.hasNext());
+    }
+
     public DeliverySlot findById(Long id) {
         return deliverySlotRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("DeliverySlot no encontrado con id: " + id));
@@ -44,7 +94,9 @@ public class DeliverySlotService {
 
         DeliverySlot entity = new DeliverySlot();
         applyChanges(entity, request);
-        return deliverySlotRepository.save(entity);
+        DeliverySlot saved = deliverySlotRepository.save(entity);
+        eventPublisher.publishEvent(new DeliverySlotChangedEvent(saved.getId()));
+        return saved;
     }
 
     public DeliverySlot update(Long id, DeliverySlotRequest request) {
@@ -53,7 +105,10 @@ public class DeliverySlotService {
         validateUniqueDeliverySlot(request.getDeliveryDate(), request.getTimeSlotTemplateId(), id);
 
         applyChanges(entity, request);
-        return deliverySlotRepository.save(entity);
+        DeliverySlot saved = deliverySlotRepository.save(entity);
+        slotCapacityLedger.refresh(id);
+        eventPublisher.publishEvent(new DeliverySlotChangedEvent(id));
+        return saved;
     }
 
     public void delete(Long id) {
@@ -61,6 +116,8 @@ public class DeliverySlotService {
             throw new ResourceNotFoundException("DeliverySlot no encontrado con id: " + id);
         }
         deliverySlotRepository.deleteById(id);
+        slotCapacityLedger.refresh(id);
+        eventPublisher.publishEvent(new DeliverySlotChangedEvent(id));
     }
 
     private void validateTimeSlotTemplateExists(Long timeSlotTemplateId) {
@@ -0,0 +1,106 @@
+package com.app.demo.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timer wheel jerárquico: cada nivel tiene {@code wheelSize} buckets y cubre
+ * {@code wheelSize} veces el rango del nivel inferior. Programar y avanzar son
+ * O(1) amortizado; los elementos de niveles altos bajan en cascada a medida que
+ * se acerca su vencimiento. Los vencimientos fuera del rango total quedan en un
+ * overflow que se revisa en cada vuelta completa del nivel superior.
+ */
+final class HierarchicalTimerWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelSpans;
+    private final ArrayDeque<Entry<T>>[][] buckets;
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    private final List<T> due = new ArrayList<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    HierarchicalTimerWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize debe ser potencia de 2");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelSpans = new long[levels];
+        this.buckets = new ArrayDeque[levels][wheelSize];
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            levelSpans[level] = span;
+            span *= wheelSize;
+            for (int slot = 0; slot < wheelSize; slot++) {
+                buckets[level][slot] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * El tick se redondea hacia arriba: un elemento nunca vence antes de {@code deadlineMillis}.
+     */
+    synchronized void schedule(long deadlineMillis, T item) {
+        place(new Entry<>(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), item));
+    }
+
+    /**
+     * Avanza el reloj hasta {@code nowMillis} y devuelve los elementos vencidos.
+     */
+    synchronized List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = levelSpans.length - 1; level > 0; level--) {
+                if (currentTick % levelSpans[level] == 0) {
+                    cascade(buckets[level][slotIndex(currentTick, level)]);
+                }
+            }
+            if (currentTick % (levelSpans[levelSpans.length - 1] * wheelSize) == 0 && !overflow.isEmpty()) {
+                List<Entry<T>> pending = new ArrayList<>(overflow);
+                overflow.clear();
+                pending.forEach(this::place);
+            }
+            ArrayDeque<Entry<T>> bucket = buckets[0][slotIndex(currentTick, 0)];
+            while (!bucket.isEmpty()) {
+                due.add(bucket.poll().item());
+            }
+        }
+
+        List<T> expired = new ArrayList<>(due);
+        due.clear();
+        return expired;
+    }
+
+    private void cascade(ArrayDeque<Entry<T>> bucket) {
+        while (!bucket.isEmpty()) {
+            place(bucket.poll());
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.deadlineTick() - currentTick;
+        if (delta <= 0) {
+            due.add(entry.item());
+            return;
+        }
+        for (int level = 0; level < levelSpans.length; level++) {
+            if (delta < levelSpans[level] * wheelSize) {
+                buckets[level][slotIndex(entry.deadlineTick(), level)].add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private int slotIndex(long tick, int level) {
+        return (int) ((tick / levelSpans[level]) & (wheelSize - 1));
+    }
+
+    private record Entry<T>(long deadlineTick, T item) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.app.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Vencimiento de reservas retenidas (HELD). Cada retención se registra en un
+ * timer wheel jerárquico en memoria; cuando un bucket vence se ejecuta un único
+ * UPDATE por lotes que marca como EXPIRED todas las retenciones vencidas y
+ * descuenta sus cupos de zone_coverage y delivery_slot. Un barrido periódico cubre las
+ * retenciones creadas por otras instancias o antes de un reinicio.
+ */
+@Service
+public class HoldExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpiryService.class);
+
+    private static final String SWEEP_SQL = """
+            WITH expired AS (
+                UPDATE app.reservation
+                SET status = 'EXPIRED',
+                    version = version + 1
+                WHERE status = 'HELD'
+                  AND expires_at <= NOW()
+                RETURNING delivery_slot_id, zone_coverage_id
+            ), zones AS (
+                UPDATE app.zone_coverage zc
+                SET reserved_count = GREATEST(zc.reserved_count - z.released, 0),
+                    capacity_version = zc.capacity_version + 1
+                FROM (
+                    SELECT zone_coverage_id, COUNT(*) AS released
+                    FROM expired
+                    WHERE zone_coverage_id IS NOT NULL
+                    GROUP BY zone_coverage_id
+                ) z
+                WHERE zc.id = z.zone_coverage_id
+            ), released AS (
+                SELECT delivery_slot_id, COUNT(*) AS released
+                FROM expired
+                GROUP BY delivery_slot_id
+            )
+            UPDATE app.delivery_slot ds
+            SET reserved_count = GREATEST(ds.reserved_count - released.released, 0)
+            FROM released
+            WHERE ds.id = released.delivery_slot_id
+            RETURNING ds.id, released.released
+            """;
+
+    private static final String STILL_HELD_SQL = """
+            SELECT id, expires_at
+            FROM app.reservation
+            WHERE id = ANY(?)
+              AND status = 'HELD'
+              AND expires_at IS NOT NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SlotCapacityLedger slotCapacityLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration holdDuration;
+    private final HierarchicalTimerWheel<Long> timerWheel;
+
+    public HoldExpiryService(
+            JdbcTemplate jdbcTemplate,
+            SlotCapacityLedger slotCapacityLedger,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.reservations.hold-minutes:10}") long holdMinutes
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.slotCapacityLedger = slotCapacityLedger;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.holdDuration = Duration.ofMinutes(holdMinutes);
+        // Ticks de 1 s, 3 niveles de 64 buckets: ~72 horas de rango antes del overflow
+        this.timerWheel = new HierarchicalTimerWheel<>(1000L, 64, 3, System.currentTimeMillis());
+    }
+
+    public OffsetDateTime newHoldExpiry() {
+        return OffsetDateTime.now().plus(holdDuration);
+    }
+
+    /**
+     * Registra el vencimiento de una retención cuando la transacción actual hace commit.
+     */
+    public void track(Long reservationId, OffsetDateTime expiresAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            timerWheel.schedule(expiresAt.toInstant().toEpochMilli(), reservationId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                timerWheel.schedule(expiresAt.toInstant().toEpochMilli(), reservationId);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingHolds() {
+        List<Object[]> holds = jdbcTemplate.query(
+                "SELECT id, expires_at FROM app.reservation WHERE status = 'HELD' AND expires_at IS NOT NULL",
+                (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getTimestamp("expires_at")}
+        );
+        for (Object[] hold : holds) {
+            timerWheel.schedule(((Timestamp) hold[1]).getTime(), (Long) hold[0]);
+        }
+        sweep();
+    }
+
+    @Scheduled(fixedDelay = 1000L)
+    public void tick() {
+        List<Long> fired = timerWheel.advance(System.currentTimeMillis());
+        if (!fired.isEmpty()) {
+            sweep();
+            rescheduleStillHeld(fired);
+        }
+    }
+
+    /**
+     * Vuelve a programar las retenciones que el barrido no expiró (reloj de la
+     * base atrasado o barrido fallido), para no esperar al barrido de respaldo.
+     */
+    private void rescheduleStillHeld(List<Long> fired) {
+        try {
+            Long[] ids = fired.toArray(Long[]::new);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(STILL_HELD_SQL);
+                ps.setArray(1, connection.createArrayOf("bigint", ids));
+                return ps;
+            }, rs -> {
+                timerWheel.schedule(rs.getTimestamp("expires_at").getTime(), rs.getLong("id"));
+            });
+        } catch (DataAccessException ex) {
+            log.warn("No se pudieron reprogramar {} retenciones; las cubrira el barrido de respaldo", fired.size(), ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reservations.hold-sweep-interval-ms:60000}")
+    public void sweepPeriodically() {
+        sweep();
+    }
+
+    /**
+     * Expira en una sola sentencia todas las retenciones vencidas y devuelve sus cupos.
+     */
+    public synchronized void sweep() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(SWEEP_SQL, rs -> {
+                long deliverySlotId = rs.getLong("id");
+                int released = rs.getInt("released");
+                if (slotCapacityLedger.manages(deliverySlotId)) {
+                    slotCapacityLedger.releaseExpired(deliverySlotId, released);
+                }
+                eventPublisher.publishEvent(new DeliverySlotChangedEvent(deliverySlotId));
+                log.debug("Retenciones expiradas: {} cupos liberados en delivery_slot {}", released, deliverySlotId);
+            }));
+        } catch (DataAccessException ex) {
+            log.warn("Barrido de retenciones fallido, se reintentará en el próximo ciclo", ex);
+        }
+    }
+}
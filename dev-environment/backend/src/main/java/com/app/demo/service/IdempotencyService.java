@@ -0,0 +1,250 @@
+package com.app.demo.service;
+
+import com.app.demo.exception.ConflictException;
+import com.app.demo.exception.OutcomeUnknownException;
+import com.app.demo.exception.ResourceNotFoundException;
+import com.app.demo.exception.ServiceUnavailableException;
+import com.app.demo.repository.IdempotencyKeyRepository;
+import com.app.demo.repository.IdempotencyKeyRepository.StoredResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Soporte de la cabecera Idempotency-Key. La primera ejecución reserva la clave
+ * en app.idempotency_key y guarda su respuesta en la misma transacción que su
+ * escritura; los reintentos con la misma clave reciben esa respuesta desde un
+ * cache en memoria acotado (o desde la tabla) sin volver a ejecutar la operación
+ * ni tomar locks de capacidad.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CapacityClaimRetry capacityClaimRetry;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+    private final Cache<CacheKey, StoredResponse> completed;
+
+    public IdempotencyService(
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            CapacityClaimRetry capacityClaimRetry,
+            @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${app.idempotency.in-progress-timeout-seconds:60}") long inProgressTimeoutSeconds,
+            @Value("${app.idempotency.cache-max-size:10000}") long cacheMaxSize
+    ) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.capacityClaimRetry = capacityClaimRetry;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inProgressTimeout = Duration.ofSeconds(inProgressTimeoutSeconds);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Ejecuta {@code action} una sola vez por clave y operación. Sin clave se
+     * ejecuta directamente. Con clave, la acción corre dentro de una transacción
+     * que también guarda su respuesta, de modo que la escritura y la respuesta
+     * almacenada se confirman juntas. En ambos casos la transacción completa se
+     * repite si su toma optimista de cupo choca con otra ({@link CapacityClaimRetry}).
+     */
+    public ResponseEntity<?> execute(
+            String idempotencyKey,
+            String operation,
+            Object request,
+            Supplier<ResponseEntity<?>> action
+    ) {
+        if (idempotencyKey == null) {
+            return capacityClaimRetry.execute(action);
+        }
+        return executeRecording(idempotencyKey, operation, request, recorder ->
+                capacityClaimRetry.execute(() -> transactionTemplate.execute(status -> {
+                    ResponseEntity<?> response = action.get();
+                    recorder.record(response);
+                    return response;
+                }))
+        );
+    }
+
+    /**
+     * Variante para acciones que escriben en una transacción propia (el pipeline
+     * de reservas): la acción debe llamar a {@link ResponseRecorder#record} dentro
+     * de esa transacción, antes del commit.
+     * <p>
+     * Si la acción falla con un error que garantiza que no se aplicó (400, 404,
+     * 409 o un 503 sin efectos), la clave se libera y el cliente puede reintentar.
+     * Ante cualquier otro error el resultado es incierto y la clave queda en curso:
+     * los reintentos reciben 409 hasta que la ejecución original se confirme o
+     * supere {@code in-progress-timeout-seconds}.
+     */
+    public ResponseEntity<?> executeRecording(
+            String idempotencyKey,
+            String operation,
+            Object request,
+            Function<ResponseRecorder, ResponseEntity<?>> action
+    ) {
+        if (idempotencyKey == null) {
+            return action.apply(response -> {
+            });
+        }
+        validateKey(idempotencyKey);
+
+        CacheKey cacheKey = new CacheKey(idempotencyKey, operation);
+        String requestHash = hash(operation, request);
+        StoredResponse cached = completed.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        UUID attemptId = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+        boolean reserved = idempotencyKeyRepository.tryReserve(
+                idempotencyKey, operation, requestHash, attemptId, now.plus(ttl), now.minus(inProgressTimeout)
+        );
+        if (!reserved) {
+            StoredResponse stored = idempotencyKeyRepository.find(idempotencyKey, operation)
+                    .filter(response -> response.statusCode() != null)
+                    .orElseThrow(() -> new ConflictException(
+                            "Hay una solicitud en curso con el mismo Idempotency-Key"
+                    ));
+            completed.put(cacheKey, stored);
+            return replay(stored, requestHash);
+        }
+
+        AtomicReference<StoredResponse> recorded = new AtomicReference<>();
+        ResponseEntity<?> response;
+        try {
+            response = action.apply(result -> recorded.set(
+                    record(idempotencyKey, operation, attemptId, requestHash, result)
+            ));
+        } catch (RuntimeException ex) {
+            if (isNotApplied(ex)) {
+                idempotencyKeyRepository.delete(idempotencyKey, operation, attemptId);
+            } else {
+                log.warn("Resultado incierto para el Idempotency-Key {}; la clave queda en curso",
+                        idempotencyKey, ex);
+            }
+            throw ex;
+        }
+
+        if (recorded.get() != null) {
+            completed.put(cacheKey, recorded.get());
+        } else {
+            log.error("La operacion {} no registro su respuesta para el Idempotency-Key {}", operation, idempotencyKey);
+        }
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyKeyRepository.deleteExpired();
+        if (purged > 0) {
+            log.debug("Claves de idempotencia expiradas eliminadas: {}", purged);
+        }
+    }
+
+    /**
+     * Guarda la respuesta en la transacción en curso. Si la clave ya fue tomada
+     * por otra ejecución se lanza 409 y la transacción de la operación se revierte.
+     */
+    private StoredResponse record(
+            String idempotencyKey,
+            String operation,
+            UUID attemptId,
+            String requestHash,
+            ResponseEntity<?> response
+    ) {
+        String body = response.getBody() == null ? null : objectMapper.writeValueAsString(response.getBody());
+        int statusCode = response.getStatusCode().value();
+        if (!idempotencyKeyRepository.complete(idempotencyKey, operation, attemptId, statusCode, body)) {
+            throw new ConflictException("El Idempotency-Key fue tomado por otra solicitud; la operacion no se aplico");
+        }
+        return new StoredResponse(requestHash, statusCode, body);
+    }
+
+    /**
+     * Errores lanzados antes del commit de la operación: su transacción se revirtió.
+     */
+    private static boolean isNotApplied(RuntimeException ex) {
+        return ex instanceof IllegalArgumentException
+                || ex instanceof ResourceNotFoundException
+                || ex instanceof ConflictException
+                || (ex instanceof ServiceUnavailableException && !(ex instanceof OutcomeUnknownException));
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException(
+                    "El Idempotency-Key ya fue usado con una solicitud distinta"
+            );
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.statusCode())
+                .header("Idempotent-Replayed", "true");
+        if (stored.responseBody() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.responseBody());
+    }
+
+    private void validateKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "El Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres"
+            );
+        }
+    }
+
+    private String hash(String operation, Object request) {
+        String payload = operation + "\n" + (request == null ? "" : objectMapper.writeValueAsString(request));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 no disponible", ex);
+        }
+    }
+
+    /**
+     * Guarda la respuesta de una ejecución con Idempotency-Key en la transacción en curso.
+     */
+    @FunctionalInterface
+    public interface ResponseRecorder {
+
+        void record(ResponseEntity<?> response);
+    }
+
+    private record CacheKey(String idempotencyKey, String operation) {
+    }
+}
@@ -0,0 +1,264 @@
+package com.app.demo.service;
+
+import com.app.demo.dto.ReservationBatchItemResponse;
+import com.app.demo.dto.ReservationRequest;
+import com.app.demo.dto.ReservationResponse;
+import com.app.demo.exception.ConflictException;
+import com.app.demo.exception.ResourceNotFoundException;
+import com.app.demo.model.*;
+import com.app.demo.repository.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.app.demo.service.ReservationRules.*;
+
+/**
+ * Creación de reservas por lotes. Las solicitudes se agrupan por delivery_slot y
+ * cada grupo se procesa en una transacción propia: una sola toma de capacidad por
+ * zona de cobertura (en orden ascendente de id) y un único INSERT con JDBC
+ * batching. Cada ítem obtiene su propio resultado.
+ */
+@Service
+public class ReservationBatchService {
+
+    private final ReservationJdbcRepository reservationJdbcRepository;
+    private final CustomerRepository customerRepository;
+    private final DeliveryAddressRepository deliveryAddressRepository;
+    private final DeliverySlotRepository deliverySlotRepository;
+    private final TimeSlotTemplateRepository timeSlotTemplateRepository;
+    private final ZoneCoverageRepository zoneCoverageRepository;
+    private final SlotCapacityService slotCapacityService;
+    private final HoldExpiryService holdExpiryService;
+    private final TransactionTemplate transactionTemplate;
+    private final CapacityClaimRetry capacityClaimRetry;
+
+    public ReservationBatchService(
+            ReservationJdbcRepository reservationJdbcRepository,
+            CustomerRepository customerRepository,
+            DeliveryAddressRepository deliveryAddressRepository,
+            DeliverySlotRepository deliverySlotRepository,
+            TimeSlotTemplateRepository timeSlotTemplateRepository,
+            ZoneCoverageRepository zoneCoverageRepository,
+            SlotCapacityService slotCapacityService,
+            HoldExpiryService holdExpiryService,
+            TransactionTemplate transactionTemplate,
+            CapacityClaimRetry capacityClaimRetry
+    ) {
+        this.reservationJdbcRepository = reservationJdbcRepository;
+        this.customerRepository = customerRepository;
+        this.deliveryAddressRepository = deliveryAddressRepository;
+        this.deliverySlotRepository = deliverySlotRepository;
+        this.timeSlotTemplateRepository = timeSlotTemplateRepository;
+        this.zoneCoverageRepository = zoneCoverageRepository;
+        this.slotCapacityService = slotCapacityService;
+        this.holdExpiryService = holdExpiryService;
+        this.transactionTemplate = transactionTemplate;
+        this.capacityClaimRetry = capacityClaimRetry;
+    }
+
+    public List<ReservationBatchItemResponse> createAll(List<ReservationRequest> requests) {
+        Map<Long, List<Integer>> indexesBySlot = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            indexesBySlot.computeIfAbsent(requests.get(i).getDeliverySlotId(), key -> new ArrayList<>()).add(i);
+        }
+
+        ReservationBatchItemResponse[] results = new ReservationBatchItemResponse[requests.size()];
+        indexesBySlot.forEach((deliverySlotId, indexes) -> {
+            List<ReservationRequest> group = indexes.stream().map(requests::get).toList();
+            List<ItemResult> groupResults = createGroup(deliverySlotId, group);
+            for (int j = 0; j < indexes.size(); j++) {
+                results[indexes.get(j)] = toResponse(indexes.get(j), groupResults.get(j));
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Crea en una sola transacción un grupo de reservas del mismo delivery_slot.
+     * Si la transacción falla, todos los ítems del grupo se informan como rechazados.
+     */
+    public List<ItemResult> createGroup(Long deliverySlotId, List<ReservationRequest> requests) {
+        return createGroup(deliverySlotId, requests, Collections.<Consumer<Reservation>>nCopies(
+                requests.size(), reservation -> {
+                }
+        ));
+    }
+
+    /**
+     * Igual que {@link #createGroup(Long, List)}, pero {@code onCreated.get(i)} se
+     * invoca con la reserva creada del ítem i dentro de la transacción del grupo,
+     * antes del commit. Si alguno falla, el grupo completo se revierte. Un conflicto
+     * de la toma optimista de cupo repite la transacción completa del grupo.
+     */
+    public List<ItemResult> createGroup(
+            Long deliverySlotId,
+            List<ReservationRequest> requests,
+            List<Consumer<Reservation>> onCreated
+    ) {
+        try {
+            return capacityClaimRetry.execute(() ->
+                    transactionTemplate.execute(status -> insertGroup(deliverySlotId, requests, onCreated))
+            );
+        } catch (RuntimeException ex) {
+            return requests.stream().map(request -> ItemResult.failed(ex)).toList();
+        }
+    }
+
+    private List<ItemResult> insertGroup(
+            Long deliverySlotId,
+            List<ReservationRequest> requests,
+            List<Consumer<Reservation>> onCreated
+    ) {
+        DeliverySlot deliverySlot = deliverySlotRepository.findById(deliverySlotId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Ventana de Entrega no encontrada con id: " + deliverySlotId
+                ));
+        TimeSlotTemplate timeSlotTemplate = timeSlotTemplateRepository.findById(deliverySlot.getTimeSlotTemplateId())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "TimeSlotTemplate no encontrado con id: " + deliverySlot.getTimeSlotTemplateId()
+                ));
+
+        Set<Long> customerIds = customerRepository.findAllById(
+                        requests.stream().map(ReservationRequest::getCustomerId).collect(Collectors.toSet()))
+                .stream()
+                .map(Customer::getId)
+                .collect(Collectors.toSet());
+        Map<Long, DeliveryAddress> addresses = deliveryAddressRepository.findAllById(
+                        requests.stream().map(ReservationRequest::getDeliveryAddressId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(DeliveryAddress::getId, Function.identity()));
+        Map<Long, ZoneCoverage> zones = zoneCoverageRepository.findAllById(
+                        addresses.values().stream()
+                                .map(DeliveryAddress::getZoneCoverageId)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ZoneCoverage::getId, Function.identity()));
+
+        ItemResult[] results = new ItemResult[requests.size()];
+        Reservation[] candidates = new Reservation[requests.size()];
+        Map<Long, List<Integer>> countedByZone = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                candidates[i] = buildReservation(
+                        requests.get(i), deliverySlot, timeSlotTemplate, customerIds, addresses, zones
+                );
+                if (countsTowardCapacity(candidates[i].getStatus())) {
+                    countedByZone.computeIfAbsent(candidates[i].getZoneCoverageId(), key -> new ArrayList<>()).add(i);
+                }
+            } catch (ResourceNotFoundException | IllegalArgumentException ex) {
+                results[i] = ItemResult.failed(ex);
+            }
+        }
+
+        countedByZone.forEach((zoneCoverageId, counted) -> {
+            int granted = slotCapacityService.claimUpTo(deliverySlotId, zoneCoverageId, counted.size());
+            for (int k = granted; k < counted.size(); k++) {
+                int index = counted.get(k);
+                candidates[index] = null;
+                results[index] = ItemResult.failed(new ConflictException(
+                        "No hay capacidad disponible en la zona de cobertura de la direccion seleccionada"
+                ));
+            }
+        });
+
+        List<Reservation> toInsert = Arrays.stream(candidates).filter(Objects::nonNull).toList();
+        reservationJdbcRepository.insertAll(toInsert);
+        for (int i = 0; i < candidates.length; i++) {
+            if (candidates[i] != null) {
+                if (candidates[i].getExpiresAt() != null) {
+                    holdExpiryService.track(candidates[i].getId(), candidates[i].getExpiresAt());
+                }
+                onCreated.get(i).accept(candidates[i]);
+                results[i] = ItemResult.created(candidates[i]);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private Reservation buildReservation(
+            ReservationRequest request,
+            DeliverySlot deliverySlot,
+            TimeSlotTemplate timeSlotTemplate,
+            Set<Long> customerIds,
+            Map<Long, DeliveryAddress> addresses,
+            Map<Long, ZoneCoverage> zones
+    ) {
+        if (!customerIds.contains(request.getCustomerId())) {
+            throw new ResourceNotFoundException("Customer no encontrado con id: " + request.getCustomerId());
+        }
+
+        DeliveryAddress deliveryAddress = addresses.get(request.getDeliveryAddressId());
+        if (deliveryAddress == null) {
+            throw new ResourceNotFoundException(
+                    "Direccion de entrega no encontrada con id: " + request.getDeliveryAddressId()
+            );
+        }
+        validateAddressBelongsToCustomer(deliveryAddress, request.getCustomerId());
+
+        validateAddressHasZone(deliveryAddress);
+        ZoneCoverage zoneCoverage = zones.get(deliveryAddress.getZoneCoverageId());
+        if (zoneCoverage == null) {
+            throw new ResourceNotFoundException(
+                    "Zona de cobertura no encontrada con id: " + deliveryAddress.getZoneCoverageId()
+            );
+        }
+        validateZoneServesSlot(zoneCoverage, deliverySlot.getId());
+
+        OffsetDateTime reservedAt = buildReservedAt(request);
+        validateReservationDateTime(reservedAt, deliverySlot, timeSlotTemplate);
+
+        Reservation entity = new Reservation();
+        ReservationStatus status = resolveStatus(request);
+        applyChanges(entity, request, reservedAt, status);
+        entity.setZoneCoverageId(zoneCoverage.getId());
+        if (status == ReservationStatus.HELD) {
+            entity.setExpiresAt(holdExpiryService.newHoldExpiry());
+        }
+        return entity;
+    }
+
+    private ReservationBatchItemResponse toResponse(int index, ItemResult result) {
+        if (result.reservation() != null) {
+            return ReservationBatchItemResponse.created(index, ReservationResponse.fromEntity(result.reservation()));
+        }
+
+        RuntimeException error = result.error();
+        if (error instanceof ResourceNotFoundException) {
+            return ReservationBatchItemResponse.rejected(index, 404, error.getMessage());
+        }
+        if (error instanceof ConflictException) {
+            return ReservationBatchItemResponse.rejected(index, 409, error.getMessage());
+        }
+        if (error instanceof IllegalArgumentException) {
+            return ReservationBatchItemResponse.rejected(index, 400, error.getMessage());
+        }
+        if (error instanceof DataIntegrityViolationException) {
+            return ReservationBatchItemResponse.rejected(
+                    index, 409, "No se pudo completar la operacion por una restriccion de datos"
+            );
+        }
+        return ReservationBatchItemResponse.rejected(index, 500, "No se pudo procesar la reserva");
+    }
+
+    /**
+     * Resultado de un ítem del grupo: la reserva creada o el error que la rechazó.
+     */
+    public record ItemResult(Reservation reservation, RuntimeException error) {
+
+        static ItemResult created(Reservation reservation) {
+            return new ItemResult(reservation, null);
+        }
+
+        static ItemResult failed(RuntimeException error) {
+            return new ItemResult(null, error);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.app.demo.service;
+
+import com.app.demo.dto.ReservationExportRow;
+import com.app.demo.dto.ReservationFilter;
+import com.app.demo.repository.ReservationJdbcRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Exportación de reservas para despacho. Las filas se leen con un cursor de
+ * fetch size fijo y se escriben de inmediato en la respuesta, por lo que la
+ * memoria usada no depende de la cantidad de reservas exportadas.
+ */
+@Service
+public class ReservationExportService {
+
+    private static final String CSV_HEADER = "id,status,reserved_at,cancelled_at,customer_id,delivery_slot_id,"
+            + "delivery_date,start_time,end_time,zone_coverage_id,delivery_address_id,"
+            + "street,locality,commune,region,latitude,longitude";
+
+    private final ReservationJdbcRepository reservationJdbcRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ReservationExportService(
+            ReservationJdbcRepository reservationJdbcRepository,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper
+    ) {
+        this.reservationJdbcRepository = reservationJdbcRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Formato de exportacion no soportado: " + format);
+        }
+    }
+
+    public void export(ReservationFilter filter, Format format, OutputStream outputStream) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            if (format == Format.CSV) {
+                writeLine(writer, CSV_HEADER);
+            }
+            reservationJdbcRepository.forEachForExport(filter, row -> writeLine(
+                    writer,
+                    format == Format.CSV ? toCsv(row) : objectMapper.writeValueAsString(row)
+            ));
+        });
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private String toCsv(ReservationExportRow row) {
+        return String.join(",",
+                csv(row.id()),
+                csv(row.status()),
+                csv(row.reservedAt()),
+                csv(row.cancelledAt()),
+                csv(row.customerId()),
+                csv(row.deliverySlotId()),
+                csv(row.deliveryDate()),
+                csv(row.startTime()),
+                csv(row.endTime()),
+                csv(row.zoneCoverageId()),
+                csv(row.deliveryAddressId()),
+                csv(row.street()),
+                csv(row.locality()),
+                csv(row.commune()),
+                csv(row.region()),
+                csv(row.latitude()),
+                csv(row.longitude())
+        );
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv;charset=UTF-8");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+}
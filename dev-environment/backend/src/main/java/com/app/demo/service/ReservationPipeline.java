@@ -0,0 +1,316 @@
+package com.app.demo.service;
+
+import com.app.demo.config.DataSourceWorkload;
+import com.app.demo.config.WorkloadRoutingDataSource;
+import com.app.demo.dto.ReservationRequest;
+import com.app.demo.exception.OutcomeUnknownException;
+import com.app.demo.exception.ServiceUnavailableException;
+import com.app.demo.model.Reservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Pipeline de group commit para delivery_slots con alta demanda.
+ * <p>
+ * Las solicitudes de creación se encolan por delivery_slot durante unos pocos
+ * milisegundos y se procesan juntas con {@link ReservationBatchService#createGroup}:
+ * una transacción, una toma de capacidad por zona y un INSERT multi-fila. Cada
+ * llamador recibe su propia reserva o su propio error. Mientras un lote de un
+ * slot está en curso, las nuevas solicitudes se acumulan para el siguiente, de
+ * modo que el tamaño del lote crece con la latencia del commit.
+ */
+@Service
+public class ReservationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationPipeline.class);
+
+    private final ReservationBatchService reservationBatchService;
+    private final boolean enabled;
+    private final Set<Long> hotSlotIds;
+    private final long batchWindowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService executor;
+    private final long submitTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+    private final Map<Long, SlotQueue> queues = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public ReservationPipeline(
+            ReservationBatchService reservationBatchService,
+            @Value("${app.reservation-pipeline.enabled:false}") boolean enabled,
+            @Value("${app.reservation-pipeline.slot-ids:}") String hotSlotIds,
+            @Value("${app.reservation-pipeline.batch-window-ms:5}") long batchWindowMillis,
+            @Value("${app.reservation-pipeline.max-batch-size:200}") int maxBatchSize,
+            @Value("${app.reservation-pipeline.workers:4}") int workers,
+            @Value("${app.reservation-pipeline.submit-timeout-ms:10000}") long submitTimeoutMillis,
+            @Value("${app.reservation-pipeline.shutdown-timeout-ms:5000}") long shutdownTimeoutMillis
+    ) {
+        this.reservationBatchService = reservationBatchService;
+        this.enabled = enabled;
+        this.hotSlotIds = Arrays.stream(hotSlotIds.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toUnmodifiableSet());
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.submitTimeoutMillis = submitTimeoutMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.executor = enabled ? Executors.newScheduledThreadPool(workers) : null;
+    }
+
+    public boolean manages(Long deliverySlotId) {
+        return enabled && (hotSlotIds.isEmpty() || hotSlotIds.contains(deliverySlotId));
+    }
+
+    public Reservation submit(ReservationRequest request) {
+        return submit(request, reservation -> {
+        });
+    }
+
+    /**
+     * Encola la solicitud y espera a que su lote haga commit. {@code onCreated}
+     * corre dentro de la transacción del lote con la reserva creada. Los errores
+     * del ítem se relanzan tal cual para que los traduzca {@code ApiExceptionHandler}.
+     * Si la solicitud sigue encolada tras {@code submit-timeout-ms} se retira y
+     * se responde 503; si ya está en un lote en curso, ese lote aún puede hacer
+     * commit y se espera su resultado. Cuando ese resultado no puede conocerse
+     * (interrupción, apagado) se lanza {@link OutcomeUnknownException}.
+     */
+    public Reservation submit(ReservationRequest request, Consumer<Reservation> onCreated) {
+        if (closed) {
+            throw unavailable();
+        }
+        Pending pending = new Pending(request, onCreated, new CompletableFuture<>());
+        SlotQueue queue = queues.computeIfAbsent(request.getDeliverySlotId(), SlotQueue::new);
+        queue.enqueue(pending);
+        try {
+            return pending.result().get(submitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            throw failure(ex);
+        } catch (TimeoutException ex) {
+            if (queue.withdraw(pending)) {
+                log.warn("Reserva en delivery_slot {} sin lote tras {} ms",
+                        request.getDeliverySlotId(), submitTimeoutMillis);
+                throw new ServiceUnavailableException(
+                        "La reserva esta tardando mas de lo esperado, intente nuevamente"
+                );
+            }
+            log.warn("Reserva en delivery_slot {} sigue en un lote en curso tras {} ms; se espera su commit",
+                    request.getDeliverySlotId(), submitTimeoutMillis);
+            return awaitBatch(pending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            if (queue.withdraw(pending)) {
+                throw unavailable();
+            }
+            throw outcomeUnknown();
+        }
+    }
+
+    /**
+     * Espera sin plazo a un lote ya iniciado: el lote siempre termina (commit,
+     * rollback o interrupción del worker) y completa el resultado.
+     */
+    private Reservation awaitBatch(Pending pending) {
+        try {
+            return pending.result().get();
+        } catch (ExecutionException ex) {
+            throw failure(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw outcomeUnknown();
+        }
+    }
+
+    private static RuntimeException failure(ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new IllegalStateException(ex.getCause());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        closed = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        // Lo que quedó encolado o en lotes interrumpidos ya no se procesará
+        queues.values().forEach(SlotQueue::failPending);
+    }
+
+    private static ServiceUnavailableException unavailable() {
+        return new ServiceUnavailableException("El servicio de reservas se esta deteniendo, intente nuevamente");
+    }
+
+    private static OutcomeUnknownException outcomeUnknown() {
+        return new OutcomeUnknownException(
+                "No se pudo confirmar el resultado de la reserva; reintente con el mismo Idempotency-Key"
+        );
+    }
+
+    /**
+     * Solicitud encolada; se compara por identidad para poder retirarla de la cola.
+     */
+    private static final class Pending {
+
+        private final ReservationRequest request;
+        private final Consumer<Reservation> onCreated;
+        private final CompletableFuture<Reservation> result;
+
+        private Pending(
+                ReservationRequest request,
+                Consumer<Reservation> onCreated,
+                CompletableFuture<Reservation> result
+        ) {
+            this.request = request;
+            this.onCreated = onCreated;
+            this.result = result;
+        }
+
+        private ReservationRequest request() {
+            return request;
+        }
+
+        private Consumer<Reservation> onCreated() {
+            return onCreated;
+        }
+
+        private CompletableFuture<Reservation> result() {
+            return result;
+        }
+    }
+
+    /**
+     * Cola de un slot. A lo sumo un lote por slot está en curso o programado.
+     */
+    private final class SlotQueue {
+
+        private final Long deliverySlotId;
+        private final List<Pending> pending = new ArrayList<>();
+        private final List<Pending> inFlight = new ArrayList<>();
+        private boolean scheduled;
+
+        private SlotQueue(Long deliverySlotId) {
+            this.deliverySlotId = deliverySlotId;
+        }
+
+        private synchronized void enqueue(Pending item) {
+            pending.add(item);
+            if (!scheduled) {
+                submitDrain(() -> executor.schedule(this::drain, batchWindowMillis, TimeUnit.MILLISECONDS));
+            }
+        }
+
+        /**
+         * Retira una solicitud que aún no entró a un lote (timeout o interrupción
+         * del llamador). Devuelve false si ya está en un lote en curso.
+         */
+        private synchronized boolean withdraw(Pending item) {
+            return pending.remove(item);
+        }
+
+        private synchronized List<Pending> takeBatch() {
+            int size = Math.min(pending.size(), maxBatchSize);
+            List<Pending> batch = new ArrayList<>(pending.subList(0, size));
+            pending.subList(0, size).clear();
+            inFlight.addAll(batch);
+            return batch;
+        }
+
+        private synchronized void finishBatch(List<Pending> batch) {
+            inFlight.removeAll(batch);
+            scheduled = false;
+            if (!pending.isEmpty()) {
+                // Lo acumulado durante el lote anterior sale de inmediato
+                submitDrain(() -> executor.execute(this::drain));
+            }
+        }
+
+        /**
+         * {@code scheduled} se marca solo si el executor aceptó el drain; si lo
+         * rechaza (apagado) las solicitudes encoladas fallan en vez de esperar un
+         * drain que nunca correrá.
+         */
+        private void submitDrain(Runnable submission) {
+            try {
+                submission.run();
+                scheduled = true;
+            } catch (RejectedExecutionException ex) {
+                failPending();
+            }
+        }
+
+        /**
+         * Lo encolado nunca llegó a la base de datos; lo que estaba en un lote
+         * pudo haber hecho commit antes de la interrupción.
+         */
+        private synchronized void failPending() {
+            pending.forEach(item -> item.result().completeExceptionally(unavailable()));
+            inFlight.forEach(item -> item.result().completeExceptionally(outcomeUnknown()));
+            pending.clear();
+            inFlight.clear();
+        }
+
+        private void drain() {
+            List<Pending> batch = takeBatch();
+            // Los workers no pasan por el filtro de requests: se asigna el pool explícitamente
+            WorkloadRoutingDataSource.use(DataSourceWorkload.RESERVATION_WRITES);
+            try {
+                List<ReservationRequest> requests = batch.stream().map(Pending::request).toList();
+                List<Consumer<Reservation>> onCreated = batch.stream().map(Pending::onCreated).toList();
+                List<ReservationBatchService.ItemResult> results =
+                        reservationBatchService.createGroup(deliverySlotId, requests, onCreated);
+                for (int i = 0; i < batch.size(); i++) {
+                    ReservationBatchService.ItemResult itemResult = results.get(i);
+                    if (itemResult.reservation() != null) {
+                        batch.get(i).result().complete(itemResult.reservation());
+                    } else {
+                        batch.get(i).result().completeExceptionally(itemResult.error());
+                    }
+                }
+            } catch (RuntimeException ex) {
+                log.error("Lote de reservas fallido para delivery_slot {}", deliverySlotId, ex);
+                batch.forEach(item -> item.result().completeExceptionally(ex));
+            } finally {
+                // Ningún llamador queda esperando aunque el lote muera con un Error
+                for (Pending item : batch) {
+                    if (!item.result().isDone()) {
+                        item.result().completeExceptionally(new IllegalStateException("Lote de reservas interrumpido"));
+                    }
+                }
+                WorkloadRoutingDataSource.clear();
+                finishBatch(batch);
+            }
+        }
+    }
+}
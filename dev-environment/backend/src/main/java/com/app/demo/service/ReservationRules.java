@@ -0,0 +1,122 @@
+package com.app.demo.service;
+
+import com.app.demo.dto.ReservationRequest;
+import com.app.demo.model.DeliveryAddress;
+import com.app.demo.model.DeliverySlot;
+import com.app.demo.model.Reservation;
+import com.app.demo.model.ReservationStatus;
+import com.app.demo.model.TimeSlotTemplate;
+import com.app.demo.model.ZoneCoverage;
+
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Reglas de negocio de una reserva que no dependen de acceso a datos,
+ * compartidas por el flujo individual y el flujo por lotes.
+ */
+final class ReservationRules {
+
+    /**
+     * Estados que ocupan cupo en el delivery_slot.
+     */
+    static final Set<ReservationStatus> COUNTED_STATUSES =
+            Collections.unmodifiableSet(EnumSet.of(ReservationStatus.CONFIRMED, ReservationStatus.HELD));
+
+    private ReservationRules() {
+    }
+
+    static ReservationStatus resolveStatus(ReservationRequest request) {
+        return request.getStatus() == null
+                ? ReservationStatus.CONFIRMED
+                : request.getStatus();
+    }
+
+    static boolean countsTowardCapacity(ReservationStatus status) {
+        return COUNTED_STATUSES.contains(status);
+    }
+
+    static void validateAddressBelongsToCustomer(DeliveryAddress address, Long customerId) {
+        if (!customerId.equals(address.getCustomerId())) {
+            throw new IllegalArgumentException(
+                    "La direccion seleccionada no pertenece al cliente de la reserva"
+            );
+        }
+    }
+
+    static void validateAddressHasZone(DeliveryAddress address) {
+        if (address.getZoneCoverageId() == null) {
+            throw new IllegalArgumentException(
+                    "La direccion seleccionada no tiene zona de cobertura asociada"
+            );
+        }
+    }
+
+    static void validateZoneServesSlot(ZoneCoverage zoneCoverage, Long deliverySlotId) {
+        if (zoneCoverage.getDeliverySlotId() == null || !zoneCoverage.getDeliverySlotId().equals(deliverySlotId)) {
+            throw new IllegalArgumentException(
+                    "La direccion seleccionada no pertenece a una zona del delivery_slot seleccionado"
+            );
+        }
+    }
+
+    static OffsetDateTime buildReservedAt(ReservationRequest request) {
+        return OffsetDateTime.of(
+                request.getReservationDate(),
+                request.getReservationTime(),
+                ZoneOffset.UTC
+        );
+    }
+
+    static void validateReservationDateTime(
+            OffsetDateTime reservedAt,
+            DeliverySlot deliverySlot,
+            TimeSlotTemplate timeSlotTemplate
+    ) {
+        if (!deliverySlot.getDeliveryDate().equals(reservedAt.toLocalDate())) {
+            throw new IllegalArgumentException(
+                    "La fecha de reserva debe coincidir con la fecha de la Ventana de Entrega seleccionada"
+            );
+        }
+
+        LocalTime reservationTime = reservedAt.toLocalTime();
+        LocalTime start = timeSlotTemplate.getStartTime();
+        LocalTime end = timeSlotTemplate.getEndTime();
+        boolean isWithinRange = !reservationTime.isBefore(start) && !reservationTime.isAfter(end);
+
+        if (!isWithinRange) {
+            throw new IllegalArgumentException(
+                    "La hora de reserva debe estar dentro del rango horario del TimeSlotTemplate del delivery_slot"
+            );
+        }
+    }
+
+    static void applyChanges(
+            Reservation entity,
+            ReservationRequest request,
+            OffsetDateTime reservedAt,
+            ReservationStatus status
+    ) {
+        entity.setCustomerId(request.getCustomerId());
+        entity.setDeliveryAddressId(request.getDeliveryAddressId());
+        entity.setDeliverySlotId(request.getDeliverySlotId());
+        entity.setReservedAt(reservedAt);
+        entity.setStatus(status);
+
+        if (status != ReservationStatus.HELD) {
+            entity.setExpiresAt(null);
+        }
+
+        if (status == ReservationStatus.CANCELLED) {
+            if (entity.getCancelledAt() == null) {
+                entity.setCancelledAt(OffsetDateTime.now());
+            }
+        } else {
+            entity.setCancelledAt(null);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.app.demo.service;
 
+import com.app.demo.dto.ReservationFilter;
 import com.app.demo.dto.ReservationRequest;
 import com.app.demo.exception.ConflictException;
 import com.app.demo.exception.ResourceNotFoundException;
@@ -9,20 +10,26 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalTime;
 import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.List;
 
+import static com.app.demo.repository.ReservationSpecifications.page;
+import static com.app.demo.service.ReservationRules.*;
+
 @Service
 public class ReservationService {
 
+    private static final Sort PAGE_SORT = Sort.by(Sort.Order.desc("reservedAt"), Sort.Order.desc("id"));
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final ReservationRepository reservationRepository;
     private final CustomerRepository customerRepository;
     private final DeliveryAddressRepository deliveryAddressRepository;
     private final DeliverySlotRepository deliverySlotRepository;
     private final TimeSlotTemplateRepository timeSlotTemplateRepository;
     private final ZoneCoverageRepository zoneCoverageRepository;
+    private final SlotCapacityService slotCapacityService;
+    private final HoldExpiryService holdExpiryService;
 
     public ReservationService(
             ReservationRepository reservationRepository,
@@ -30,7 +37,9 @@ public class ReservationService {
             DeliveryAddressRepository deliveryAddressRepository,
             DeliverySlotRepository deliverySlotRepository,
             TimeSlotTemplateRepository timeSlotTemplateRepository,
-            ZoneCoverageRepository zoneCoverageRepository
+            ZoneCoverageRepository zoneCoverageRepository,
+            SlotCapacityService slotCapacityService,
+            HoldExpiryService holdExpiryService
     ) {
         this.reservationRepository = reservationRepository;
         this.customerRepository = customerRepository;
@@ -38,17 +47,34 @@ public class ReservationService {
         this.deliverySlotRepository = deliverySlotRepository;
         this.timeSlotTemplateRepository = timeSlotTemplateRepository;
         this.zoneCoverageRepository = zoneCoverageRepository;
+        this.slotCapacityService = slotCapacityService;
+        this.holdExpiryService = holdExpiryService;
     }
 
-    public List<Reservation> findAll() {
-        return reservationRepository.findAll(
-                Sort.by(Sort.Order.desc("reservedAt"), Sort.Order.desc("id"))
+    /**
+     * Página de reservas ordenada por (reservedAt, id) descendente, a partir del
+     * cursor recibido. Se lee una fila extra solo para saber si hay página siguiente.
+     */
+    public ReservationPage findPage(Long customerId, ReservationFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El limit debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        if (customerId != null) {
+            validateCustomerExists(customerId);
+        }
+
+        ReservationCursor after = cursor == null || cursor.isBlank() ? null : ReservationCursor.decode(cursor);
+        List<Reservation> rows = reservationRepository.findBy(
+                page(customerId, filter, after == null ? null : after.reservedAt(), after == null ? null : after.id()),
+                query -> query.sortBy(PAGE_SORT).limit(limit + 1).all()
         );
-    }
+        if (rows.size() <= limit) {
+            return new ReservationPage(rows, null);
+        }
 
-    public List<Reservation> findByCustomerId(Long customerId) {
-        validateCustomerExists(customerId);
-        return reservationRepository.findByCustomerIdOrderByReservedAtDescIdDesc(customerId);
+        List<Reservation> items = rows.subList(0, limit);
+        Reservation last = items.get(limit - 1);
+        return new ReservationPage(items, new ReservationCursor(last.getReservedAt(), last.getId()).encode());
     }
 
     public Reservation findById(Long id) {
@@ -58,97 +84,111 @@ public class ReservationService {
 
     @Transactional
     public Reservation create(ReservationRequest request) {
+        if (request.getStatus() == null || countsTowardCapacity(request.getStatus())) {
+            slotCapacityService.rejectIfFull(request.getDeliverySlotId());
+        }
         validateCustomerExists(request.getCustomerId());
 
         DeliveryAddress deliveryAddress = getDeliveryAddressOrThrow(request.getDeliveryAddressId());
         validateAddressBelongsToCustomer(deliveryAddress, request.getCustomerId());
 
-        DeliverySlot deliverySlot = lockDeliverySlotOrThrow(request.getDeliverySlotId());
+        DeliverySlot deliverySlot = getDeliverySlotOrThrow(request.getDeliverySlotId());
         TimeSlotTemplate timeSlotTemplate = getTimeSlotTemplateOrThrow(deliverySlot.getTimeSlotTemplateId());
 
-        validateAddressWithinDeliverySlot(deliveryAddress, deliverySlot.getId());
+        ZoneCoverage zoneCoverage = getZoneServingSlotOrThrow(deliveryAddress, deliverySlot.getId());
 
         OffsetDateTime reservedAt = buildReservedAt(request);
         validateReservationDateTime(reservedAt, deliverySlot, timeSlotTemplate);
 
-        ReservationStatus status = request.getStatus() == null
-                ? ReservationStatus.CONFIRMED
-                : request.getStatus();
-        validateCapacity(deliverySlot, status, null);
-
+        ReservationStatus status = resolveStatus(request);
         Reservation entity = new Reservation();
         applyChanges(entity, request, reservedAt, status);
-        Reservation saved = reservationRepository.save(entity);
-
-        syncReservedCount(deliverySlot.getId());
-        return saved;
+        entity.setZoneCoverageId(zoneCoverage.getId());
+        if (status == ReservationStatus.HELD) {
+            entity.setExpiresAt(holdExpiryService.newHoldExpiry());
+        }
+        // El cupo se toma al final: el bloqueo de la zona dura solo hasta el commit
+        Reservation saved = reservationRepository.saveAndFlush(entity);
+        if (countsTowardCapacity(status)) {
+            slotCapacityService.claim(deliverySlot.getId(), zoneCoverage.getId());
+        }
+        return trackHold(saved);
     }
 
     @Transactional
     public Reservation update(Long id, ReservationRequest request) {
         Reservation entity = findById(id);
         Long previousSlotId = entity.getDeliverySlotId();
+        Long previousZoneId = entity.getZoneCoverageId();
+        boolean previouslyCounted = countsTowardCapacity(entity.getStatus());
+        boolean previouslyHeld = entity.getStatus() == ReservationStatus.HELD;
 
         validateCustomerExists(request.getCustomerId());
 
         DeliveryAddress deliveryAddress = getDeliveryAddressOrThrow(request.getDeliveryAddressId());
         validateAddressBelongsToCustomer(deliveryAddress, request.getCustomerId());
 
-        DeliverySlot deliverySlot = lockDeliverySlotOrThrow(request.getDeliverySlotId());
-        DeliverySlot previousDeliverySlot = null;
-        if (!previousSlotId.equals(deliverySlot.getId())) {
-            previousDeliverySlot = lockDeliverySlotOrThrow(previousSlotId);
-        }
-
+        DeliverySlot deliverySlot = getDeliverySlotOrThrow(request.getDeliverySlotId());
         TimeSlotTemplate timeSlotTemplate = getTimeSlotTemplateOrThrow(deliverySlot.getTimeSlotTemplateId());
-        validateAddressWithinDeliverySlot(deliveryAddress, deliverySlot.getId());
+        ZoneCoverage zoneCoverage = getZoneServingSlotOrThrow(deliveryAddress, deliverySlot.getId());
 
         OffsetDateTime reservedAt = buildReservedAt(request);
         validateReservationDateTime(reservedAt, deliverySlot, timeSlotTemplate);
 
-        ReservationStatus status = request.getStatus() == null
-                ? ReservationStatus.CONFIRMED
-                : request.getStatus();
-        validateCapacity(deliverySlot, status, id);
-
+        ReservationStatus status = resolveStatus(request);
         applyChanges(entity, request, reservedAt, status);
-        Reservation saved = reservationRepository.save(entity);
+        entity.setZoneCoverageId(zoneCoverage.getId());
+        boolean newHold = status == ReservationStatus.HELD && !previouslyHeld;
+        if (newHold) {
+            entity.setExpiresAt(holdExpiryService.newHoldExpiry());
+        }
+        Reservation saved = reservationRepository.saveAndFlush(entity);
+        slotCapacityService.transfer(
+                previousSlotId,
+                previousZoneId,
+                previouslyCounted,
+                deliverySlot.getId(),
+                zoneCoverage.getId(),
+                countsTowardCapacity(status)
+        );
+        return newHold ? trackHold(saved) : saved;
+    }
 
-        syncReservedCount(deliverySlot.getId());
-        if (previousDeliverySlot != null) {
-            syncReservedCount(previousDeliverySlot.getId());
+    /**
+     * Confirma una reserva retenida antes de su vencimiento. El cupo ya fue
+     * tomado al crear la retención, por lo que no se vuelve a descontar.
+     */
+    @Transactional
+    public Reservation confirm(Long id) {
+        Reservation entity = findById(id);
+        if (entity.getStatus() == ReservationStatus.CONFIRMED) {
+            return entity;
+        }
+        if (entity.getStatus() != ReservationStatus.HELD
+                || entity.getExpiresAt() == null
+                || !entity.getExpiresAt().isAfter(OffsetDateTime.now())) {
+            throw new ConflictException("La reserva no esta retenida o su retencion ya expiro");
         }
 
-        return saved;
+        entity.setStatus(ReservationStatus.CONFIRMED);
+        entity.setExpiresAt(null);
+        return reservationRepository.save(entity);
     }
 
     @Transactional
     public void delete(Long id) {
         Reservation entity = findById(id);
-        DeliverySlot deliverySlot = lockDeliverySlotOrThrow(entity.getDeliverySlotId());
+        if (countsTowardCapacity(entity.getStatus())) {
+            slotCapacityService.release(entity.getDeliverySlotId(), entity.getZoneCoverageId());
+        }
         reservationRepository.delete(entity);
-        syncReservedCount(deliverySlot.getId());
     }
 
-    private void applyChanges(
-            Reservation entity,
-            ReservationRequest request,
-            OffsetDateTime reservedAt,
-            ReservationStatus status
-    ) {
-        entity.setCustomerId(request.getCustomerId());
-        entity.setDeliveryAddressId(request.getDeliveryAddressId());
-        entity.setDeliverySlotId(request.getDeliverySlotId());
-        entity.setReservedAt(reservedAt);
-        entity.setStatus(status);
-
-        if (status == ReservationStatus.CANCELLED) {
-            if (entity.getCancelledAt() == null) {
-                entity.setCancelledAt(OffsetDateTime.now());
-            }
-        } else {
-            entity.setCancelledAt(null);
+    private Reservation trackHold(Reservation saved) {
+        if (saved.getExpiresAt() != null) {
+            holdExpiryService.track(saved.getId(), saved.getExpiresAt());
         }
+        return saved;
     }
 
     private void validateCustomerExists(Long customerId) {
@@ -164,8 +204,8 @@ public class ReservationService {
                 ));
     }
 
-    private DeliverySlot lockDeliverySlotOrThrow(Long deliverySlotId) {
-        return deliverySlotRepository.findByIdForUpdate(deliverySlotId)
+    private DeliverySlot getDeliverySlotOrThrow(Long deliverySlotId) {
+        return deliverySlotRepository.findById(deliverySlotId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Ventana de Entrega no encontrada con id: " + deliverySlotId
                 ));
@@ -178,94 +218,20 @@ public class ReservationService {
                 ));
     }
 
-    private void validateAddressBelongsToCustomer(DeliveryAddress address, Long customerId) {
-        if (!customerId.equals(address.getCustomerId())) {
-            throw new IllegalArgumentException(
-                    "La direccion seleccionada no pertenece al cliente de la reserva"
-            );
-        }
-    }
-
-    private void validateAddressWithinDeliverySlot(DeliveryAddress address, Long deliverySlotId) {
-        if (address.getZoneCoverageId() == null) {
-            throw new IllegalArgumentException(
-                    "La direccion seleccionada no tiene zona de cobertura asociada"
-            );
-        }
+    private ZoneCoverage getZoneServingSlotOrThrow(DeliveryAddress address, Long deliverySlotId) {
+        validateAddressHasZone(address);
 
         ZoneCoverage zoneCoverage = zoneCoverageRepository.findById(address.getZoneCoverageId())
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Zona de cobertura no encontrada con id: " + address.getZoneCoverageId()
                 ));
-
-        if (zoneCoverage.getDeliverySlotId() == null || !zoneCoverage.getDeliverySlotId().equals(deliverySlotId)) {
-            throw new IllegalArgumentException(
-                    "La direccion seleccionada no pertenece a una zona del delivery_slot seleccionado"
-            );
-        }
-    }
-
-    private OffsetDateTime buildReservedAt(ReservationRequest request) {
-        return OffsetDateTime.of(
-                request.getReservationDate(),
-                request.getReservationTime(),
-                ZoneOffset.UTC
-        );
-    }
-
-    private void validateReservationDateTime(
-            OffsetDateTime reservedAt,
-            DeliverySlot deliverySlot,
-            TimeSlotTemplate timeSlotTemplate
-    ) {
-        if (!deliverySlot.getDeliveryDate().equals(reservedAt.toLocalDate())) {
-            throw new IllegalArgumentException(
-                    "La fecha de reserva debe coincidir con la fecha de la Ventana de Entrega seleccionada"
-            );
-        }
-
-        LocalTime reservationTime = reservedAt.toLocalTime();
-        LocalTime start = timeSlotTemplate.getStartTime();
-        LocalTime end = timeSlotTemplate.getEndTime();
-        boolean isWithinRange = !reservationTime.isBefore(start) && !reservationTime.isAfter(end);
-
-        if (!isWithinRange) {
-            throw new IllegalArgumentException(
-                    "La hora de reserva debe estar dentro del rango horario del TimeSlotTemplate del delivery_slot"
-            );
-        }
+        validateZoneServesSlot(zoneCoverage, deliverySlotId);
+        return zoneCoverage;
     }
 
-    private void validateCapacity(DeliverySlot deliverySlot, ReservationStatus status, Long excludeReservationId) {
-        if (status != ReservationStatus.CONFIRMED) {
-            return;
-        }
-
-        long confirmedReservations = excludeReservationId == null
-                ? reservationRepository.countByDeliverySlotIdAndStatus(
-                deliverySlot.getId(),
-                ReservationStatus.CONFIRMED
-        )
-                : reservationRepository.countByDeliverySlotIdAndStatusAndIdNot(
-                deliverySlot.getId(),
-                ReservationStatus.CONFIRMED,
-                excludeReservationId
-        );
-
-        if (confirmedReservations + 1 > deliverySlot.getMaxCapacity()) {
-            throw new ConflictException(
-                    "No hay capacidad disponible en la Ventana de Entrega seleccionada"
-            );
-        }
-    }
-
-    private void syncReservedCount(Long deliverySlotId) {
-        DeliverySlot deliverySlot = lockDeliverySlotOrThrow(deliverySlotId);
-        long confirmedReservations = reservationRepository.countByDeliverySlotIdAndStatus(
-                deliverySlotId,
-                ReservationStatus.CONFIRMED
-        );
-        deliverySlot.setReservedCount(Math.toIntExact(confirmedReservations));
-        deliverySlotRepository.save(deliverySlot);
+    /**
+     * Página del listado: las reservas y el cursor de la siguiente página (null si no hay más).
+     */
+    public record ReservationPage(List<Reservation> items, String nextCursor) {
     }
 }
@@ -0,0 +1,61 @@
+package com.app.demo.service;
+
+import com.app.demo.dto.SlotAvailabilityResponse;
+import com.app.demo.exception.ResourceNotFoundException;
+import com.app.demo.repository.DeliveryAddressRepository;
+import com.app.demo.repository.DeliverySlotRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Disponibilidad de ventanas de entrega para una dirección: solo los slots
+ * activos que atiende su zona de cobertura, con el cupo restante de esa zona.
+ */
+@Service
+public class SlotAvailabilityService {
+
+    static final int DEFAULT_RANGE_DAYS = 30;
+    static final int MAX_RANGE_DAYS = 92;
+
+    private final DeliverySlotRepository deliverySlotRepository;
+    private final DeliveryAddressRepository deliveryAddressRepository;
+
+    public SlotAvailabilityService(
+            DeliverySlotRepository deliverySlotRepository,
+            DeliveryAddressRepository deliveryAddressRepository
+    ) {
+        this.deliverySlotRepository = deliverySlotRepository;
+        this.deliveryAddressRepository = deliveryAddressRepository;
+    }
+
+    /**
+     * Sin {@code from} se parte desde hoy (UTC); sin {@code to} se cubren
+     * {@value #DEFAULT_RANGE_DAYS} días. Ambas fechas son inclusivas.
+     */
+    public List<SlotAvailabilityResponse> findForAddress(Long deliveryAddressId, LocalDate from, LocalDate to) {
+        LocalDate start = from == null ? LocalDate.now(ZoneOffset.UTC) : from;
+        LocalDate end = to == null ? start.plusDays(DEFAULT_RANGE_DAYS) : to;
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("La fecha 'to' no puede ser anterior a 'from'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException(
+                    "El rango de fechas no puede superar " + MAX_RANGE_DAYS + " dias"
+            );
+        }
+
+        List<SlotAvailabilityResponse> availability =
+                deliverySlotRepository.findAvailabilityByAddress(deliveryAddressId, start, end);
+        // Solo se consulta la dirección cuando el join no devolvió filas
+        if (availability.isEmpty() && !deliveryAddressRepository.existsById(deliveryAddressId)) {
+            throw new ResourceNotFoundException(
+                    "Direccion de entrega no encontrada con id: " + deliveryAddressId
+            );
+        }
+        return availability;
+    }
+}
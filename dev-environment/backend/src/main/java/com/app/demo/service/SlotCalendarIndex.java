@@ -0,0 +1,236 @@
+package com.app.demo.service;
+
+import com.app.demo.config.DataSourceWorkload;
+import com.app.demo.config.WorkloadRoutingDataSource;
+import com.app.demo.dto.DeliverySlotView;
+import com.app.demo.dto.SlotCalendarResponse;
+import com.app.demo.exception.ConflictException;
+import com.app.demo.model.TimeSlotTemplate;
+import com.app.demo.repository.DeliverySlotRepository;
+import com.app.demo.repository.TimeSlotTemplateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Matriz en memoria de capacidad por día y time_slot_template.
+ * <p>
+ * Cubre una ventana fija desde hoy (UTC) con arreglos primitivos indexados por
+ * {@code dia * templates + ordinal}, de modo que el calendario se arma copiando
+ * un rango contiguo sin consultar la base de datos. Los
+ * {@link DeliverySlotChangedEvent} confirmados marcan el slot como sucio y se
+ * aplican en lote; un cambio de templates o el cambio de día reconstruyen la
+ * matriz completa.
+ */
+@Service
+public class SlotCalendarIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotCalendarIndex.class);
+    private static final long EMPTY = 0L;
+
+    private final DeliverySlotRepository deliverySlotRepository;
+    private final TimeSlotTemplateRepository timeSlotTemplateRepository;
+    private final int windowDays;
+    private final Set<Long> dirtySlotIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean(true);
+    private volatile Grid grid;
+
+    public SlotCalendarIndex(
+            DeliverySlotRepository deliverySlotRepository,
+            TimeSlotTemplateRepository timeSlotTemplateRepository,
+            @Value("${app.slot-calendar.days:92}") int windowDays
+    ) {
+        this.deliverySlotRepository = deliverySlotRepository;
+        this.timeSlotTemplateRepository = timeSlotTemplateRepository;
+        this.windowDays = windowDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeliverySlotChanged(DeliverySlotChangedEvent event) {
+        dirtySlotIds.add(event.deliverySlotId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTimeSlotTemplateChanged(TimeSlotTemplateChangedEvent event) {
+        rebuildRequested.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${app.slot-calendar.refresh-interval-ms:500}")
+    public synchronized void refresh() {
+        Grid current = grid;
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        boolean rebuild = current == null || !current.startDate.equals(today) || rebuildRequested.get();
+        if (!rebuild && dirtySlotIds.isEmpty()) {
+            return;
+        }
+
+        // Se toman antes de leer: un cambio confirmado durante la lectura vuelve a quedar sucio
+        List<Long> slotIds = new ArrayList<>(dirtySlotIds);
+        dirtySlotIds.removeAll(slotIds);
+        rebuildRequested.set(false);
+
+        WorkloadRoutingDataSource.use(DataSourceWorkload.CATALOG_READS);
+        try {
+            if (rebuild) {
+                grid = build(today);
+            } else {
+                apply(current, slotIds);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("No se pudo actualizar el calendario de delivery_slots, se reintentará", ex);
+            dirtySlotIds.addAll(slotIds);
+            if (rebuild) {
+                rebuildRequested.set(true);
+            }
+        } finally {
+            WorkloadRoutingDataSource.clear();
+        }
+    }
+
+    /**
+     * Calendario de {@code days} días desde {@code from}; sin {@code from} se parte desde hoy (UTC).
+     */
+    public SlotCalendarResponse calendar(LocalDate from, int days) {
+        Grid current = grid;
+        if (current == null) {
+            throw new ConflictException("El calendario de delivery slots aun se esta cargando, intente nuevamente");
+        }
+        LocalDate start = from == null ? current.startDate : from;
+        if (days < 1 || days > windowDays) {
+            throw new IllegalArgumentException("La cantidad de dias debe estar entre 1 y " + windowDays);
+        }
+        long offset = ChronoUnit.DAYS.between(current.startDate, start);
+        if (offset < 0 || offset + days > windowDays) {
+            throw new IllegalArgumentException("El calendario solo cubre desde " + current.startDate
+                    + " hasta " + current.startDate.plusDays(windowDays - 1));
+        }
+        return current.slice((int) offset, days);
+    }
+
+    private Grid build(LocalDate startDate) {
+        List<TimeSlotTemplate> templates = timeSlotTemplateRepository.findAll(
+                Sort.by("startTime", "endTime", "id")
+        );
+        Grid built = new Grid(startDate, windowDays, templates);
+        for (DeliverySlotView view : deliverySlotRepository.findViewsByDeliveryDateBetween(
+                startDate, startDate.plusDays(windowDays - 1))) {
+            built.put(view);
+        }
+        return built;
+    }
+
+    private void apply(Grid current, List<Long> slotIds) {
+        List<DeliverySlotView> views = deliverySlotRepository.findViewsByIdIn(slotIds);
+        Set<Long> missing = new HashSet<>(slotIds);
+        synchronized (current) {
+            for (DeliverySlotView view : views) {
+                missing.remove(view.id());
+                if (!current.put(view)) {
+                    // Template creado por otra instancia del backend
+                    rebuildRequested.set(true);
+                }
+            }
+            missing.forEach(current::remove);
+        }
+    }
+
+    private static final class Grid {
+
+        private final LocalDate startDate;
+        private final int days;
+        private final List<SlotCalendarResponse.Template> templates;
+        private final Map<Long, Integer> ordinalByTemplateId = new HashMap<>();
+        private final Map<Long, Integer> cellBySlotId = new HashMap<>();
+        private final long[] slotIds;
+        private final int[] maxCapacity;
+        private final int[] reserved;
+
+        private Grid(LocalDate startDate, int days, List<TimeSlotTemplate> templates) {
+            this.startDate = startDate;
+            this.days = days;
+            this.templates = templates.stream()
+                    .map(t -> new SlotCalendarResponse.Template(t.getId(), t.getStartTime(), t.getEndTime()))
+                    .toList();
+            for (int i = 0; i < templates.size(); i++) {
+                ordinalByTemplateId.put(templates.get(i).getId(), i);
+            }
+            int cells = days * templates.size();
+            this.slotIds = new long[cells];
+            this.maxCapacity = new int[cells];
+            this.reserved = new int[cells];
+        }
+
+        /**
+         * Ubica el slot en su celda; devuelve false si su template no está en la matriz.
+         */
+        private boolean put(DeliverySlotView view) {
+            remove(view.id());
+            Integer ordinal = ordinalByTemplateId.get(view.timeSlotTemplateId());
+            if (ordinal == null) {
+                return false;
+            }
+            long day = ChronoUnit.DAYS.between(startDate, view.deliveryDate());
+            if (day < 0 || day >= days || !Boolean.TRUE.equals(view.isActive())) {
+                return true;
+            }
+            int cell = (int) day * templates.size() + ordinal;
+            slotIds[cell] = view.id();
+            maxCapacity[cell] = view.maxCapacity() == null ? 0 : view.maxCapacity();
+            reserved[cell] = view.reservedCount() == null ? 0 : view.reservedCount();
+            cellBySlotId.put(view.id(), cell);
+            return true;
+        }
+
+        private void remove(Long slotId) {
+            Integer cell = cellBySlotId.remove(slotId);
+            if (cell != null && slotIds[cell] == slotId) {
+                slotIds[cell] = EMPTY;
+                maxCapacity[cell] = 0;
+                reserved[cell] = 0;
+            }
+        }
+
+        private synchronized SlotCalendarResponse slice(int dayOffset, int dayCount) {
+            int from = dayOffset * templates.size();
+            int to = from + dayCount * templates.size();
+            int[] remaining = new int[to - from];
+            for (int i = 0; i < remaining.length; i++) {
+                remaining[i] = Math.max(maxCapacity[from + i] - reserved[from + i], 0);
+            }
+            return new SlotCalendarResponse(
+                    startDate.plusDays(dayOffset),
+                    dayCount,
+                    templates,
+                    Arrays.copyOfRange(slotIds, from, to),
+                    remaining,
+                    Arrays.copyOfRange(maxCapacity, from, to)
+            );
+        }
+    }
+}
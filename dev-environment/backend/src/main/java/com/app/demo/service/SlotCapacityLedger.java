@@ -0,0 +1,359 @@
+package com.app.demo.service;
+
+import com.app.demo.exception.ConflictException;
+import com.app.demo.exception.ResourceNotFoundException;
+import com.app.demo.repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Ledger de capacidad en memoria para delivery_slots con alta demanda.
+ * <p>
+ * Admite o rechaza con contadores atómicos antes de tocar la base de datos; las
+ * filas de reserva se siguen insertando en la transacción de la solicitud, pero
+ * el delta de delivery_slot.reserved_count se escribe en lotes (write-behind).
+ * Al iniciar, tras un flush fallido y cuando cambia la capacidad de un slot, el
+ * contador se reconcilia contra el conteo real de reservas que ocupan cupo.
+ * <p>
+ * Es un ledger por proceso: solo debe habilitarse con una única instancia del backend.
+ */
+@Component
+public class SlotCapacityLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotCapacityLedger.class);
+
+    private final ReservationRepository reservationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Set<Long> hotSlotIds;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Long> pendingReconcile = ConcurrentHashMap.newKeySet();
+
+    public SlotCapacityLedger(
+            ReservationRepository reservationRepository,
+            JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.capacity-ledger.enabled:false}") boolean enabled,
+            @Value("${app.capacity-ledger.slot-ids:}") String hotSlotIds
+    ) {
+        this.reservationRepository = reservationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.hotSlotIds = Arrays.stream(hotSlotIds.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean manages(Long deliverySlotId) {
+        return enabled && (hotSlotIds.isEmpty() || hotSlotIds.contains(deliverySlotId));
+    }
+
+    public boolean managesAll() {
+        return enabled && hotSlotIds.isEmpty();
+    }
+
+    /**
+     * Slots cuyo reserved_count escribe el ledger; vacío si está deshabilitado.
+     */
+    public Set<Long> managedSlotIds() {
+        return enabled ? hotSlotIds : Set.of();
+    }
+
+    /**
+     * Rechaza de inmediato si el slot ya está lleno según el ledger. No reserva cupo.
+     */
+    public void rejectIfFull(Long deliverySlotId) {
+        if (!manages(deliverySlotId)) {
+            return;
+        }
+        Entry entry = entries.get(deliverySlotId);
+        if (entry != null && entry.claimed.get() >= entry.maxCapacity) {
+            throw noCapacity();
+        }
+    }
+
+    /**
+     * Toma un cupo del slot. Si la transacción actual hace rollback el cupo se
+     * devuelve; si hace commit, el incremento queda pendiente de flush.
+     */
+    public void acquire(Long deliverySlotId) {
+        if (acquireUpTo(deliverySlotId, 1) == 0) {
+            throw noCapacity();
+        }
+    }
+
+    /**
+     * Toma hasta {@code requested} cupos del slot y devuelve cuántos se concedieron.
+     */
+    public int acquireUpTo(Long deliverySlotId, int requested) {
+        Entry entry = getOrLoad(deliverySlotId);
+        int current;
+        int granted;
+        do {
+            current = entry.claimed.get();
+            granted = Math.min(requested, entry.maxCapacity - current);
+            if (granted <= 0) {
+                return 0;
+            }
+        } while (!entry.claimed.compareAndSet(current, current + granted));
+
+        int acquired = granted;
+        entry.inFlight.addAndGet(acquired);
+        registerCompletion(entry, committed -> {
+            entry.inFlight.addAndGet(-acquired);
+            if (committed) {
+                entry.pendingDelta.addAndGet(acquired);
+            } else {
+                entry.claimed.addAndGet(-acquired);
+            }
+        });
+        return acquired;
+    }
+
+    /**
+     * Devuelve un cupo del slot una vez que la transacción actual hace commit.
+     */
+    public void release(Long deliverySlotId) {
+        Entry entry = getOrLoad(deliverySlotId);
+        registerCompletion(entry, committed -> {
+            if (committed) {
+                entry.claimed.decrementAndGet();
+                entry.pendingDelta.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Descuenta cupos que la base de datos ya liberó (retenciones expiradas)
+     * cuando la transacción actual hace commit.
+     */
+    public void releaseExpired(Long deliverySlotId, int released) {
+        Entry entry = entries.get(deliverySlotId);
+        if (entry == null) {
+            return;
+        }
+        registerCompletion(entry, committed -> {
+            if (committed) {
+                entry.claimed.addAndGet(-released);
+            }
+        });
+    }
+
+    /**
+     * Vuelve a cargar capacidad y reservas del slot, p. ej. tras editar el slot
+     * o sus zonas de cobertura. No hace nada si el slot aún no está en el ledger.
+     */
+    public void refresh(Long deliverySlotId) {
+        if (deliverySlotId != null && entries.containsKey(deliverySlotId)) {
+            reconcile(deliverySlotId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        // Los deltas no escritos de una ejecución anterior se pierden: se recalcula reserved_count
+        int repaired = jdbcTemplate.update("""
+                UPDATE app.delivery_slot ds
+                SET reserved_count = counts.counted
+                FROM (
+                    SELECT s.id, COUNT(r.id) AS counted
+                    FROM app.delivery_slot s
+                    LEFT JOIN app.reservation r
+                           ON r.delivery_slot_id = s.id
+                          AND r.status IN ('CONFIRMED', 'HELD')
+                    GROUP BY s.id
+                ) counts
+                WHERE ds.id = counts.id
+                  AND ds.reserved_count <> counts.counted
+                """);
+        if (repaired > 0) {
+            log.warn("Ledger de capacidad: reserved_count corregido en {} delivery_slots al iniciar", repaired);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.capacity-ledger.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> slotIds = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        entries.forEach((slotId, entry) -> {
+            int delta = entry.pendingDelta.getAndSet(0);
+            if (delta != 0) {
+                slotIds.add(slotId);
+                batch.add(new Object[]{delta, slotId});
+            }
+        });
+
+        if (!batch.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(
+                        "UPDATE app.delivery_slot SET reserved_count = reserved_count + ? WHERE id = ?",
+                        batch
+                );
+                slotIds.forEach(slotId -> eventPublisher.publishEvent(new DeliverySlotChangedEvent(slotId)));
+            } catch (DataAccessException ex) {
+                log.error("Ledger de capacidad: flush fallido para slots {}, se reconciliarán", slotIds, ex);
+                for (Object[] row : batch) {
+                    Entry entry = entries.get((Long) row[1]);
+                    if (entry != null) {
+                        entry.pendingDelta.addAndGet((Integer) row[0]);
+                    }
+                }
+                pendingReconcile.addAll(slotIds);
+            }
+        }
+
+        for (Long slotId : List.copyOf(pendingReconcile)) {
+            try {
+                reconcile(slotId);
+                pendingReconcile.remove(slotId);
+                eventPublisher.publishEvent(new DeliverySlotChangedEvent(slotId));
+            } catch (DataAccessException ex) {
+                log.error("Ledger de capacidad: reconciliación fallida para slot {}", slotId, ex);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private synchronized void reconcile(Long deliverySlotId) {
+        Entry entry = entries.get(deliverySlotId);
+        if (entry == null) {
+            return;
+        }
+
+        // El write lock espera a que ninguna transacción esté entre su commit y su bookkeeping
+        entry.lock.writeLock().lock();
+        try {
+            Integer maxCapacity = findMaxCapacity(deliverySlotId);
+            if (maxCapacity == null) {
+                entries.remove(deliverySlotId);
+                return;
+            }
+            int counted = Math.toIntExact(reservationRepository.countByDeliverySlotIdAndStatusIn(
+                    deliverySlotId,
+                    ReservationRules.COUNTED_STATUSES
+            ));
+            jdbcTemplate.update(
+                    "UPDATE app.delivery_slot SET reserved_count = ? WHERE id = ?",
+                    counted,
+                    deliverySlotId
+            );
+            entry.pendingDelta.set(0);
+            entry.claimed.set(counted + entry.inFlight.get());
+            entry.maxCapacity = maxCapacity;
+        } finally {
+            entry.lock.writeLock().unlock();
+        }
+    }
+
+    private Entry getOrLoad(Long deliverySlotId) {
+        Entry entry = entries.get(deliverySlotId);
+        if (entry != null) {
+            return entry;
+        }
+
+        Entry loaded;
+        try {
+            loaded = jdbcTemplate.queryForObject(
+                    "SELECT reserved_count, max_capacity FROM app.delivery_slot WHERE id = ?",
+                    (rs, rowNum) -> new Entry(rs.getInt("reserved_count"), rs.getInt("max_capacity")),
+                    deliverySlotId
+            );
+        } catch (EmptyResultDataAccessException ex) {
+            throw new ResourceNotFoundException("Ventana de Entrega no encontrada con id: " + deliverySlotId);
+        }
+        Entry existing = entries.putIfAbsent(deliverySlotId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private Integer findMaxCapacity(Long deliverySlotId) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT max_capacity FROM app.delivery_slot WHERE id = ?",
+                Integer.class,
+                deliverySlotId
+        );
+        return rows.isEmpty() ? null : rows.getFirst();
+    }
+
+    private void registerCompletion(Entry entry, CompletionAction action) {
+        AtomicBoolean locked = new AtomicBoolean(false);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                entry.lock.readLock().lock();
+                locked.set(true);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    action.apply(status == STATUS_COMMITTED);
+                } finally {
+                    if (locked.get()) {
+                        entry.lock.readLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+
+    private ConflictException noCapacity() {
+        return new ConflictException("No hay capacidad disponible en la Ventana de Entrega seleccionada");
+    }
+
+    @FunctionalInterface
+    private interface CompletionAction {
+        void apply(boolean committed);
+    }
+
+    private static final class Entry {
+
+        private final AtomicInteger claimed;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger pendingDelta = new AtomicInteger();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile int maxCapacity;
+
+        private Entry(int reservedCount, int maxCapacity) {
+            this.claimed = new AtomicInteger(reservedCount);
+            this.maxCapacity = maxCapacity;
+        }
+    }
+}
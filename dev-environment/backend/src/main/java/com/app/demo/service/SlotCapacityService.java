@@ -0,0 +1,177 @@
+package com.app.demo.service;
+
+import com.app.demo.exception.CapacityConflictException;
+import com.app.demo.exception.ConflictException;
+import com.app.demo.exception.ResourceNotFoundException;
+import com.app.demo.repository.ZoneCoverageRepository;
+import com.app.demo.repository.ZoneCoverageRepository.CapacitySnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reserva y libera cupos por zona de cobertura. Cada zone_coverage es un
+ * contador independiente que se toma con un único UPDATE condicional, de modo
+ * que reservas de zonas distintas del mismo slot no compiten por el lock de la
+ * fila de delivery_slot. Como el max_capacity del slot es la suma de sus zonas,
+ * respetar el cupo de cada zona respeta también el del slot; el reserved_count
+ * del slot lo recalcula {@link SlotReservedCountRollup}. Los slots administrados
+ * por {@link SlotCapacityLedger} además se admiten en memoria.
+ * <p>
+ * El modo de concurrencia ({@link CapacityConcurrencyMode}) se elige por despliegue.
+ * En modo optimista un conflicto de versión se lanza como
+ * {@link CapacityConflictException} sin esperar ni reintentar aquí: quien abrió
+ * la transacción la repite con {@link CapacityClaimRetry}.
+ * Debe invocarse dentro de la transacción que inserta o modifica la reserva.
+ */
+@Service
+public class SlotCapacityService {
+
+    private final ZoneCoverageRepository zoneCoverageRepository;
+    private final SlotCapacityLedger slotCapacityLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CapacityConcurrencyMode mode;
+
+    public SlotCapacityService(
+            ZoneCoverageRepository zoneCoverageRepository,
+            SlotCapacityLedger slotCapacityLedger,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.capacity.concurrency-mode:PESSIMISTIC}") CapacityConcurrencyMode mode
+    ) {
+        this.zoneCoverageRepository = zoneCoverageRepository;
+        this.slotCapacityLedger = slotCapacityLedger;
+        this.eventPublisher = eventPublisher;
+        this.mode = mode;
+    }
+
+    /**
+     * Rechazo rápido, sin tocar la base de datos, para slots llenos del ledger.
+     */
+    public void rejectIfFull(Long deliverySlotId) {
+        slotCapacityLedger.rejectIfFull(deliverySlotId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void claim(Long deliverySlotId, Long zoneCoverageId) {
+        boolean claimed = mode == CapacityConcurrencyMode.OPTIMISTIC
+                ? claimOptimistically(zoneCoverageId, 1, false) == 1
+                : zoneCoverageRepository.claimCapacity(zoneCoverageId, 1) == 1;
+        if (!claimed) {
+            throw new ConflictException(
+                    "No hay capacidad disponible en la zona de cobertura de la direccion seleccionada"
+            );
+        }
+        if (slotCapacityLedger.manages(deliverySlotId)) {
+            slotCapacityLedger.acquire(deliverySlotId);
+        }
+        eventPublisher.publishEvent(DeliverySlotChangedEvent.zoneCountersChanged(deliverySlotId));
+    }
+
+    /**
+     * Toma hasta {@code requested} cupos de una zona y devuelve cuántos se concedieron.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int claimUpTo(Long deliverySlotId, Long zoneCoverageId, int requested) {
+        if (requested <= 0) {
+            return 0;
+        }
+
+        int granted = mode == CapacityConcurrencyMode.OPTIMISTIC
+                ? claimOptimistically(zoneCoverageId, requested, true)
+                : claimLocked(zoneCoverageId, requested);
+        if (granted == 0) {
+            return 0;
+        }
+
+        eventPublisher.publishEvent(DeliverySlotChangedEvent.zoneCountersChanged(deliverySlotId));
+        if (slotCapacityLedger.manages(deliverySlotId)) {
+            int acquired = slotCapacityLedger.acquireUpTo(deliverySlotId, granted);
+            if (acquired < granted) {
+                zoneCoverageRepository.releaseCapacity(zoneCoverageId, granted - acquired);
+            }
+            return acquired;
+        }
+        return granted;
+    }
+
+    private int claimLocked(Long zoneCoverageId, int requested) {
+        int available = zoneCoverageRepository.findAvailableCapacityForUpdate(zoneCoverageId)
+                .orElseThrow(() -> zoneNotFound(zoneCoverageId));
+        int granted = Math.min(requested, available);
+        if (granted <= 0 || zoneCoverageRepository.claimCapacity(zoneCoverageId, granted) == 0) {
+            return 0;
+        }
+        return granted;
+    }
+
+    /**
+     * Lee el contador sin lock y lo actualiza solo si su versión no cambió y
+     * nadie tiene la fila bloqueada. Con {@code partial} se concede lo que haya
+     * disponible; si no, todo o nada.
+     */
+    private int claimOptimistically(Long zoneCoverageId, int requested, boolean partial) {
+        CapacitySnapshot snapshot = zoneCoverageRepository.findCapacitySnapshot(zoneCoverageId)
+                .orElseThrow(() -> zoneNotFound(zoneCoverageId));
+        int available = snapshot.getMaxCapacity() - snapshot.getReservedCount();
+        int granted = partial ? Math.min(requested, available) : (available >= requested ? requested : 0);
+        if (granted <= 0) {
+            return 0;
+        }
+        if (zoneCoverageRepository.claimCapacityIfVersion(
+                zoneCoverageId, granted, snapshot.getCapacityVersion()) == 0) {
+            throw new CapacityConflictException(
+                    "La zona de cobertura tiene alta demanda en este momento, intente nuevamente"
+            );
+        }
+        return granted;
+    }
+
+    private ResourceNotFoundException zoneNotFound(Long zoneCoverageId) {
+        return new ResourceNotFoundException("Zona de cobertura no encontrada con id: " + zoneCoverageId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long deliverySlotId, Long zoneCoverageId) {
+        // Reservas anteriores al conteo por zona no tienen zone_coverage_id
+        if (zoneCoverageId != null) {
+            zoneCoverageRepository.releaseCapacity(zoneCoverageId, 1);
+        }
+        if (slotCapacityLedger.manages(deliverySlotId)) {
+            slotCapacityLedger.release(deliverySlotId);
+        }
+        eventPublisher.publishEvent(DeliverySlotChangedEvent.zoneCountersChanged(deliverySlotId));
+    }
+
+    /**
+     * Mueve un cupo entre zonas (o lo toma/libera si la reserva entra o sale
+     * del conteo). Los UPDATE se ejecutan en orden ascendente de id de zona para
+     * que dos traslados cruzados no queden en deadlock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transfer(
+            Long fromSlotId,
+            Long fromZoneId,
+            boolean fromCounted,
+            Long toSlotId,
+            Long toZoneId,
+            boolean toCounted
+    ) {
+        if (fromCounted && toCounted && fromSlotId.equals(toSlotId) && toZoneId.equals(fromZoneId)) {
+            return;
+        }
+
+        boolean releaseFirst = fromCounted
+                && (!toCounted || fromZoneId == null || fromZoneId < toZoneId);
+        if (releaseFirst) {
+            release(fromSlotId, fromZoneId);
+        }
+        if (toCounted) {
+            claim(toSlotId, toZoneId);
+        }
+        if (fromCounted && !releaseFirst) {
+            release(fromSlotId, fromZoneId);
+        }
+    }
+}
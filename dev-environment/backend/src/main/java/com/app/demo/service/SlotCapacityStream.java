@@ -0,0 +1,223 @@
+package com.app.demo.service;
+
+import com.app.demo.config.DataSourceWorkload;
+import com.app.demo.config.WorkloadRoutingDataSource;
+import com.app.demo.dto.SlotCapacityDelta;
+import com.app.demo.repository.DeliverySlotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stream SSE de cambios de capacidad de delivery_slots.
+ * <p>
+ * Los {@link DeliverySlotChangedEvent} confirmados solo marcan el slot como
+ * sucio. En cada ciclo los slots sucios se leen con una única consulta y el lote
+ * se serializa una vez para todos los suscriptores, sin importar cuántos haya.
+ * Cada suscriptor envía en su propio virtual thread; si un cliente lento aún
+ * está enviando, los lotes siguientes se fusionan por slot (gana el último
+ * estado), de modo que su pendiente nunca supera un delta por slot.
+ */
+@Service
+public class SlotCapacityStream {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotCapacityStream.class);
+    private static final String EVENT_NAME = "capacity";
+
+    private final DeliverySlotRepository deliverySlotRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration emitterTimeout;
+    private final Set<Long> dirtySlotIds = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SlotCapacityStream(
+            DeliverySlotRepository deliverySlotRepository,
+            ObjectMapper objectMapper,
+            @Value("${app.slot-stream.timeout-minutes:30}") long timeoutMinutes
+    ) {
+        this.deliverySlotRepository = deliverySlotRepository;
+        this.objectMapper = objectMapper;
+        this.emitterTimeout = Duration.ofMinutes(timeoutMinutes);
+    }
+
+    /**
+     * Registra un suscriptor. Al vencer el timeout el navegador reconecta solo (EventSource).
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeliverySlotChanged(DeliverySlotChangedEvent event) {
+        dirtySlotIds.add(event.deliverySlotId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.slot-stream.flush-interval-ms:250}")
+    public void publishChanges() {
+        if (dirtySlotIds.isEmpty()) {
+            return;
+        }
+        List<Long> slotIds = new ArrayList<>(dirtySlotIds);
+        dirtySlotIds.removeAll(slotIds);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        List<SlotCapacityDelta> deltas;
+        WorkloadRoutingDataSource.use(DataSourceWorkload.CATALOG_READS);
+        try {
+            deltas = loadDeltas(slotIds);
+        } catch (DataAccessException ex) {
+            log.warn("No se pudo leer la capacidad de los delivery_slots {}, se reintentará", slotIds, ex);
+            dirtySlotIds.addAll(slotIds);
+            return;
+        } finally {
+            WorkloadRoutingDataSource.clear();
+        }
+
+        Batch batch = new Batch(deltas, objectMapper.writeValueAsString(deltas));
+        subscribers.forEach(subscriber -> subscriber.offer(batch));
+    }
+
+    /**
+     * Comentario SSE periódico: mantiene abiertas las conexiones a través de
+     * proxies y detecta clientes desconectados.
+     */
+    @Scheduled(fixedDelayString = "${app.slot-stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::ping);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private List<SlotCapacityDelta> loadDeltas(List<Long> slotIds) {
+        Map<Long, SlotCapacityDelta> found = deliverySlotRepository.findCapacityByIdIn(slotIds)
+                .stream()
+                .collect(Collectors.toMap(SlotCapacityDelta::slotId, Function.identity()));
+        return slotIds.stream()
+                .map(slotId -> found.getOrDefault(slotId, SlotCapacityDelta.removed(slotId)))
+                .toList();
+    }
+
+    private record Batch(List<SlotCapacityDelta> deltas, String json) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        // Lote compartido tal como llegó, o los deltas fusionados si el cliente se atrasó
+        private Batch shared;
+        private Map<Long, SlotCapacityDelta> merged;
+        private boolean sending;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(Batch batch) {
+            if (shared == null && merged == null) {
+                shared = batch;
+            } else {
+                if (merged == null) {
+                    merged = new LinkedHashMap<>();
+                    shared.deltas().forEach(delta -> merged.put(delta.slotId(), delta));
+                    shared = null;
+                }
+                batch.deltas().forEach(delta -> merged.put(delta.slotId(), delta));
+            }
+            startSending();
+        }
+
+        private synchronized void ping() {
+            if (!sending) {
+                sending = true;
+                senders.execute(() -> {
+                    send(SseEmitter.event().comment("ping"));
+                    synchronized (this) {
+                        sending = false;
+                        if (shared != null || merged != null) {
+                            startSending();
+                        }
+                    }
+                });
+            }
+        }
+
+        private void startSending() {
+            if (!sending) {
+                sending = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                String json;
+                synchronized (this) {
+                    if (shared != null) {
+                        json = shared.json();
+                    } else if (merged != null) {
+                        json = objectMapper.writeValueAsString(List.copyOf(merged.values()));
+                    } else {
+                        sending = false;
+                        return;
+                    }
+                    shared = null;
+                    merged = null;
+                }
+                if (!send(SseEmitter.event()
+                        .id(Long.toString(sequence.incrementAndGet()))
+                        .name(EVENT_NAME)
+                        .data(json, MediaType.APPLICATION_JSON))) {
+                    return;
+                }
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException ex) {
+                subscribers.remove(this);
+                emitter.completeWithError(ex);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.app.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mantiene delivery_slot.reserved_count como la suma de los contadores por zona.
+ * Las reservas solo bloquean la fila de su zone_coverage; el total del slot se
+ * recalcula en segundo plano con un único UPDATE por conjunto. Los slots del
+ * {@link SlotCapacityLedger} quedan fuera porque su contador lo escribe el ledger.
+ */
+@Component
+public class SlotReservedCountRollup {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotReservedCountRollup.class);
+
+    private static final String ROLLUP_SQL = """
+            UPDATE app.delivery_slot ds
+            SET reserved_count = zones.reserved
+            FROM (
+                SELECT delivery_slot_id, SUM(reserved_count) AS reserved
+                FROM app.zone_coverage
+                WHERE delivery_slot_id IS NOT NULL
+                GROUP BY delivery_slot_id
+            ) zones
+            WHERE ds.id = zones.delivery_slot_id
+              AND ds.reserved_count <> zones.reserved
+              AND NOT (ds.id = ANY (?))
+            RETURNING ds.id
+            """;
+
+    private static final String PENDING_BACKFILL_SQL = """
+            SELECT EXISTS (
+                SELECT 1
+                FROM app.reservation r
+                JOIN app.delivery_address da ON da.id = r.delivery_address_id
+                WHERE r.zone_coverage_id IS NULL
+                  AND da.zone_coverage_id IS NOT NULL
+            )
+            """;
+
+    private static final String BACKFILL_ZONE_SQL = """
+            UPDATE app.reservation r
+            SET zone_coverage_id = da.zone_coverage_id
+            FROM app.delivery_address da
+            WHERE r.delivery_address_id = da.id
+              AND r.zone_coverage_id IS NULL
+              AND da.zone_coverage_id IS NOT NULL
+            RETURNING r.zone_coverage_id
+            """;
+
+    /**
+     * Un contador no puede superar max_capacity (chk_zone_capacity): una zona
+     * sobrevendida queda llena y se informa.
+     */
+    private static final String RECOUNT_ZONES_SQL = """
+            UPDATE app.zone_coverage zc
+            SET reserved_count = LEAST(counts.counted, zc.max_capacity),
+                capacity_version = zc.capacity_version + 1
+            FROM (
+                SELECT z.id, COUNT(r.id) AS counted
+                FROM app.zone_coverage z
+                LEFT JOIN app.reservation r
+                       ON r.zone_coverage_id = z.id
+                      AND r.status IN ('CONFIRMED', 'HELD')
+                WHERE z.id = ANY (?)
+                GROUP BY z.id
+            ) counts
+            WHERE zc.id = counts.id
+            RETURNING zc.id, counts.counted > zc.max_capacity AS overbooked
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SlotCapacityLedger slotCapacityLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean repairEnabled;
+
+    public SlotReservedCountRollup(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SlotCapacityLedger slotCapacityLedger,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.zone-capacity.repair-on-startup:true}") boolean repairEnabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.slotCapacityLedger = slotCapacityLedger;
+        this.eventPublisher = eventPublisher;
+        this.repairEnabled = repairEnabled;
+    }
+
+    /**
+     * Asigna la zona a reservas anteriores al conteo por zona y recalcula, a
+     * partir de las reservas que ocupan cupo, solo las zonas que recibieron
+     * alguna. Tras la primera ejecución no queda nada pendiente y no se escribe.
+     * Mientras corre, la tabla de reservas queda bloqueada para escritura: así
+     * ninguna reserva concurrente se pierde en el recuento.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairOnStartup() {
+        if (!repairEnabled) {
+            return;
+        }
+        try {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(PENDING_BACKFILL_SQL, Boolean.class))) {
+                transactionTemplate.executeWithoutResult(status -> repairZoneCounters());
+            }
+        } catch (DataAccessException ex) {
+            log.warn("No se pudieron recalcular los cupos por zona; se reintentara en el proximo arranque", ex);
+        }
+        rollup();
+    }
+
+    private void repairZoneCounters() {
+        jdbcTemplate.execute("LOCK TABLE app.reservation IN SHARE MODE");
+        List<Long> zones = jdbcTemplate.queryForList(BACKFILL_ZONE_SQL, Long.class);
+        Long[] zoneIds = zones.stream().distinct().toArray(Long[]::new);
+        AtomicInteger overbooked = new AtomicInteger();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RECOUNT_ZONES_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", zoneIds));
+            return ps;
+        }, rs -> {
+            if (rs.getBoolean("overbooked")) {
+                overbooked.incrementAndGet();
+                log.warn("La zone_coverage {} tiene mas reservas que su capacidad maxima", rs.getLong("id"));
+            }
+        });
+        log.info("Cupos por zona: {} reservas asociadas a su zona, {} zone_coverages recalculadas ({} sobrevendidas)",
+                zones.size(), zoneIds.length, overbooked.get());
+    }
+
+    @Scheduled(fixedDelayString = "${app.zone-capacity.rollup-interval-ms:1000}")
+    public void rollup() {
+        if (slotCapacityLedger.managesAll()) {
+            return;
+        }
+        try {
+            Long[] excluded = slotCapacityLedger.managedSlotIds().toArray(Long[]::new);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(ROLLUP_SQL);
+                ps.setArray(1, connection.createArrayOf("bigint", excluded));
+                return ps;
+            }, rs -> {
+                eventPublisher.publishEvent(new DeliverySlotChangedEvent(rs.getLong("id")));
+            });
+        } catch (DataAccessException ex) {
+            log.warn("No se pudo recalcular reserved_count de los delivery_slots", ex);
+        }
+    }
+}
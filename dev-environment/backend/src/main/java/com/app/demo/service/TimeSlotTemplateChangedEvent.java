@@ -0,0 +1,7 @@
+package com.app.demo.service;
+
+/**
+ * Se creó, modificó o eliminó un time_slot_template.
+ */
+public record TimeSlotTemplateChangedEvent(Long timeSlotTemplateId) {
+}
@@ -5,6 +5,7 @@ import com.app.demo.exception.ConflictException;
 import com.app.demo.exception.ResourceNotFoundException;
 import com.app.demo.model.TimeSlotTemplate;
 import com.app.demo.repository.TimeSlotTemplateRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
@@ -14,9 +15,11 @@ import java.util.List;
 public class TimeSlotTemplateService {
 
     private final TimeSlotTemplateRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TimeSlotTemplateService(TimeSlotTemplateRepository repository) {
+    public TimeSlotTemplateService(TimeSlotTemplateRepository repository, ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<TimeSlotTemplate> findAll() {
@@ -35,7 +38,9 @@ public class TimeSlotTemplateService {
 
         TimeSlotTemplate entity = new TimeSlotTemplate();
         applyChanges(entity, request);
-        return repository.save(entity);
+        TimeSlotTemplate saved = repository.save(entity);
+        eventPublisher.publishEvent(new TimeSlotTemplateChangedEvent(saved.getId()));
+        return saved;
     }
 
     public TimeSlotTemplate update(Long id, TimeSlotTemplateRequest request) {
@@ -45,7 +50,9 @@ public class TimeSlotTemplateService {
         }
 
         applyChanges(entity, request);
-        return repository.save(entity);
+        TimeSlotTemplate saved = repository.save(entity);
+        eventPublisher.publishEvent(new TimeSlotTemplateChangedEvent(id));
+        return saved;
     }
 
     public void delete(Long id) {
@@ -53,6 +60,7 @@ public class TimeSlotTemplateService {
             throw new ResourceNotFoundException("TimeSlotTemplate no encontrado con id: " + id);
         }
         repository.deleteById(id);
+        eventPublisher.publishEvent(new TimeSlotTemplateChangedEvent(id));
     }
 
     private void applyChanges(TimeSlotTemplate entity, TimeSlotTemplateRequest request) {
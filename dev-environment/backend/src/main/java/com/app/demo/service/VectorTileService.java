@@ -0,0 +1,124 @@
+package com.app.demo.service;
+
+import com.app.demo.repository.VectorTileRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.locationtech.jts.geom.Point;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tiles MVT de zonas y direcciones con cache acotado por bytes.
+ * <p>
+ * Un cambio de zona invalida todo el cache (un límite puede cruzar cualquier
+ * cantidad de tiles en todos los zoom). Un cambio de direcciones solo invalida,
+ * en cada zoom, los tiles cuyo área con buffer contiene sus ubicaciones; si no
+ * se conocen, se invalida todo. La expiración por tiempo cubre cambios hechos
+ * por otras instancias.
+ * <p>
+ * invalidateAll no descarta las cargas en curso, así que la clave incluye una
+ * generación: invalidar todo la incrementa y una carga que empezó antes queda
+ * guardada con una clave que ya no se consulta.
+ */
+@Service
+public class VectorTileService {
+
+    public static final int MAX_ZOOM = 22;
+
+    private final VectorTileRepository vectorTileRepository;
+    private final Cache<TileKey, byte[]> tiles;
+    private final AtomicLong generation = new AtomicLong();
+    private final int addressMinZoom;
+
+    public VectorTileService(
+            VectorTileRepository vectorTileRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.tiles.cache-max-bytes:67108864}") long cacheMaxBytes,
+            @Value("${app.tiles.expire-after-write-seconds:300}") long expireAfterWriteSeconds,
+            @Value("${app.tiles.address-min-zoom:12}") int addressMinZoom
+    ) {
+        this.vectorTileRepository = vectorTileRepository;
+        this.addressMinZoom = addressMinZoom;
+        this.tiles = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((TileKey key, byte[] tile) -> tile.length + 64)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tiles, "vector_tiles");
+    }
+
+    /**
+     * Tile {@code z/x/y}; las direcciones solo se incluyen desde {@code app.tiles.address-min-zoom}.
+     */
+    public byte[] findTile(int z, int x, int y) {
+        if (z < 0 || z > MAX_ZOOM) {
+            throw new IllegalArgumentException("El zoom debe estar entre 0 y " + MAX_ZOOM);
+        }
+        int tilesPerAxis = 1 << z;
+        if (x < 0 || x >= tilesPerAxis || y < 0 || y >= tilesPerAxis) {
+            throw new IllegalArgumentException("El tile " + z + "/" + x + "/" + y + " no existe");
+        }
+        return tiles.get(new TileKey(generation.get(), z, x, y),
+                key -> vectorTileRepository.findTile(z, x, y, z >= addressMinZoom));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onZoneCoverageChanged(ZoneCoverageChangedEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeliveryAddressChanged(DeliveryAddressChangedEvent event) {
+        if (event.locations() == null) {
+            invalidateAll();
+            return;
+        }
+        for (Point location : event.locations()) {
+            if (location != null) {
+                invalidateAround(location.getX(), location.getY());
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        tiles.invalidateAll();
+    }
+
+    /**
+     * Caffeine espera a que termine la carga en curso de una clave antes de
+     * invalidarla, por lo que aquí basta la generación actual.
+     */
+    private void invalidateAround(double longitude, double latitude) {
+        double margin = (double) VectorTileRepository.BUFFER / VectorTileRepository.EXTENT;
+        long current = generation.get();
+        double sinLatitude = Math.sin(Math.toRadians(Math.max(-85.0511, Math.min(85.0511, latitude))));
+        double unitX = (longitude + 180.0) / 360.0;
+        double unitY = 0.5 - Math.log((1 + sinLatitude) / (1 - sinLatitude)) / (4 * Math.PI);
+        for (int z = addressMinZoom; z <= MAX_ZOOM; z++) {
+            int tilesPerAxis = 1 << z;
+            double tileX = unitX * tilesPerAxis;
+            double tileY = unitY * tilesPerAxis;
+            int minX = Math.max((int) Math.floor(tileX - margin), 0);
+            int maxX = Math.min((int) Math.floor(tileX + margin), tilesPerAxis - 1);
+            int minY = Math.max((int) Math.floor(tileY - margin), 0);
+            int maxY = Math.min((int) Math.floor(tileY + margin), tilesPerAxis - 1);
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    tiles.invalidate(new TileKey(current, z, x, y));
+                }
+            }
+        }
+    }
+
+    private record TileKey(long generation, int z, int x, int y) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.app.demo.service;
+
+import com.app.demo.config.geometry.TwkbWriter;
+import com.app.demo.model.ZoneCoverage;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.WKBWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificación binaria de límites de zone_coverage para sincronización entre servicios.
+ * <ul>
+ *   <li>{@code application/vnd.wkb}: una zona es un Polygon WKB; un listado es una
+ *   secuencia de registros (id int64, largo int32, Polygon WKB), big-endian.</li>
+ *   <li>{@code application/vnd.twkb}: una zona es un Polygon TWKB; un listado es un
+ *   MultiPolygon TWKB con la lista de ids de las zonas.</li>
+ * </ul>
+ * Las zonas sin boundary se omiten de los listados.
+ */
+@Service
+public class ZoneBoundaryEncoder {
+
+    public static final String WKB_VALUE = "application/vnd.wkb";
+    public static final String TWKB_VALUE = "application/vnd.twkb";
+    public static final MediaType WKB = MediaType.parseMediaType(WKB_VALUE);
+    public static final MediaType TWKB = MediaType.parseMediaType(TWKB_VALUE);
+
+    private final ZoneBoundarySimplifier zoneBoundarySimplifier;
+    private final TwkbWriter twkbWriter;
+
+    public ZoneBoundaryEncoder(
+            ZoneBoundarySimplifier zoneBoundarySimplifier,
+            @Value("${app.geometry.twkb-precision:6}") int twkbPrecision
+    ) {
+        this.zoneBoundarySimplifier = zoneBoundarySimplifier;
+        this.twkbWriter = new TwkbWriter(twkbPrecision);
+    }
+
+    public byte[] wkb(ZoneCoverage zone, Integer zoom) {
+        return new WKBWriter().write(boundaryOrThrow(zone, zoom));
+    }
+
+    public byte[] wkb(List<ZoneCoverage> zones, Integer zoom) {
+        WKBWriter writer = new WKBWriter();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (ZoneCoverage zone : zones) {
+                Polygon boundary = zoneBoundarySimplifier.boundaryForZoom(zone, zoom);
+                if (boundary != null) {
+                    byte[] polygon = writer.write(boundary);
+                    out.writeLong(zone.getId());
+                    out.writeInt(polygon.length);
+                    out.write(polygon);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public byte[] twkb(ZoneCoverage zone, Integer zoom) {
+        return twkbWriter.write(boundaryOrThrow(zone, zoom));
+    }
+
+    public byte[] twkb(List<ZoneCoverage> zones, Integer zoom) {
+        List<Polygon> boundaries = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (ZoneCoverage zone : zones) {
+            Polygon boundary = zoneBoundarySimplifier.boundaryForZoom(zone, zoom);
+            if (boundary != null) {
+                boundaries.add(boundary);
+                ids.add(zone.getId());
+            }
+        }
+        return twkbWriter.writeMultiPolygon(boundaries, ids);
+    }
+
+    private Polygon boundaryOrThrow(ZoneCoverage zone, Integer zoom) {
+        Polygon boundary = zoneBoundarySimplifier.boundaryForZoom(zone, zoom);
+        if (boundary == null) {
+            throw new IllegalArgumentException("La zona de cobertura " + zone.getId() + " no tiene boundary");
+        }
+        return boundary;
+    }
+}
@@ -0,0 +1,232 @@
+package com.app.demo.service;
+
+import com.app.demo.model.ZoneCoverage;
+import com.app.demo.repository.ZoneCoverageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Índice espacial en memoria de los límites de zone_coverage activas.
+ * <p>
+ * Cada zona se prepara una sola vez ({@link PreparedGeometry}) y se publica en un
+ * STRtree inmutable que se consulta sin locks. Al confirmarse un
+ * {@link ZoneCoverageChangedEvent} solo se vuelve a preparar la zona modificada
+ * y el árbol se reempaqueta con las demás ya preparadas. Un acierto del índice
+ * se confirma contra boundary_version de la zona (lectura por clave primaria):
+ * si otra instancia cambió el polígono o lo desactivó, la zona se recarga y se
+ * responde con la base de datos. Si el índice no encuentra zona (o aún no carga)
+ * se consulta ST_Contains en la base de datos; un acierto de la base indica que
+ * el índice estaba desactualizado y se incorpora la zona encontrada.
+ */
+@Service
+public class ZoneBoundaryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ZoneBoundaryIndex.class);
+
+    private final ZoneCoverageRepository zoneCoverageRepository;
+    private final boolean enabled;
+    private final Map<Long, IndexedZone> zones = new ConcurrentHashMap<>();
+    private final Counter indexHits;
+    private final Counter fallbackHits;
+    private final Counter misses;
+    private volatile STRtree tree;
+
+    public ZoneBoundaryIndex(
+            ZoneCoverageRepository zoneCoverageRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.zone-index.enabled:true}") boolean enabled
+    ) {
+        this.zoneCoverageRepository = zoneCoverageRepository;
+        this.enabled = enabled;
+        this.indexHits = lookupCounter(meterRegistry, "index");
+        this.fallbackHits = lookupCounter(meterRegistry, "database");
+        this.misses = lookupCounter(meterRegistry, "none");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("zone_coverage.index.lookups")
+                .description("Asignaciones de zona por origen de la respuesta")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.zone-index.reload-interval-ms:300000}",
+            fixedDelayString = "${app.zone-index.reload-interval-ms:300000}"
+    )
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<ZoneCoverage> active = zoneCoverageRepository.findByIsActiveTrueAndBoundaryIsNotNull();
+            synchronized (this) {
+                zones.keySet().retainAll(active.stream().map(ZoneCoverage::getId).toList());
+                active.forEach(this::index);
+                publish();
+            }
+        } catch (DataAccessException ex) {
+            log.warn("No se pudo cargar el indice de zonas de cobertura, se usara la base de datos", ex);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onZoneCoverageChanged(ZoneCoverageChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Optional<ZoneCoverage> zone = zoneCoverageRepository.findById(event.zoneCoverageId());
+            synchronized (this) {
+                zones.remove(event.zoneCoverageId());
+                zone.filter(this::indexable).ifPresent(this::index);
+                publish();
+            }
+        } catch (DataAccessException ex) {
+            log.warn("No se pudo actualizar la zona {} en el indice, se recargara completo",
+                    event.zoneCoverageId(), ex);
+            reload();
+        }
+    }
+
+    /**
+     * Zona activa que contiene el punto; ante varias, la de menor id.
+     */
+    public Optional<Long> findZoneContaining(Point point) {
+        STRtree current = tree;
+        Optional<Long> indexed = findIndexedZone(current, point);
+        if (indexed.isPresent() && refreshStale(List.of(indexed.get())).isEmpty()) {
+            indexHits.increment();
+            return indexed;
+        }
+
+        List<ZoneCoverage> matching = zoneCoverageRepository.findByPointInsideBoundary(point);
+        if (matching.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        fallbackHits.increment();
+        if (current != null) {
+            log.info("El indice de zonas no contenia la zona {}, se incorpora", matching.getFirst().getId());
+            synchronized (this) {
+                matching.forEach(this::index);
+                publish();
+            }
+        }
+        return matching.stream().map(ZoneCoverage::getId).min(Long::compare);
+    }
+
+    /**
+     * Solo el índice en memoria, sin consultar la base de datos; vacío si no hay
+     * coincidencia o el índice aún no carga. Se puede invocar desde varios hilos.
+     * Los aciertos se confirman después con {@link #refreshStale}.
+     */
+    public Optional<Long> findIndexedZone(Point point) {
+        return findIndexedZone(tree, point);
+    }
+
+    private Optional<Long> findIndexedZone(STRtree current, Point point) {
+        if (current == null) {
+            return Optional.empty();
+        }
+        Long match = null;
+        for (Object candidate : current.query(point.getEnvelopeInternal())) {
+            IndexedZone zone = (IndexedZone) candidate;
+            if ((match == null || zone.id() < match) && zone.boundary().contains(point)) {
+                match = zone.id();
+            }
+        }
+        return Optional.ofNullable(match);
+    }
+
+    /**
+     * Compara con una sola consulta la boundary_version indexada de cada zona con
+     * la de la base de datos y recarga las que cambiaron. Devuelve esas zonas:
+     * sus aciertos en el índice no son confiables y deben resolverse con la base.
+     */
+    public Set<Long> refreshStale(Collection<Long> zoneIds) {
+        if (!enabled || zoneIds.isEmpty()) {
+            return Set.of();
+        }
+        Map<Long, Long> versions = zoneCoverageRepository.findBoundaryVersions(zoneIds).stream()
+                .collect(Collectors.toMap(
+                        ZoneCoverageRepository.BoundaryVersion::getId,
+                        ZoneCoverageRepository.BoundaryVersion::getBoundaryVersion
+                ));
+        Set<Long> stale = new HashSet<>();
+        for (Long zoneId : zoneIds) {
+            IndexedZone zone = zones.get(zoneId);
+            if (zone == null || !Objects.equals(zone.version(), versions.get(zoneId))) {
+                stale.add(zoneId);
+            }
+        }
+        if (stale.isEmpty()) {
+            return stale;
+        }
+
+        log.info("Zonas {} cambiaron desde que se indexaron, se recargan", stale);
+        List<ZoneCoverage> current = zoneCoverageRepository.findAllById(stale);
+        synchronized (this) {
+            zones.keySet().removeAll(stale);
+            current.stream()
+                    .filter(this::indexable)
+                    .forEach(zone -> index(zone, versions.get(zone.getId())));
+            publish();
+        }
+        return stale;
+    }
+
+    private boolean indexable(ZoneCoverage zone) {
+        return Boolean.TRUE.equals(zone.getIsActive()) && zone.getBoundary() != null;
+    }
+
+    private void index(ZoneCoverage zone) {
+        index(zone, zone.getBoundaryVersion());
+    }
+
+    private void index(ZoneCoverage zone, Long version) {
+        zones.put(zone.getId(), new IndexedZone(
+                zone.getId(), version, PreparedGeometryFactory.prepare(zone.getBoundary())
+        ));
+    }
+
+    private void publish() {
+        STRtree rebuilt = new STRtree();
+        zones.values().forEach(zone -> rebuilt.insert(zone.boundary().getGeometry().getEnvelopeInternal(), zone));
+        // Construir antes de publicar: un STRtree construido solo se lee
+        rebuilt.build();
+        tree = rebuilt;
+    }
+
+    private record IndexedZone(Long id, Long version, PreparedGeometry boundary) {
+    }
+}
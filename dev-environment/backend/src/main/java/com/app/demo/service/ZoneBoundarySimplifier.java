@@ -0,0 +1,103 @@
+package com.app.demo.service;
+
+import com.app.demo.model.ZoneCoverage;
+import com.app.demo.repository.ZoneCoverageRepository;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Límites de zone_coverage simplificados por nivel de zoom del mapa.
+ * <p>
+ * Para cada nivel configurado se guarda el polígono simplificado con
+ * {@link TopologyPreservingSimplifier} usando como tolerancia medio píxel de un
+ * tile de 256 px en ese zoom, de modo que la simplificación no es visible. Los
+ * niveles se calculan al confirmarse un {@link ZoneCoverageChangedEvent}; si el
+ * límite leído no coincide con el guardado (por ejemplo, lo cambió otra
+ * instancia) se recalculan en la lectura.
+ */
+@Service
+public class ZoneBoundarySimplifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ZoneBoundarySimplifier.class);
+    private static final int TILE_SIZE = 256;
+    private static final int MAX_ZOOM = 22;
+
+    private final ZoneCoverageRepository zoneCoverageRepository;
+    private final int[] zoomLevels;
+    private final Map<Long, Levels> levelsByZone = new ConcurrentHashMap<>();
+
+    public ZoneBoundarySimplifier(
+            ZoneCoverageRepository zoneCoverageRepository,
+            @Value("${app.zone-simplify.zoom-levels:4,6,8,10,12,14}") List<Integer> zoomLevels
+    ) {
+        this.zoneCoverageRepository = zoneCoverageRepository;
+        this.zoomLevels = zoomLevels.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onZoneCoverageChanged(ZoneCoverageChangedEvent event) {
+        levelsByZone.remove(event.zoneCoverageId());
+        try {
+            zoneCoverageRepository.findById(event.zoneCoverageId())
+                    .filter(zone -> zone.getBoundary() != null)
+                    .ifPresent(zone -> levelsByZone.put(zone.getId(), simplify(zone.getBoundary())));
+        } catch (DataAccessException ex) {
+            log.warn("No se pudo precalcular la simplificacion de la zona {}", event.zoneCoverageId(), ex);
+        }
+    }
+
+    /**
+     * Límite de la zona para el zoom pedido: el nivel precalculado más cercano que
+     * no tenga menos detalle; sobre el mayor nivel, o sin zoom, el límite original.
+     */
+    public Polygon boundaryForZoom(ZoneCoverage zone, Integer zoom) {
+        Polygon boundary = zone.getBoundary();
+        if (zoom == null || boundary == null) {
+            return boundary;
+        }
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("El zoom debe estar entre 0 y " + MAX_ZOOM);
+        }
+        int level = Arrays.binarySearch(zoomLevels, zoom);
+        if (level < 0) {
+            level = -level - 1;
+        }
+        if (level >= zoomLevels.length) {
+            return boundary;
+        }
+
+        Levels levels = levelsByZone.get(zone.getId());
+        if (levels == null || !levels.source().equalsExact(boundary)) {
+            levels = simplify(boundary);
+            levelsByZone.put(zone.getId(), levels);
+        }
+        return levels.byLevel()[level];
+    }
+
+    private Levels simplify(Polygon boundary) {
+        Polygon[] byLevel = new Polygon[zoomLevels.length];
+        for (int i = 0; i < zoomLevels.length; i++) {
+            double tolerance = 180.0 / ((double) TILE_SIZE * (1L << zoomLevels[i]));
+            Geometry simplified = TopologyPreservingSimplifier.simplify(boundary, tolerance);
+            byLevel[i] = simplified instanceof Polygon polygon && !polygon.isEmpty() ? polygon : boundary;
+            byLevel[i].setSRID(boundary.getSRID());
+        }
+        return new Levels(boundary, byLevel);
+    }
+
+    private record Levels(Polygon source, Polygon[] byLevel) {
+    }
+}
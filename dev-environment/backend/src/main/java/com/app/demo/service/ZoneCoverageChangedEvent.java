@@ -0,0 +1,7 @@
+package com.app.demo.service;
+
+/**
+ * Se creó, modificó o eliminó una zone_coverage (límite, estado o datos).
+ */
+public record ZoneCoverageChangedEvent(Long zoneCoverageId) {
+}
@@ -1,6 +1,7 @@
 package com.app.demo.service;
 
 import com.app.demo.dto.ZoneCoverageRequest;
+import com.app.demo.exception.ConflictException;
 import com.app.demo.exception.ResourceNotFoundException;
 import com.app.demo.model.ZoneCoverage;
 import com.app.demo.repository.DeliverySlotRepository;
@@ -8,8 +9,10 @@ import com.app.demo.repository.ZoneCoverageRepository;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -18,13 +21,25 @@ public class ZoneCoverageService {
 
     private final ZoneCoverageRepository zoneCoverageRepository;
     private final DeliverySlotRepository deliverySlotRepository;
+    private final SlotCapacityLedger slotCapacityLedger;
+    private final AddressRezoningService addressRezoningService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     public ZoneCoverageService(
             ZoneCoverageRepository zoneCoverageRepository,
-            DeliverySlotRepository deliverySlotRepository
+            DeliverySlotRepository deliverySlotRepository,
+            SlotCapacityLedger slotCapacityLedger,
+            AddressRezoningService addressRezoningService,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate
     ) {
         this.zoneCoverageRepository = zoneCoverageRepository;
         this.deliverySlotRepository = deliverySlotRepository;
+        this.slotCapacityLedger = slotCapacityLedger;
+        this.addressRezoningService = addressRezoningService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public List<ZoneCoverage> findAll() {
@@ -36,25 +51,70 @@ public class ZoneCoverageService {
                 .orElseThrow(() -> new ResourceNotFoundException("ZoneCoverage no encontrado con id: " + id));
     }
 
+    /**
+     * La escritura de la zona y el encolado de su re-zonificación van en la
+     * misma transacción: si el encolado falla, la zona no cambia.
+     */
     public ZoneCoverage create(ZoneCoverageRequest request) {
         validateDeliverySlot(request.getDeliverySlotId());
-        ZoneCoverage entity = new ZoneCoverage();
-        applyChanges(entity, request);
-        return zoneCoverageRepository.save(entity);
+        ZoneCoverage saved = transactionTemplate.execute(status -> {
+            ZoneCoverage entity = new ZoneCoverage();
+            applyChanges(entity, request);
+            ZoneCoverage created = zoneCoverageRepository.save(entity);
+            addressRezoningService.schedule(created.getId(), null, addressRezoningService.activeArea(created));
+            return created;
+        });
+        // fn_sync_slot_max_capacity recalcula la capacidad del slot asociado
+        slotCapacityLedger.refresh(saved.getDeliverySlotId());
+        slotChanged(saved.getDeliverySlotId());
+        eventPublisher.publishEvent(new ZoneCoverageChangedEvent(saved.getId()));
+        return saved;
     }
 
     public ZoneCoverage update(Long id, ZoneCoverageRequest request) {
-        ZoneCoverage entity = findById(id);
-        validateDeliverySlot(request.getDeliverySlotId());
-        applyChanges(entity, request);
-        return zoneCoverageRepository.save(entity);
+        UpdatedZone updated = transactionTemplate.execute(status -> {
+            // Con la fila bloqueada ninguna reserva cambia reserved_count durante la validación
+            ZoneCoverage entity = zoneCoverageRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("ZoneCoverage no encontrado con id: " + id));
+            Long previousSlotId = entity.getDeliverySlotId();
+            Geometry previousArea = addressRezoningService.activeArea(entity);
+            validateDeliverySlot(request.getDeliverySlotId());
+            validateSlotChangeWithoutReservations(entity, request.getDeliverySlotId());
+            validateCapacityCoversReservations(entity, request.getMaxCapacity());
+            applyChanges(entity, request);
+            ZoneCoverage saved = zoneCoverageRepository.save(entity);
+            addressRezoningService.schedule(id, previousArea, addressRezoningService.activeArea(saved));
+            return new UpdatedZone(saved, previousSlotId);
+        });
+        ZoneCoverage saved = updated.zone();
+        slotCapacityLedger.refresh(updated.previousSlotId());
+        slotCapacityLedger.refresh(saved.getDeliverySlotId());
+        slotChanged(updated.previousSlotId());
+        slotChanged(saved.getDeliverySlotId());
+        eventPublisher.publishEvent(new ZoneCoverageChangedEvent(id));
+        return saved;
     }
 
     public void delete(Long id) {
-        if (!zoneCoverageRepository.existsById(id)) {
-            throw new ResourceNotFoundException("ZoneCoverage no encontrado con id: " + id);
+        ZoneCoverage deleted = transactionTemplate.execute(status -> {
+            ZoneCoverage entity = findById(id);
+            zoneCoverageRepository.delete(entity);
+            // fk_delivery_address_zone_coverage deja sus direcciones sin zona
+            addressRezoningService.schedule(id, addressRezoningService.activeArea(entity), null);
+            return entity;
+        });
+        slotCapacityLedger.refresh(deleted.getDeliverySlotId());
+        slotChanged(deleted.getDeliverySlotId());
+        eventPublisher.publishEvent(new ZoneCoverageChangedEvent(id));
+    }
+
+    /**
+     * fn_sync_slot_max_capacity cambia el max_capacity del slot de la zona.
+     */
+    private void slotChanged(Long deliverySlotId) {
+        if (deliverySlotId != null) {
+            eventPublisher.publishEvent(new DeliverySlotChangedEvent(deliverySlotId));
         }
-        zoneCoverageRepository.deleteById(id);
     }
 
     private void validateDeliverySlot(Long deliverySlotId) {
@@ -63,6 +123,28 @@ public class ZoneCoverageService {
         }
     }
 
+    private void validateSlotChangeWithoutReservations(ZoneCoverage entity, Long deliverySlotId) {
+        boolean slotChanged = entity.getDeliverySlotId() != null && !entity.getDeliverySlotId().equals(deliverySlotId);
+        if (slotChanged && entity.getReservedCount() != null && entity.getReservedCount() > 0) {
+            throw new ConflictException(
+                    "La zona tiene reservas activas en su Ventana de Entrega actual y no puede cambiar de ventana"
+            );
+        }
+    }
+
+    /**
+     * chk_zone_capacity rechazaría el UPDATE con un error genérico de integridad.
+     */
+    private void validateCapacityCoversReservations(ZoneCoverage entity, Integer maxCapacity) {
+        int requested = maxCapacity == null ? 0 : maxCapacity;
+        int reserved = entity.getReservedCount() == null ? 0 : entity.getReservedCount();
+        if (requested < reserved) {
+            throw new ConflictException(
+                    "La zona tiene " + reserved + " cupos reservados; su capacidad maxima no puede ser menor"
+            );
+        }
+    }
+
     private void applyChanges(ZoneCoverage entity, ZoneCoverageRequest request) {
         Polygon polygon = toPolygon(request.getBoundary());
         Point centroid = polygon.getCentroid();
@@ -103,4 +185,7 @@ public class ZoneCoverageService {
         String normalized = value.trim();
         return normalized.isEmpty() ? null : normalized;
     }
+
+    private record UpdatedZone(ZoneCoverage zone, Long previousSlotId) {
+    }
 }
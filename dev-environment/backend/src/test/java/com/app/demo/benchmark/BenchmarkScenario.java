@@ -0,0 +1,17 @@
+package com.app.demo.benchmark;
+
+/**
+ * Combinación de parámetros de una corrida: slots con alta demanda, cupo por
+ * slot, hilos concurrentes y operaciones totales medidas.
+ */
+record BenchmarkScenario(int hotSlots, int capacityPerSlot, int threads, int operations) {
+
+    String name() {
+        return "slots=" + hotSlots + " cupo=" + capacityPerSlot + " hilos=" + threads;
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+}
@@ -0,0 +1,129 @@
+package com.app.demo.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos de una corrida del benchmark: un time_slot_template propio, los
+ * delivery_slots con alta demanda, sus zonas y un cliente por hilo con una
+ * dirección en cada zona. Todo cuelga del template del benchmark, de modo que
+ * {@link #drop()} también limpia restos de corridas interrumpidas.
+ */
+final class ContentionFixture {
+
+    static final int ZONES_PER_SLOT = 2;
+    static final LocalTime RESERVATION_TIME = LocalTime.of(12, 0);
+
+    private static final LocalTime TEMPLATE_START = LocalTime.of(0, 1);
+    private static final LocalTime TEMPLATE_END = LocalTime.of(23, 59);
+    private static final LocalDate FIRST_DATE = LocalDate.of(2099, 1, 1);
+    private static final String EMAIL_PATTERN = "benchmark-%@example.invalid";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Slot> slots = new ArrayList<>();
+    private final List<Long> customerIds = new ArrayList<>();
+    private Long templateId;
+
+    ContentionFixture(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Crea los slots con {@code capacityPerSlot} repartido entre sus zonas; el
+     * trigger fn_sync_slot_max_capacity fija el max_capacity del slot.
+     */
+    void create(BenchmarkScenario scenario) {
+        templateId = resolveTemplate();
+        drop();
+
+        for (int i = 0; i < scenario.hotSlots(); i++) {
+            LocalDate date = FIRST_DATE.plusDays(i);
+            Long slotId = jdbcTemplate.queryForObject("""
+                    INSERT INTO app.delivery_slot (time_slot_template_id, delivery_date, delivery_cost)
+                    VALUES (?, ?, 0)
+                    RETURNING id
+                    """, Long.class, templateId, date);
+
+            List<Long> zoneIds = new ArrayList<>();
+            for (int z = 0; z < ZONES_PER_SLOT; z++) {
+                int zoneCapacity = scenario.capacityPerSlot() / ZONES_PER_SLOT
+                        + (z < scenario.capacityPerSlot() % ZONES_PER_SLOT ? 1 : 0);
+                zoneIds.add(jdbcTemplate.queryForObject("""
+                        INSERT INTO app.zone_coverage (name, commune, region, delivery_slot_id, max_capacity)
+                        VALUES (?, 'Benchmark', 'Benchmark', ?, ?)
+                        RETURNING id
+                        """, Long.class, "benchmark-" + slotId + "-" + z, slotId, zoneCapacity));
+            }
+            slots.add(new Slot(slotId, date, zoneIds, new ArrayList<>()));
+        }
+
+        for (int t = 0; t < scenario.threads(); t++) {
+            Long customerId = jdbcTemplate.queryForObject("""
+                    INSERT INTO app.customer (full_name, email)
+                    VALUES (?, ?)
+                    RETURNING id
+                    """, Long.class, "Benchmark " + t, "benchmark-" + t + "@example.invalid");
+            customerIds.add(customerId);
+
+            for (Slot slot : slots) {
+                List<Long> addressIds = new ArrayList<>();
+                for (Long zoneId : slot.zoneIds()) {
+                    addressIds.add(jdbcTemplate.queryForObject("""
+                            INSERT INTO app.delivery_address (customer_id, zone_coverage_id, street, locality, commune, region)
+                            VALUES (?, ?, 'Benchmark 1', 'Benchmark', 'Benchmark', 'Benchmark')
+                            RETURNING id
+                            """, Long.class, customerId, zoneId));
+                }
+                slot.addressIdsByThread().add(addressIds);
+            }
+        }
+    }
+
+    void drop() {
+        if (templateId == null) {
+            return;
+        }
+        String slotsOfTemplate = "SELECT id FROM app.delivery_slot WHERE time_slot_template_id = " + templateId;
+        jdbcTemplate.update("DELETE FROM app.reservation WHERE delivery_slot_id IN (" + slotsOfTemplate + ")");
+        jdbcTemplate.update("DELETE FROM app.customer WHERE email LIKE ?", EMAIL_PATTERN);
+        jdbcTemplate.update("DELETE FROM app.zone_coverage WHERE delivery_slot_id IN (" + slotsOfTemplate + ")");
+        jdbcTemplate.update("DELETE FROM app.delivery_slot WHERE time_slot_template_id = ?", templateId);
+        slots.clear();
+        customerIds.clear();
+    }
+
+    Long templateId() {
+        return templateId;
+    }
+
+    List<Slot> slots() {
+        return slots;
+    }
+
+    Long customerId(int thread) {
+        return customerIds.get(thread);
+    }
+
+    private Long resolveTemplate() {
+        jdbcTemplate.update("""
+                INSERT INTO app.time_slot_template (start_time, end_time)
+                VALUES (?, ?)
+                ON CONFLICT (start_time, end_time) DO NOTHING
+                """, TEMPLATE_START, TEMPLATE_END);
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM app.time_slot_template WHERE start_time = ? AND end_time = ?",
+                Long.class, TEMPLATE_START, TEMPLATE_END
+        );
+    }
+
+    /**
+     * Un delivery_slot del benchmark; {@code addressIdsByThread.get(t).get(z)} es
+     * la dirección del cliente del hilo {@code t} en la zona {@code z}.
+     */
+    record Slot(Long id, LocalDate date, List<Long> zoneIds, List<List<Long>> addressIdsByThread) {
+    }
+}
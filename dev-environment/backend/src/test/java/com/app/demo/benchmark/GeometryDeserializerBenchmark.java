@@ -0,0 +1,186 @@
+package com.app.demo.benchmark;
+
+import com.app.demo.config.jackson.JtsModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark JMH de la lectura de límites GeoJSON: compara el
+ * {@link com.app.demo.config.jackson.GeometryDeserializer} actual, que empaqueta
+ * las coordenadas en arreglos de doubles, con {@link BoxedListGeometryDeserializer}.
+ * Con el GCProfiler reporta bytes asignados por polígono (gc.alloc.rate.norm) y
+ * tiempo por polígono.
+ * <p>
+ * Con {@code threadPerCall} cada lectura corre en un hilo virtual nuevo, como un
+ * request en producción ({@code spring.threads.virtual.enabled}); así el
+ * costo incluye lo que no se puede reutilizar entre requests. Sin él se mide
+ * la lectura aislada en el hilo del benchmark.
+ * <p>
+ * Solo corre con {@code mvn -Pbenchmark test -Dtest=GeometryDeserializerBenchmark}.
+ * Los vértices se ajustan con {@code benchmark.polygon-vertices} (lista separada
+ * por coma; por defecto una zona típica y una muy detallada); el reporte CSV
+ * queda en target/benchmark-reports.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryDeserializerBenchmark {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    @Param({"64", "5000"})
+    public int vertices;
+
+    @Param({"true", "false"})
+    public boolean threadPerCall;
+
+    private ObjectMapper streamingMapper;
+    private ObjectMapper boxedMapper;
+    private String polygonJson;
+
+    @Setup
+    public void setUp() {
+        streamingMapper = JsonMapper.builder().addModule(new JtsModule()).build();
+        boxedMapper = JsonMapper.builder()
+                .addModule(new SimpleModule().addDeserializer(Geometry.class, new BoxedListGeometryDeserializer()))
+                .build();
+        polygonJson = polygon(vertices);
+    }
+
+    @Benchmark
+    public Geometry streaming() throws InterruptedException {
+        return read(streamingMapper);
+    }
+
+    @Benchmark
+    public Geometry boxedLists() throws InterruptedException {
+        return read(boxedMapper);
+    }
+
+    private Geometry read(ObjectMapper mapper) throws InterruptedException {
+        if (!threadPerCall) {
+            return mapper.readValue(polygonJson, Geometry.class);
+        }
+        AtomicReference<Geometry> result = new AtomicReference<>();
+        Thread.ofVirtual().start(() -> result.set(mapper.readValue(polygonJson, Geometry.class))).join();
+        return result.get();
+    }
+
+    /**
+     * Ambos deserializadores deben producir la misma geometría antes de comparar costos.
+     */
+    @Test
+    void sameGeometry() throws InterruptedException {
+        vertices = 5000;
+        threadPerCall = true;
+        setUp();
+        assertTrue(streaming().equalsExact(boxedLists()), "los deserializadores no producen el mismo polígono");
+        assertEquals(4326, streaming().getSRID());
+    }
+
+    @Test
+    void allocationPerPolygon() throws RunnerException, IOException {
+        Options options = new OptionsBuilder()
+                .include(GeometryDeserializerBenchmark.class.getName() + "\\.")
+                .param("vertices", System.getProperty("benchmark.polygon-vertices", "64,5000").split(","))
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> runs = new Runner(options).run();
+
+        // "vértices,hilo por lectura" -> benchmark -> {ns por polígono, bytes por polígono}
+        Map<String, Map<String, double[]>> byVertices = new LinkedHashMap<>();
+        for (RunResult run : runs) {
+            String method = run.getParams().getBenchmark();
+            Result<?> allocation = run.getSecondaryResults().get(ALLOCATION_METRIC);
+            String scenario = run.getParams().getParam("vertices") + "," + run.getParams().getParam("threadPerCall");
+            byVertices.computeIfAbsent(scenario, key -> new LinkedHashMap<>())
+                    .put(method.substring(method.lastIndexOf('.') + 1), new double[]{
+                            run.getPrimaryResult().getScore() * 1000,
+                            allocation == null ? Double.NaN : allocation.getScore()
+                    });
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("vertices,thread_per_call,deserializer,ns_per_polygon,bytes_per_polygon");
+        System.out.println();
+        System.out.println("Deserializacion GeoJSON de poligonos");
+        byVertices.forEach((count, results) -> results.forEach((name, scores) -> {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%.0f,%.0f", count, name, scores[0], scores[1]));
+            System.out.printf(Locale.ROOT, "vertices,hilo=%-11s %-10s %,12.0f ns/poligono %,14.0f B/poligono%n",
+                    count, name, scores[0], scores[1]);
+        }));
+
+        Path directory = Paths.get("target", "benchmark-reports");
+        Files.createDirectories(directory);
+        Files.write(directory.resolve("geometry-deserializer-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv"), lines);
+
+        byVertices.forEach((count, results) -> {
+            double streaming = results.get("streaming")[1];
+            double boxed = results.get("boxedLists")[1];
+            assertTrue(streaming < boxed, "vertices,hilo=" + count + ": el deserializador actual asigna "
+                    + streaming + " B por poligono y el de listas " + boxed + " B");
+        });
+    }
+
+    /**
+     * Polígono GeoJSON cerrado de {@code vertexCount} vértices alrededor de Santiago.
+     */
+    private static String polygon(int vertexCount) {
+        StringBuilder json = new StringBuilder(vertexCount * 40).append("{\"type\":\"Polygon\",\"coordinates\":[[");
+        for (int i = 0; i <= vertexCount; i++) {
+            double angle = 2 * Math.PI * (i % vertexCount) / vertexCount;
+            double radius = 0.05 + 0.005 * Math.sin(angle * 17);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('[').append(-70.6483 + radius * Math.cos(angle))
+                    .append(',').append(-33.4569 + radius * Math.sin(angle)).append(']');
+        }
+        return json.append("]]}").toString();
+    }
+}
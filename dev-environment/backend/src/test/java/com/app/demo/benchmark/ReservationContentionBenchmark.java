@@ -0,0 +1,375 @@
+package com.app.demo.benchmark;
+
+import com.app.demo.config.DataSourceWorkload;
+import com.app.demo.config.WorkloadRoutingDataSource;
+import com.app.demo.dto.ReservationRequest;
+import com.app.demo.exception.ConflictException;
+import com.app.demo.model.ReservationStatus;
+import com.app.demo.service.ReservationService;
+import com.app.demo.service.SlotCapacityLedger;
+import com.app.demo.service.SlotReservedCountRollup;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark de contención del flujo de reservas. Cada escenario crea sus
+ * delivery_slots, lanza N hilos que invocan {@link ReservationService#create},
+ * {@link ReservationService#update} y {@link ReservationService#delete} contra
+ * PostgreSQL + PostGIS y reporta rendimiento, p50/p99/p999, tiempo de espera por
+ * locks (muestreado en pg_stat_activity) y si los reserved_count finales cuadran
+ * con las reservas que ocupan cupo.
+ * <p>
+ * Solo corre con {@code mvn -Pbenchmark test}. La matriz se ajusta con las
+ * propiedades {@code benchmark.hot-slots}, {@code benchmark.capacities},
+ * {@code benchmark.threads} (listas separadas por coma) y
+ * {@code benchmark.operations}; el reporte CSV queda en target/benchmark-reports.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReservationContentionBenchmark {
+
+    private static final long LOCK_SAMPLE_INTERVAL_MILLIS = 5;
+    private static final int CREATE_PERCENT = 60;
+    private static final int UPDATE_PERCENT = 25;
+
+    private static final String LOCK_WAITERS_SQL = """
+            SELECT COUNT(*)
+            FROM pg_stat_activity
+            WHERE datname = current_database()
+              AND wait_event_type = 'Lock'
+              AND pid <> pg_backend_pid()
+            """;
+
+    private static final String ZONE_CHECK_SQL = """
+            SELECT COUNT(*) FILTER (WHERE zc.reserved_count <> COALESCE(r.counted, 0)) AS mismatches,
+                   COUNT(*) FILTER (WHERE COALESCE(r.counted, 0) > zc.max_capacity) AS overbooked
+            FROM app.zone_coverage zc
+            JOIN app.delivery_slot ds ON ds.id = zc.delivery_slot_id
+            LEFT JOIN (
+                SELECT zone_coverage_id, COUNT(*) AS counted
+                FROM app.reservation
+                WHERE status IN ('CONFIRMED', 'HELD')
+                GROUP BY zone_coverage_id
+            ) r ON r.zone_coverage_id = zc.id
+            WHERE ds.time_slot_template_id = ?
+            """;
+
+    private static final String SLOT_CHECK_SQL = """
+            SELECT COUNT(*) FILTER (WHERE ds.reserved_count <> COALESCE(r.counted, 0)) AS mismatches,
+                   COUNT(*) FILTER (WHERE COALESCE(r.counted, 0) > ds.max_capacity) AS overbooked
+            FROM app.delivery_slot ds
+            LEFT JOIN (
+                SELECT delivery_slot_id, COUNT(*) AS counted
+                FROM app.reservation
+                WHERE status IN ('CONFIRMED', 'HELD')
+                GROUP BY delivery_slot_id
+            ) r ON r.delivery_slot_id = ds.id
+            WHERE ds.time_slot_template_id = ?
+            """;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private SlotCapacityLedger slotCapacityLedger;
+
+    @Autowired
+    private SlotReservedCountRollup slotReservedCountRollup;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<ScenarioResult> results = new ArrayList<>();
+
+    static Stream<BenchmarkScenario> scenarios() {
+        int operations = Integer.getInteger("benchmark.operations", 4000);
+        List<BenchmarkScenario> scenarios = new ArrayList<>();
+        for (int hotSlots : intList("benchmark.hot-slots", "1,4")) {
+            for (int capacity : intList("benchmark.capacities", "50,1000")) {
+                for (int threads : intList("benchmark.threads", "8,32,128")) {
+                    scenarios.add(new BenchmarkScenario(hotSlots, capacity, threads, operations));
+                }
+            }
+        }
+        return scenarios.stream();
+    }
+
+    /**
+     * Calienta JIT, pools y caches con un escenario pequeño que no se reporta.
+     */
+    @BeforeAll
+    void warmUp() throws Exception {
+        run(new BenchmarkScenario(1, 100, 4, Integer.getInteger("benchmark.warmup-operations", 500)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("scenarios")
+    void reservationContention(BenchmarkScenario scenario) throws Exception {
+        ScenarioResult result = run(scenario);
+        results.add(result);
+        System.out.println(result.summary());
+
+        assertEquals(0, result.errors(), () -> "operaciones con error inesperado; primer error: "
+                + result.firstError());
+        assertTrue(result.countersConsistent(), "reserved_count no coincide con las reservas que ocupan cupo: "
+                + result.summary());
+    }
+
+    @AfterAll
+    void writeReport() throws IOException {
+        if (results.isEmpty()) {
+            return;
+        }
+        Path directory = Paths.get("target", "benchmark-reports");
+        Files.createDirectories(directory);
+        Path report = directory.resolve("reservation-contention-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+
+        List<String> lines = new ArrayList<>();
+        lines.add(ScenarioResult.CSV_HEADER);
+        results.forEach(result -> lines.add(result.toCsv()));
+        Files.write(report, lines);
+
+        System.out.println();
+        System.out.println("Benchmark de contención de reservas (" + report + ")");
+        results.forEach(result -> System.out.println(result.summary()));
+    }
+
+    private ScenarioResult run(BenchmarkScenario scenario) throws Exception {
+        ContentionFixture fixture = new ContentionFixture(jdbcTemplate);
+        try {
+            fixture.create(scenario);
+
+            ExecutorService workers = Executors.newFixedThreadPool(scenario.threads());
+            LockWaitSampler sampler = new LockWaitSampler();
+            Thread samplerThread = new Thread(sampler, "benchmark-lock-sampler");
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Worker>> futures = new ArrayList<>();
+            try {
+                int perThread = Math.max(1, scenario.operations() / scenario.threads());
+                for (int t = 0; t < scenario.threads(); t++) {
+                    Worker worker = new Worker(fixture, t, perThread);
+                    futures.add(workers.submit(() -> {
+                        start.await();
+                        worker.run();
+                        return worker;
+                    }));
+                }
+
+                samplerThread.start();
+                long begin = System.nanoTime();
+                start.countDown();
+
+                List<Worker> finished = new ArrayList<>();
+                for (Future<Worker> future : futures) {
+                    finished.add(future.get());
+                }
+                long elapsed = System.nanoTime() - begin;
+                sampler.stop();
+                samplerThread.join();
+
+                return summarize(scenario, fixture, finished, elapsed, sampler);
+            } finally {
+                sampler.stop();
+                workers.shutdownNow();
+            }
+        } finally {
+            fixture.drop();
+        }
+    }
+
+    private ScenarioResult summarize(
+            BenchmarkScenario scenario,
+            ContentionFixture fixture,
+            List<Worker> workers,
+            long elapsedNanos,
+            LockWaitSampler sampler
+    ) {
+        // Vuelca el ledger y recalcula delivery_slot.reserved_count antes de verificar
+        slotCapacityLedger.flush();
+        slotReservedCountRollup.rollup();
+
+        Map<String, Object> zones = jdbcTemplate.queryForMap(ZONE_CHECK_SQL, fixture.templateId());
+        Map<String, Object> slots = jdbcTemplate.queryForMap(SLOT_CHECK_SQL, fixture.templateId());
+
+        long succeeded = workers.stream().mapToLong(worker -> worker.succeeded).sum();
+        long rejected = workers.stream().mapToLong(worker -> worker.rejected).sum();
+        long errors = workers.stream().mapToLong(worker -> worker.errors).sum();
+        long[] latencies = workers.stream()
+                .flatMapToLong(worker -> Arrays.stream(worker.latenciesNanos, 0, worker.completed))
+                .toArray();
+        RuntimeException firstError = workers.stream()
+                .map(worker -> worker.firstError)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+
+        return ScenarioResult.of(
+                scenario,
+                elapsedNanos,
+                succeeded,
+                rejected,
+                errors,
+                firstError,
+                latencies,
+                sampler.lockWaitMillis(),
+                sampler.peakWaiters,
+                ((Number) zones.get("mismatches")).longValue(),
+                ((Number) slots.get("mismatches")).longValue(),
+                ((Number) zones.get("overbooked")).longValue() + ((Number) slots.get("overbooked")).longValue()
+        );
+    }
+
+    private static int[] intList(String property, String defaultValue) {
+        return Arrays.stream(System.getProperty(property, defaultValue).split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    /**
+     * Hilo de carga: 60% altas, 25% modificaciones (cambio de slot, zona o
+     * estado) y 15% bajas sobre sus propias reservas. Los rechazos por falta de
+     * cupo (409) cuentan como rechazadas, no como errores.
+     */
+    private final class Worker {
+
+        private final ContentionFixture fixture;
+        private final int thread;
+        private final long[] latenciesNanos;
+        private final SplittableRandom random;
+        private final List<Long> owned = new ArrayList<>();
+        private int completed;
+        private long succeeded;
+        private long rejected;
+        private long errors;
+        private RuntimeException firstError;
+
+        private Worker(ContentionFixture fixture, int thread, int operations) {
+            this.fixture = fixture;
+            this.thread = thread;
+            this.latenciesNanos = new long[operations];
+            this.random = new SplittableRandom(thread * 31L + operations);
+        }
+
+        private void run() {
+            for (int i = 0; i < latenciesNanos.length; i++) {
+                int roll = random.nextInt(100);
+                long begin = System.nanoTime();
+                try {
+                    if (owned.isEmpty() || roll < CREATE_PERCENT) {
+                        owned.add(reservationService.create(randomRequest(ReservationStatus.CONFIRMED)).getId());
+                    } else if (roll < CREATE_PERCENT + UPDATE_PERCENT) {
+                        ReservationStatus status = random.nextInt(4) == 0
+                                ? ReservationStatus.CANCELLED
+                                : ReservationStatus.CONFIRMED;
+                        reservationService.update(owned.get(random.nextInt(owned.size())), randomRequest(status));
+                    } else {
+                        int index = random.nextInt(owned.size());
+                        reservationService.delete(owned.get(index));
+                        owned.remove(index);
+                    }
+                    succeeded++;
+                } catch (ConflictException | OptimisticLockingFailureException ex) {
+                    rejected++;
+                } catch (RuntimeException ex) {
+                    errors++;
+                    if (firstError == null) {
+                        firstError = ex;
+                    }
+                }
+                latenciesNanos[i] = System.nanoTime() - begin;
+                completed++;
+            }
+        }
+
+        private ReservationRequest randomRequest(ReservationStatus status) {
+            List<ContentionFixture.Slot> slots = fixture.slots();
+            ContentionFixture.Slot slot = slots.get(random.nextInt(slots.size()));
+            List<Long> addressIds = slot.addressIdsByThread().get(thread);
+
+            ReservationRequest request = new ReservationRequest();
+            request.setCustomerId(fixture.customerId(thread));
+            request.setDeliveryAddressId(addressIds.get(random.nextInt(addressIds.size())));
+            request.setDeliverySlotId(slot.id());
+            request.setReservationDate(slot.date());
+            request.setReservationTime(ContentionFixture.RESERVATION_TIME);
+            request.setStatus(status);
+            return request;
+        }
+    }
+
+    /**
+     * Muestrea cada pocos milisegundos cuántas sesiones esperan un lock y lo
+     * integra en el tiempo. Usa el pool de lecturas para no competir con la carga.
+     */
+    private final class LockWaitSampler implements Runnable {
+
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private long waiterSamples;
+        private int peakWaiters;
+
+        @Override
+        public void run() {
+            WorkloadRoutingDataSource.use(DataSourceWorkload.CATALOG_READS);
+            try {
+                while (running.get()) {
+                    Integer waiters = jdbcTemplate.queryForObject(LOCK_WAITERS_SQL, Integer.class);
+                    int current = waiters == null ? 0 : waiters;
+                    waiterSamples += current;
+                    peakWaiters = Math.max(peakWaiters, current);
+                    Thread.sleep(LOCK_SAMPLE_INTERVAL_MILLIS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                WorkloadRoutingDataSource.clear();
+            }
+        }
+
+        private void stop() {
+            running.set(false);
+        }
+
+        /**
+         * Estimación del tiempo total de espera por locks sumado entre sesiones.
+         */
+        private double lockWaitMillis() {
+            return waiterSamples * (double) LOCK_SAMPLE_INTERVAL_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.app.demo.benchmark;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Resultado de un escenario: rendimiento, percentiles de latencia, espera por
+ * locks de PostgreSQL y verificación final de los contadores reserved_count.
+ * {@code firstError} es el primer error inesperado de algún hilo, o null.
+ */
+record ScenarioResult(
+        BenchmarkScenario scenario,
+        long elapsedNanos,
+        long succeeded,
+        long rejected,
+        long errors,
+        RuntimeException firstError,
+        long[] sortedLatenciesNanos,
+        double lockWaitMillis,
+        int peakLockWaiters,
+        long zoneMismatches,
+        long slotMismatches,
+        long overbooked
+) {
+
+    static final String CSV_HEADER = "hot_slots,capacity_per_slot,threads,operations,throughput_ops_s,"
+            + "p50_ms,p99_ms,p999_ms,lock_wait_ms,peak_lock_waiters,succeeded,rejected,errors,"
+            + "zone_mismatches,slot_mismatches,overbooked";
+
+    static ScenarioResult of(
+            BenchmarkScenario scenario,
+            long elapsedNanos,
+            long succeeded,
+            long rejected,
+            long errors,
+            RuntimeException firstError,
+            long[] latenciesNanos,
+            double lockWaitMillis,
+            int peakLockWaiters,
+            long zoneMismatches,
+            long slotMismatches,
+            long overbooked
+    ) {
+        long[] sorted = latenciesNanos.clone();
+        Arrays.sort(sorted);
+        return new ScenarioResult(scenario, elapsedNanos, succeeded, rejected, errors, firstError, sorted,
+                lockWaitMillis, peakLockWaiters, zoneMismatches, slotMismatches, overbooked);
+    }
+
+    long operations() {
+        return sortedLatenciesNanos.length;
+    }
+
+    double throughput() {
+        return operations() / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Percentil por rango más cercano, en milisegundos.
+     */
+    double percentileMillis(double percentile) {
+        if (sortedLatenciesNanos.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sortedLatenciesNanos.length) - 1;
+        return sortedLatenciesNanos[Math.max(rank, 0)] / 1_000_000.0;
+    }
+
+    boolean countersConsistent() {
+        return zoneMismatches == 0 && slotMismatches == 0 && overbooked == 0;
+    }
+
+    String summary() {
+        return String.format(Locale.ROOT,
+                "%-32s %9.1f ops/s  p50 %7.2f ms  p99 %7.2f ms  p999 %7.2f ms  lock wait %9.1f ms (max %d)"
+                        + "  ok %d / rechazadas %d / errores %d  contadores %s",
+                scenario.name(), throughput(), percentileMillis(0.50), percentileMillis(0.99),
+                percentileMillis(0.999), lockWaitMillis, peakLockWaiters, succeeded, rejected, errors,
+                countersConsistent() ? "OK" : "INCONSISTENTES");
+    }
+
+    String toCsv() {
+        return String.format(Locale.ROOT, "%d,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.1f,%d,%d,%d,%d,%d,%d,%d",
+                scenario.hotSlots(), scenario.capacityPerSlot(), scenario.threads(), operations(),
+                throughput(), percentileMillis(0.50), percentileMillis(0.99), percentileMillis(0.999),
+                lockWaitMillis, peakLockWaiters, succeeded, rejected, errors,
+                zoneMismatches, slotMismatches, overbooked);
+    }
+}
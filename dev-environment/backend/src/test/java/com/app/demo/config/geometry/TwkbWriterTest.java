@@ -0,0 +1,88 @@
+package com.app.demo.config.geometry;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Los valores esperados son la salida de PostGIS para
+ * {@code encode(ST_AsTWKB(geom, precision, include_sizes => true), 'hex')}.
+ */
+class TwkbWriterTest {
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    void polygonMatchesPostgis() {
+        // POLYGON((0 0,0 1,1 1,1 0,0 0)), precision 0
+        Polygon square = polygon(0, 0, 0, 1, 1, 1, 1, 0, 0, 0);
+
+        assertEquals("03020c010500000002020000010100", hex(new TwkbWriter(0).write(square)));
+    }
+
+    @Test
+    void negativeCoordinatesWithPrecisionMatchPostgis() {
+        // POLYGON((-70.6 -33.4,-70.5 -33.4,-70.5 -33.5,-70.6 -33.4)), precision 1
+        Polygon zone = polygon(-70.6, -33.4, -70.5, -33.4, -70.5, -33.5, -70.6, -33.4);
+
+        assertEquals("23020c0104830b9b05020000010102", hex(new TwkbWriter(1).write(zone)));
+    }
+
+    @Test
+    void pointsRepeatedAfterQuantizationAreDropped() {
+        // 0 0.1 se cuantiza a 0 0: PostGIS lo omite y el anillo queda igual al cuadrado
+        Polygon square = polygon(0, 0, 0, 0.1, 0, 1, 1, 1, 1, 0, 0, 0);
+
+        assertEquals("03020c010500000002020000010100", hex(new TwkbWriter(0).write(square)));
+    }
+
+    @Test
+    void halvesRoundAwayFromZero() {
+        // POLYGON((-0.5 -0.5,-0.5 1,1 1,-0.5 -0.5)), precision 0: llround(-0.5) = -1
+        Polygon triangle = polygon(-0.5, -0.5, -0.5, 1, 1, 1, -0.5, -0.5);
+
+        assertEquals("03020a01040101000404000303", hex(new TwkbWriter(0).write(triangle)));
+    }
+
+    @Test
+    void multiPolygonWithIdsMatchesPostgis() {
+        // ST_AsTWKB(ARRAY[a, b], ARRAY[10, 20], 0, include_sizes => true)
+        Polygon first = polygon(0, 0, 0, 1, 1, 1, 0, 0);
+        Polygon second = polygon(2, 2, 2, 3, 3, 3, 2, 2);
+
+        byte[] twkb = new TwkbWriter(0).writeMultiPolygon(List.of(first, second), List.of(10L, 20L));
+
+        assertEquals("0606170214280104000000020200010101040404000202000101", hex(twkb));
+    }
+
+    @Test
+    void emptyPolygonMatchesPostgis() {
+        assertEquals("0310", hex(new TwkbWriter(0).write(geometryFactory.createPolygon())));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TwkbWriter(8));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TwkbWriter(0).writeMultiPolygon(List.of(polygon(0, 0, 0, 1, 1, 1, 0, 0)), List.of()));
+    }
+
+    private Polygon polygon(double... ordinates) {
+        Coordinate[] coordinates = new Coordinate[ordinates.length / 2];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = new Coordinate(ordinates[2 * i], ordinates[2 * i + 1]);
+        }
+        return geometryFactory.createPolygon(coordinates);
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
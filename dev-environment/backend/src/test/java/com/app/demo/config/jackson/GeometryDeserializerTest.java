@@ -0,0 +1,161 @@
+package com.app.demo.config.jackson;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.exc.MismatchedInputException;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeometryDeserializerTest {
+
+    private final ObjectMapper mapper = JsonMapper.builder().addModule(new JtsModule()).build();
+
+    @Test
+    void polygonWithHole() {
+        Polygon polygon = read("""
+                {"type":"Polygon","coordinates":[
+                  [[0,0],[10,0],[10,10],[0,10],[0,0]],
+                  [[2,2],[4,2],[4,4],[2,2]]
+                ]}
+                """, Polygon.class);
+
+        assertEquals(4326, polygon.getSRID());
+        assertEquals(5, polygon.getExteriorRing().getNumPoints());
+        assertEquals(1, polygon.getNumInteriorRing());
+        assertEquals(new Coordinate(4, 2), polygon.getInteriorRingN(0).getCoordinateN(1));
+    }
+
+    @Test
+    void typeMayFollowCoordinates() {
+        Point point = read("{\"coordinates\":[-70.65,-33.45],\"type\":\"Point\"}", Point.class);
+
+        assertEquals(-70.65, point.getX());
+        assertEquals(-33.45, point.getY());
+    }
+
+    @Test
+    void threeDimensionalPositionsKeepZ() {
+        LineString line = read("{\"type\":\"LineString\",\"coordinates\":[[0,0,10],[1,1,20,99]]}", LineString.class);
+
+        assertEquals(3, line.getCoordinateSequence().getDimension());
+        assertEquals(10.0, line.getCoordinateN(0).getZ());
+        // La medida (cuarta ordenada) se descarta
+        assertEquals(20.0, line.getCoordinateN(1).getZ());
+    }
+
+    @Test
+    void mixedDimensionsAreRejected() {
+        assertRejected("{\"type\":\"LineString\",\"coordinates\":[[0,0],[1,1,5]]}");
+    }
+
+    @Test
+    void nestingMismatchesAreRejected() {
+        assertRejected("{\"type\":\"Point\",\"coordinates\":[[1,2]]}");
+        assertRejected("{\"type\":\"Polygon\",\"coordinates\":[[0,0],[1,1]]}");
+        assertRejected("{\"type\":\"LineString\",\"coordinates\":[[0,0],[[1,1]]]}");
+        assertRejected("{\"type\":\"MultiPoint\",\"coordinates\":[[0,0],[1,1,[2]]]}");
+        assertRejected("{\"type\":\"Point\",\"coordinates\":[\"x\",\"y\"]}");
+        assertRejected("{\"type\":\"Point\",\"coordinates\":[1]}");
+    }
+
+    @Test
+    void invalidRingIsRejectedAsInputMismatch() {
+        assertRejected("{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,1]]]}");
+        assertRejected("{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[0,0]]]}");
+    }
+
+    @Test
+    void geometryCollectionWithNestedMembers() {
+        GeometryCollection collection = read("""
+                {"type":"GeometryCollection","geometries":[
+                  {"type":"Point","coordinates":[1,2]},
+                  {"type":"GeometryCollection","geometries":[
+                    {"type":"LineString","coordinates":[[0,0],[1,1]]}
+                  ]},
+                  {"type":"Polygon","coordinates":[[[0,0],[1,0],[1,1],[0,0]]]}
+                ]}
+                """, GeometryCollection.class);
+
+        assertEquals(3, collection.getNumGeometries());
+        assertInstanceOf(Point.class, collection.getGeometryN(0));
+        assertInstanceOf(LineString.class, collection.getGeometryN(1).getGeometryN(0));
+        assertInstanceOf(Polygon.class, collection.getGeometryN(2));
+    }
+
+    @Test
+    void geometryCollectionMembersMustBeGeometries() {
+        assertRejected("{\"type\":\"GeometryCollection\",\"geometries\":[1]}");
+        assertRejected("{\"type\":\"GeometryCollection\",\"geometries\":[{\"coordinates\":[1,2]}]}");
+        assertRejected("{\"type\":\"GeometryCollection\",\"geometries\":{}}");
+    }
+
+    @Test
+    void emptyGeometries() {
+        assertTrue(read("{\"type\":\"Point\",\"coordinates\":[]}", Point.class).isEmpty());
+        assertTrue(read("{\"type\":\"Polygon\",\"coordinates\":[]}", Polygon.class).isEmpty());
+        assertTrue(read("{\"type\":\"MultiPolygon\",\"coordinates\":[]}", MultiPolygon.class).isEmpty());
+        assertTrue(read("{\"type\":\"GeometryCollection\",\"geometries\":[]}", GeometryCollection.class).isEmpty());
+    }
+
+    @Test
+    void emptyMemberOfMultiPolygonIsEmptyPolygon() {
+        MultiPolygon multiPolygon = read("""
+                {"type":"MultiPolygon","coordinates":[
+                  [[[0,0],[1,0],[1,1],[0,0]]],
+                  []
+                ]}
+                """, MultiPolygon.class);
+
+        assertEquals(2, multiPolygon.getNumGeometries());
+        assertTrue(multiPolygon.getGeometryN(1).isEmpty());
+    }
+
+    @Test
+    void leadingEmptyMemberOfMultiPolygonIsKept() {
+        MultiPolygon multiPolygon = read("""
+                {"type":"MultiPolygon","coordinates":[
+                  [],
+                  [[[0,0],[1,0],[1,1],[0,0]]],
+                  []
+                ]}
+                """, MultiPolygon.class);
+
+        assertEquals(3, multiPolygon.getNumGeometries());
+        assertTrue(multiPolygon.getGeometryN(0).isEmpty());
+        assertEquals(4, multiPolygon.getGeometryN(1).getNumPoints());
+        assertTrue(multiPolygon.getGeometryN(2).isEmpty());
+    }
+
+    @Test
+    void consecutiveReadsDoNotShareCoordinates() {
+        StringBuilder large = new StringBuilder("{\"type\":\"LineString\",\"coordinates\":[");
+        for (int i = 0; i < 2000; i++) {
+            large.append(i == 0 ? "" : ",").append('[').append(i).append(',').append(i).append(']');
+        }
+        read(large.append("]}").toString(), LineString.class);
+
+        LineString small = read("{\"type\":\"LineString\",\"coordinates\":[[5,6],[7,8]]}", LineString.class);
+
+        assertEquals(2, small.getNumPoints());
+        assertEquals(new Coordinate(7, 8), small.getCoordinateN(1));
+    }
+
+    private <T extends Geometry> T read(String json, Class<T> type) {
+        return assertInstanceOf(type, mapper.readValue(json, Geometry.class));
+    }
+
+    private void assertRejected(String json) {
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue(json, Geometry.class), json);
+    }
+}
@@ -0,0 +1,109 @@
+package com.app.demo.service;
+
+import com.app.demo.exception.CapacityConflictException;
+import com.app.demo.exception.ConflictException;
+import com.app.demo.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CapacityClaimRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void retriesWholeTransactionUntilItSucceeds() {
+        CapacityClaimRetry retry = retry(CapacityConcurrencyMode.OPTIMISTIC, 5);
+
+        String result = retry.execute(conflictsThen(2, "creada"));
+
+        assertEquals("creada", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, counter("reservation.capacity.claim.retries"));
+        assertEquals(0.0, counter("reservation.capacity.claim.exhausted"));
+        assertEquals(1, attempts().count());
+        assertEquals(3.0, attempts().totalAmount());
+    }
+
+    @Test
+    void exhaustedRetriesAreReportedAsConflict() {
+        CapacityClaimRetry retry = retry(CapacityConcurrencyMode.OPTIMISTIC, 3);
+
+        ConflictException error = assertThrows(ConflictException.class,
+                () -> retry.execute(conflictsThen(Integer.MAX_VALUE, "nunca")));
+
+        assertFalse(error instanceof CapacityConflictException, "no debe volver a reintentarse mas arriba");
+        assertEquals(3, calls.get());
+        assertEquals(2.0, counter("reservation.capacity.claim.retries"));
+        assertEquals(1.0, counter("reservation.capacity.claim.exhausted"));
+        assertEquals(3.0, attempts().max());
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        CapacityClaimRetry retry = retry(CapacityConcurrencyMode.OPTIMISTIC, 5);
+
+        assertThrows(ResourceNotFoundException.class, () -> retry.execute(() -> {
+            calls.incrementAndGet();
+            throw new ResourceNotFoundException("zona no encontrada");
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0.0, counter("reservation.capacity.claim.retries"));
+    }
+
+    @Test
+    void conflictInsideCallerTransactionIsLeftToItsOwner() {
+        CapacityClaimRetry retry = retry(CapacityConcurrencyMode.OPTIMISTIC, 5);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(CapacityConflictException.class, () -> retry.execute(conflictsThen(1, "creada")));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(0, attempts().count());
+    }
+
+    @Test
+    void pessimisticModeRunsOnceWithoutMetrics() {
+        CapacityClaimRetry retry = retry(CapacityConcurrencyMode.PESSIMISTIC, 5);
+
+        assertEquals("creada", retry.execute(conflictsThen(0, "creada")));
+
+        assertEquals(1, calls.get());
+        assertEquals(0, attempts().count());
+    }
+
+    private CapacityClaimRetry retry(CapacityConcurrencyMode mode, int maxAttempts) {
+        return new CapacityClaimRetry(meterRegistry, mode, maxAttempts, 0, 0);
+    }
+
+    private Supplier<String> conflictsThen(int conflicts, String result) {
+        return () -> {
+            if (calls.incrementAndGet() <= conflicts) {
+                throw new CapacityConflictException("version distinta");
+            }
+            return result;
+        };
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private DistributionSummary attempts() {
+        return meterRegistry.get("reservation.capacity.claim.attempts").summary();
+    }
+}
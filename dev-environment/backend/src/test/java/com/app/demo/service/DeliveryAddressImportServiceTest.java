@@ -0,0 +1,207 @@
+package com.app.demo.service;
+
+import com.app.demo.config.jackson.JtsModule;
+import com.app.demo.dto.DeliveryAddressImportResponse;
+import com.app.demo.dto.DeliveryAddressImportResponse.RowError;
+import com.app.demo.model.DeliveryAddress;
+import com.app.demo.repository.CustomerRepository;
+import com.app.demo.repository.DeliveryAddressJdbcRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Point;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeliveryAddressImportServiceTest {
+
+    private static final Long CUSTOMER_ID = 42L;
+    private static final Long ZONE_ID = 3L;
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final DeliveryAddressJdbcRepository jdbcRepository = mock(DeliveryAddressJdbcRepository.class);
+    private final ZoneBoundaryIndex zoneBoundaryIndex = mock(ZoneBoundaryIndex.class);
+
+    @BeforeEach
+    void setUp() {
+        when(customerRepository.existsById(CUSTOMER_ID)).thenReturn(true);
+        when(zoneBoundaryIndex.findIndexedZone(any())).thenReturn(Optional.of(ZONE_ID));
+    }
+
+    @Test
+    void csvReportsInvalidRowsAndImportsTheRest() {
+        // La búsqueda de zonas corre en paralelo: se decide por el punto, no por el orden
+        when(zoneBoundaryIndex.findIndexedZone(any())).thenAnswer(invocation ->
+                invocation.<Point>getArgument(0).getX() < -60 ? Optional.of(ZONE_ID) : Optional.empty());
+        when(jdbcRepository.findZonesContaining(anyList())).thenReturn(new Long[]{null});
+        String csv = """
+                street,locality,commune,region,latitude,longitude
+                Av. Siempre Viva 742,Centro,Santiago,RM,-33.45,-70.66
+                Los Alerces 10,Centro,Santiago,RM,norte,-70.66
+                ,Centro,Santiago,RM,,
+                Fuera de zona 1,Centro,Santiago,RM,-10.0,-10.0
+                """;
+
+        DeliveryAddressImportResponse response = service(500).importAddresses(
+                CUSTOMER_ID, DeliveryAddressImportService.Format.CSV, stream(csv));
+
+        assertEquals(1, response.imported());
+        assertEquals(3, response.rejected());
+        assertEquals(List.of(2, 3, 4), rows(response.errors()));
+        assertTrue(response.errors().get(0).error().contains("latitude"), "debe indicar la columna invalida");
+        assertEquals("La calle es obligatoria", response.errors().get(1).error());
+        assertEquals(400, response.errors().get(2).status());
+        assertEquals(List.of(1), insertedBatchSizes());
+    }
+
+    @Test
+    void unknownComunaRejectsOnlyItsRow() {
+        when(jdbcRepository.findExistingComunaIds(Set.of(7L, 99L))).thenReturn(Set.of(7L));
+        String csv = """
+                street,locality,commune,region,comuna_id,latitude,longitude
+                Uno 1,Centro,Santiago,RM,7,-33.45,-70.66
+                Dos 2,Centro,Santiago,RM,99,-33.45,-70.66
+                Tres 3,Centro,Santiago,RM,,-33.45,-70.66
+                """;
+
+        DeliveryAddressImportResponse response = service(500).importAddresses(
+                CUSTOMER_ID, DeliveryAddressImportService.Format.CSV, stream(csv));
+
+        assertEquals(2, response.imported());
+        assertEquals(List.of(2), rows(response.errors()));
+        assertEquals(404, response.errors().getFirst().status());
+        assertEquals(List.of(2), insertedBatchSizes());
+    }
+
+    @Test
+    void chunkViolatingAConstraintIsRetriedRowByRow() {
+        doThrow(new DataIntegrityViolationException("fk_delivery_address_customer"))
+                .when(jdbcRepository).insertAll(argThat(batch -> batch.stream()
+                        .anyMatch(address -> address.getStreet().equals("Dos 2"))));
+        String csv = """
+                street,locality,commune,region,latitude,longitude
+                Uno 1,Centro,Santiago,RM,-33.45,-70.66
+                Dos 2,Centro,Santiago,RM,-33.45,-70.66
+                Tres 3,Centro,Santiago,RM,-33.45,-70.66
+                """;
+
+        DeliveryAddressImportResponse response = service(500).importAddresses(
+                CUSTOMER_ID, DeliveryAddressImportService.Format.CSV, stream(csv));
+
+        assertEquals(2, response.imported());
+        assertEquals(List.of(2), rows(response.errors()));
+        assertEquals(409, response.errors().getFirst().status());
+    }
+
+    @Test
+    void geoJsonFeatureWithInvalidValuesIsReportedAsRow() {
+        String geoJson = featureCollection(
+                feature("{\"type\":\"Point\",\"coordinates\":[-70.66,-33.45]}", "\"street\":\"Uno 1\""),
+                feature("{\"type\":\"Point\",\"coordinates\":[-70.66,-33.45]}", "\"customerId\":\"abc\",\"street\":\"Dos 2\""),
+                feature("{\"type\":\"Point\",\"coordinates\":[\"x\",\"y\"]}", "\"street\":\"Tres 3\""),
+                feature("{\"type\":\"LineString\",\"coordinates\":[[0,0],[1,1]]}", "\"street\":\"Cuatro 4\""),
+                feature("{\"type\":\"Point\",\"coordinates\":[-70.6,-33.4]}", "\"street\":\"Cinco 5\"")
+        );
+
+        DeliveryAddressImportResponse response = service(500).importAddresses(
+                CUSTOMER_ID, DeliveryAddressImportService.Format.GEOJSON, stream(geoJson));
+
+        assertEquals(2, response.imported());
+        assertEquals(List.of(2, 3, 4), rows(response.errors()));
+        assertTrue(response.errors().get(0).error().startsWith("Feature invalida"));
+        assertTrue(response.errors().get(1).error().startsWith("Feature invalida"));
+        assertEquals("La geometria de la feature debe ser un Point", response.errors().get(2).error());
+    }
+
+    @Test
+    void malformedGeoJsonBeforeAnyInsertIsBadRequest() {
+        String geoJson = "{\"type\":\"FeatureCollection\",\"features\":["
+                + feature("{\"type\":\"Point\",\"coordinates\":[-70.66,-33.45]}", "\"street\":\"Uno 1\"")
+                + ",{\"type\":\"Feature\",";
+
+        assertThrows(IllegalArgumentException.class, () -> service(500).importAddresses(
+                CUSTOMER_ID, DeliveryAddressImportService.Format.GEOJSON, stream(geoJson)));
+        verify(jdbcRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void malformedGeoJsonAfterCommittedChunkIsReportedWithTheImport() {
+        String geoJson = "{\"type\":\"FeatureCollection\",\"features\":["
+                + feature("{\"type\":\"Point\",\"coordinates\":[-70.66,-33.45]}", "\"street\":\"Uno 1\"") + ","
+                + feature("{\"type\":\"Point\",\"coordinates\":[-70.6,-33.4]}", "\"street\":\"Dos 2\"")
+                + ",{\"type\":\"Feature\",";
+
+        DeliveryAddressImportResponse response = service(2).importAddresses(
+                CUSTOMER_ID, DeliveryAddressImportService.Format.GEOJSON, stream(geoJson));
+
+        assertEquals(2, response.imported());
+        assertEquals(1, response.rejected());
+        RowError error = response.errors().getFirst();
+        assertEquals(3, error.row());
+        assertEquals(400, error.status());
+        assertTrue(error.error().startsWith("El GeoJSON no es valido"));
+    }
+
+    private DeliveryAddressImportService service(int chunkSize) {
+        return new DeliveryAddressImportService(
+                customerRepository,
+                jdbcRepository,
+                zoneBoundaryIndex,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                JsonMapper.builder().addModule(new JtsModule()).build(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                mock(ApplicationEventPublisher.class),
+                chunkSize,
+                100
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> insertedBatchSizes() {
+        ArgumentCaptor<List<DeliveryAddress>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository).insertAll(captor.capture());
+        List<Integer> sizes = new ArrayList<>();
+        captor.getAllValues().forEach(batch -> sizes.add(batch.size()));
+        return sizes;
+    }
+
+    private static List<Integer> rows(List<RowError> errors) {
+        return errors.stream().map(RowError::row).toList();
+    }
+
+    private static String featureCollection(String... features) {
+        return "{\"type\":\"FeatureCollection\",\"features\":[" + String.join(",", features) + "]}";
+    }
+
+    private static String feature(String geometry, String properties) {
+        return "{\"type\":\"Feature\",\"geometry\":" + geometry + ",\"properties\":{" + properties
+                + ",\"locality\":\"Centro\",\"commune\":\"Santiago\",\"region\":\"RM\"}}";
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
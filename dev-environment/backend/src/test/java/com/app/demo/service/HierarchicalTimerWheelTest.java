@@ -0,0 +1,82 @@
+package com.app.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimerWheelTest {
+
+    private static final long TICK = 1000L;
+
+    @Test
+    void deadlineBetweenTicksNeverFiresEarly() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(TICK, 4, 2, 10_000L);
+        wheel.schedule(10_500L, "hold");
+
+        assertTrue(wheel.advance(10_000L).isEmpty(), "no debe vencer en el tick donde empieza");
+        assertTrue(wheel.advance(10_499L).isEmpty(), "no debe vencer antes de su deadline");
+        assertEquals(List.of("hold"), wheel.advance(11_000L));
+        assertTrue(wheel.advance(12_000L).isEmpty(), "cada elemento vence una sola vez");
+    }
+
+    @Test
+    void deadlineOnTickBoundaryFiresInThatTick() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(TICK, 4, 2, 0L);
+        wheel.schedule(3_000L, "hold");
+
+        assertTrue(wheel.advance(2_999L).isEmpty());
+        assertEquals(List.of("hold"), wheel.advance(3_000L));
+    }
+
+    @Test
+    void pastDeadlineIsDueOnNextAdvance() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(TICK, 4, 2, 5_000L);
+        wheel.schedule(1_200L, "late");
+
+        assertEquals(List.of("late"), wheel.advance(5_000L));
+    }
+
+    @Test
+    void upperLevelEntriesCascadeToTheirTick() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(TICK, 4, 2, 3_000L);
+        // Delta de 15 ticks: queda en el nivel 1 y baja al nivel 0 en el tick 16
+        wheel.schedule(17_400L, "upper");
+
+        assertTrue(wheel.advance(17_999L).isEmpty());
+        assertEquals(List.of("upper"), wheel.advance(18_000L));
+    }
+
+    @Test
+    void overflowEntriesFireAfterSeveralRevolutions() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(TICK, 4, 2, 0L);
+        // Rango total de 16 ticks: 40 queda en overflow durante dos vueltas
+        wheel.schedule(39_001L, "overflow");
+        wheel.schedule(2_000L, "near");
+
+        assertEquals(List.of("near"), wheel.advance(30_000L));
+        assertTrue(wheel.advance(39_999L).isEmpty());
+        assertEquals(List.of("overflow"), wheel.advance(40_000L));
+    }
+
+    @Test
+    void advancingManyTicksAtOnceReturnsEveryDueItem() {
+        HierarchicalTimerWheel<Integer> wheel = new HierarchicalTimerWheel<>(TICK, 4, 3, 0L);
+        for (int i = 1; i <= 50; i++) {
+            wheel.schedule(i * 1_000L - 1, i);
+        }
+
+        List<Integer> expired = wheel.advance(25_000L);
+        assertEquals(25, expired.size());
+        assertTrue(expired.stream().allMatch(item -> item <= 25));
+        assertEquals(25, wheel.advance(50_000L).size());
+    }
+
+    @Test
+    void rejectsWheelSizeThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimerWheel<>(TICK, 6, 2, 0L));
+    }
+}
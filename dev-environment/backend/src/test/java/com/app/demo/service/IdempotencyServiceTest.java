@@ -0,0 +1,237 @@
+package com.app.demo.service;
+
+import com.app.demo.exception.ConflictException;
+import com.app.demo.exception.OutcomeUnknownException;
+import com.app.demo.exception.ServiceUnavailableException;
+import com.app.demo.repository.IdempotencyKeyRepository;
+import com.app.demo.repository.IdempotencyKeyRepository.StoredResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private static final String KEY = "8f14e45f-ceea-4e7a-9c3b-1d2f3a4b5c6d";
+    private static final String OPERATION = "POST /api/reservations";
+
+    private final IdempotencyKeyRepository repository = mock(IdempotencyKeyRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final IdempotencyService service = new IdempotencyService(
+            repository,
+            JsonMapper.builder().build(),
+            new TransactionTemplate(transactionManager),
+            new CapacityClaimRetry(new SimpleMeterRegistry(), CapacityConcurrencyMode.PESSIMISTIC, 5, 2, 50),
+            24,
+            60,
+            100
+    );
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void withoutKeyRunsActionDirectly() {
+        ResponseEntity<?> response = service.execute(null, OPERATION, new Payload(1L), created());
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, executions.get());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void firstExecutionIsStoredAndRetriesAreReplayed() {
+        reserveAndStore();
+
+        ResponseEntity<?> first = service.execute(KEY, OPERATION, new Payload(1L), created());
+        ResponseEntity<?> retry = service.execute(KEY, OPERATION, new Payload(1L), created());
+
+        assertEquals(1, executions.get());
+        verify(repository).complete(eq(KEY), eq(OPERATION), any(), eq(201), eq("{\"id\":5}"));
+        assertNull(first.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals("{\"id\":5}", retry.getBody());
+        verify(repository, times(1)).tryReserve(anyString(), anyString(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        reserveAndStore();
+        service.execute(KEY, OPERATION, new Payload(1L), created());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute(KEY, OPERATION, new Payload(2L), created()));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void executionInProgressElsewhereIsConflict() {
+        when(repository.tryReserve(eq(KEY), eq(OPERATION), anyString(), any(), any(), any())).thenReturn(false);
+        when(repository.find(KEY, OPERATION)).thenReturn(Optional.of(new StoredResponse("otro", null, null)));
+
+        assertThrows(ConflictException.class, () -> service.execute(KEY, OPERATION, new Payload(1L), created()));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void responseCompletedByAnotherInstanceIsReplayedFromTable() {
+        AtomicReference<String> requestHash = new AtomicReference<>();
+        when(repository.tryReserve(eq(KEY), eq(OPERATION), anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            requestHash.set(invocation.getArgument(2));
+            return false;
+        });
+        when(repository.find(KEY, OPERATION)).thenAnswer(invocation ->
+                Optional.of(new StoredResponse(requestHash.get(), 201, "{\"id\":9}")));
+
+        ResponseEntity<?> replayed = service.execute(KEY, OPERATION, new Payload(1L), created());
+        service.execute(KEY, OPERATION, new Payload(1L), created());
+
+        assertEquals(0, executions.get());
+        assertEquals("{\"id\":9}", replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst("Idempotent-Replayed"));
+        // El segundo reintento sale del cache local
+        verify(repository, times(1)).find(KEY, OPERATION);
+    }
+
+    @Test
+    void responseIsStoredInsideTheActionTransaction() {
+        reserveAndStore();
+
+        service.execute(KEY, OPERATION, new Payload(1L), created());
+
+        InOrder order = inOrder(transactionManager, repository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(repository).complete(eq(KEY), eq(OPERATION), any(), eq(201), any());
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void recordingActionStoresResponseFromItsOwnTransaction() {
+        reserveAndStore();
+
+        ResponseEntity<?> first = service.executeRecording(KEY, OPERATION, new Payload(1L), recorder -> {
+            ResponseEntity<?> response = created().get();
+            recorder.record(response);
+            return response;
+        });
+        ResponseEntity<?> retry = service.execute(KEY, OPERATION, new Payload(1L), created());
+
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(1, executions.get());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void failedActionReleasesKeyForRetry() {
+        reserveAndStore();
+
+        assertThrows(ConflictException.class, () -> service.execute(KEY, OPERATION, new Payload(1L), () -> {
+            throw new ConflictException("sin cupo");
+        }));
+        verify(repository).delete(eq(KEY), eq(OPERATION), any());
+        verify(repository, never()).complete(anyString(), anyString(), any(), anyInt(), any());
+
+        service.execute(KEY, OPERATION, new Payload(1L), created());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void unavailableBeforeRunningReleasesKey() {
+        reserveAndStore();
+
+        assertThrows(ServiceUnavailableException.class, () -> service.execute(KEY, OPERATION, new Payload(1L), () -> {
+            throw new ServiceUnavailableException("cola llena");
+        }));
+        verify(repository).delete(eq(KEY), eq(OPERATION), any());
+    }
+
+    @Test
+    void unknownOutcomeKeepsKeyInProgress() {
+        reserveAndStore();
+
+        assertThrows(OutcomeUnknownException.class, () -> service.execute(KEY, OPERATION, new Payload(1L), () -> {
+            throw new OutcomeUnknownException("lote en curso");
+        }));
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> service.execute(KEY, OPERATION, new Payload(1L), () -> {
+                    throw new DataAccessResourceFailureException("conexion perdida durante el commit");
+                }));
+
+        verify(repository, never()).delete(anyString(), anyString(), any());
+    }
+
+    @Test
+    void storeFailureFailsTheOperationAndKeepsKey() {
+        when(repository.tryReserve(eq(KEY), eq(OPERATION), anyString(), any(), any(), any())).thenReturn(true);
+        doThrow(new DataAccessResourceFailureException("sin conexion"))
+                .when(repository).complete(anyString(), anyString(), any(), anyInt(), any());
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> service.execute(KEY, OPERATION, new Payload(1L), created()));
+
+        verify(transactionManager).rollback(any());
+        verify(repository, never()).delete(anyString(), anyString(), any());
+    }
+
+    @Test
+    void keyTakenOverByAnotherAttemptRollsBackTheOperation() {
+        when(repository.tryReserve(eq(KEY), eq(OPERATION), anyString(), any(), any(), any())).thenReturn(true);
+        when(repository.complete(anyString(), anyString(), any(), anyInt(), any())).thenReturn(false);
+
+        assertThrows(ConflictException.class, () -> service.execute(KEY, OPERATION, new Payload(1L), created()));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void rejectsBlankOrOversizedKeys() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute(" ", OPERATION, new Payload(1L), created()));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute("k".repeat(101), OPERATION, new Payload(1L), created()));
+        verifyNoInteractions(repository);
+    }
+
+    private void reserveAndStore() {
+        when(repository.tryReserve(eq(KEY), eq(OPERATION), anyString(), any(), any(), any())).thenReturn(true);
+        when(repository.complete(anyString(), anyString(), any(), anyInt(), any())).thenReturn(true);
+    }
+
+    private Supplier<ResponseEntity<?>> created() {
+        return () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", 5));
+        };
+    }
+
+    record Payload(Long deliverySlotId) {
+    }
+}
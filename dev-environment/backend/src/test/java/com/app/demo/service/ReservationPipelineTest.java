@@ -0,0 +1,192 @@
+package com.app.demo.service;
+
+import com.app.demo.dto.ReservationRequest;
+import com.app.demo.exception.ConflictException;
+import com.app.demo.exception.OutcomeUnknownException;
+import com.app.demo.exception.ServiceUnavailableException;
+import com.app.demo.model.Reservation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationPipelineTest {
+
+    private static final Long SLOT_ID = 7L;
+
+    private final ReservationBatchService reservationBatchService = mock(ReservationBatchService.class);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private ReservationPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void eachCallerReceivesItsOwnResult() throws Exception {
+        pipeline = pipeline(5_000);
+        when(reservationBatchService.createGroup(eq(SLOT_ID), any(), any())).thenAnswer(invocation -> {
+            List<ReservationRequest> requests = invocation.getArgument(1);
+            List<ReservationBatchService.ItemResult> results = new ArrayList<>();
+            for (ReservationRequest request : requests) {
+                results.add(request.getCustomerId() % 2 == 0
+                        ? ReservationBatchService.ItemResult.created(reservation(request.getCustomerId()))
+                        : ReservationBatchService.ItemResult.failed(new ConflictException("sin cupo")));
+            }
+            return results;
+        });
+
+        List<Future<Reservation>> futures = new ArrayList<>();
+        for (long customerId = 1; customerId <= 4; customerId++) {
+            ReservationRequest request = request(customerId);
+            futures.add(callers.submit(() -> pipeline.submit(request)));
+        }
+
+        assertInstanceOf(ConflictException.class, failure(futures.get(0)));
+        assertEquals(2L, futures.get(1).get(2, TimeUnit.SECONDS).getId());
+        assertInstanceOf(ConflictException.class, failure(futures.get(2)));
+        assertEquals(4L, futures.get(3).get(2, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    void failedBatchFailsEveryCaller() {
+        pipeline = pipeline(5_000);
+        IllegalStateException error = new IllegalStateException("base de datos no disponible");
+        when(reservationBatchService.createGroup(eq(SLOT_ID), any(), any())).thenThrow(error);
+
+        assertSame(error, assertThrows(IllegalStateException.class, () -> pipeline.submit(request(1L))));
+    }
+
+    @Test
+    void batchDyingWithErrorDoesNotBlockLaterRequests() {
+        pipeline = pipeline(5_000);
+        when(reservationBatchService.createGroup(eq(SLOT_ID), any(), any()))
+                .thenThrow(new AssertionError("lote abortado"))
+                .thenAnswer(invocation -> List.of(ReservationBatchService.ItemResult.created(reservation(2L))));
+
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(request(1L)));
+        assertEquals(2L, pipeline.submit(request(2L)).getId());
+    }
+
+    @Test
+    void requestThatTimesOutWhileItsBatchCommitsGetsTheResult() throws Exception {
+        pipeline = pipeline(100);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reservationBatchService.createGroup(eq(SLOT_ID), any(), any())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return List.of(ReservationBatchService.ItemResult.created(reservation(1L)));
+        });
+
+        Future<Reservation> inFlight = callers.submit(() -> pipeline.submit(request(1L)));
+        assertTrue(entered.await(2, TimeUnit.SECONDS), "el lote no comenzo");
+        Thread.sleep(300);
+        assertFalse(inFlight.isDone(), "una solicitud en un lote en curso no debe responder 503");
+
+        release.countDown();
+
+        assertEquals(1L, inFlight.get(2, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    void requestStillQueuedAtTimeoutIsWithdrawn() throws Exception {
+        pipeline = pipeline(100);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reservationBatchService.createGroup(eq(SLOT_ID), any(), any())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return List.of(ReservationBatchService.ItemResult.created(reservation(1L)));
+        });
+
+        Future<Reservation> inFlight = callers.submit(() -> pipeline.submit(request(1L)));
+        assertTrue(entered.await(2, TimeUnit.SECONDS), "el lote no comenzo");
+        try {
+            ServiceUnavailableException error =
+                    assertThrows(ServiceUnavailableException.class, () -> pipeline.submit(request(2L)));
+            assertFalse(error instanceof OutcomeUnknownException, "la solicitud retirada nunca llego a un lote");
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals(1L, inFlight.get(2, TimeUnit.SECONDS).getId());
+        verify(reservationBatchService, times(1)).createGroup(eq(SLOT_ID), any(), any());
+    }
+
+    @Test
+    void submitAfterShutdownIsRejected() {
+        pipeline = pipeline(5_000);
+        pipeline.shutdown();
+
+        assertThrows(ServiceUnavailableException.class, () -> pipeline.submit(request(1L)));
+    }
+
+    @Test
+    void shutdownFailsInFlightAndQueuedRequests() throws Exception {
+        pipeline = pipeline(30_000);
+        CountDownLatch entered = new CountDownLatch(1);
+        when(reservationBatchService.createGroup(eq(SLOT_ID), any(), any())).thenAnswer(invocation -> {
+            entered.countDown();
+            // Solo termina cuando shutdownNow interrumpe al worker
+            new CountDownLatch(1).await();
+            return List.of();
+        });
+
+        Future<Reservation> inFlight = callers.submit(() -> pipeline.submit(request(1L)));
+        assertTrue(entered.await(2, TimeUnit.SECONDS), "el primer lote no comenzo");
+        Future<Reservation> queued = callers.submit(() -> pipeline.submit(request(2L)));
+        Thread.sleep(100);
+
+        pipeline.shutdown();
+
+        assertInstanceOf(RuntimeException.class, failure(inFlight));
+        Throwable queuedFailure = failure(queued);
+        assertInstanceOf(ServiceUnavailableException.class, queuedFailure);
+        assertFalse(queuedFailure instanceof OutcomeUnknownException, "lo encolado nunca llego a la base de datos");
+    }
+
+    private ReservationPipeline pipeline(long submitTimeoutMillis) {
+        return new ReservationPipeline(reservationBatchService, true, "", 5, 200, 2, submitTimeoutMillis, 200);
+    }
+
+    private static Throwable failure(Future<Reservation> future) throws Exception {
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        return ex.getCause();
+    }
+
+    private static ReservationRequest request(Long customerId) {
+        ReservationRequest request = new ReservationRequest();
+        request.setCustomerId(customerId);
+        request.setDeliverySlotId(SLOT_ID);
+        return request;
+    }
+
+    private static Reservation reservation(Long id) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        return reservation;
+    }
+}
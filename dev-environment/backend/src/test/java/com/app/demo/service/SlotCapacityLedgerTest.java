@@ -0,0 +1,178 @@
+package com.app.demo.service;
+
+import com.app.demo.exception.ConflictException;
+import com.app.demo.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlotCapacityLedgerTest {
+
+    private static final Long SLOT_ID = 11L;
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SlotCapacityLedger ledger =
+            new SlotCapacityLedger(reservationRepository, jdbcTemplate, eventPublisher, true, "");
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void admitsUpToCapacityAndRejectsBeyond() throws Exception {
+        slotInDatabase(0, 2);
+
+        ledger.acquire(SLOT_ID);
+        ledger.acquire(SLOT_ID);
+        assertThrows(ConflictException.class, () -> ledger.acquire(SLOT_ID));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThrows(ConflictException.class, () -> ledger.rejectIfFull(SLOT_ID));
+    }
+
+    @Test
+    void rollbackReturnsClaimedCapacity() throws Exception {
+        slotInDatabase(0, 1);
+
+        ledger.acquire(SLOT_ID);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        ledger.rejectIfFull(SLOT_ID);
+        ledger.acquire(SLOT_ID);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        ledger.flush();
+
+        assertArrayEquals(new Object[]{1, SLOT_ID}, capturedBatch().getFirst());
+    }
+
+    @Test
+    void acquireUpToGrantsOnlyRemainingCapacity() throws Exception {
+        slotInDatabase(1, 3);
+
+        assertEquals(2, ledger.acquireUpTo(SLOT_ID, 5));
+        assertEquals(0, ledger.acquireUpTo(SLOT_ID, 1));
+    }
+
+    @Test
+    void flushWritesNetCommittedDeltaOnce() throws Exception {
+        slotInDatabase(0, 5);
+        ledger.acquire(SLOT_ID);
+        ledger.acquire(SLOT_ID);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        ledger.release(SLOT_ID);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        ledger.flush();
+        ledger.flush();
+
+        List<Object[]> batch = capturedBatch();
+        assertEquals(1, batch.size());
+        assertArrayEquals(new Object[]{1, SLOT_ID}, batch.getFirst());
+        verify(eventPublisher).publishEvent(new DeliverySlotChangedEvent(SLOT_ID));
+    }
+
+    @Test
+    void releaseIsIgnoredWhenTransactionRollsBack() throws Exception {
+        slotInDatabase(1, 1);
+        ledger.release(SLOT_ID);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThrows(ConflictException.class, () -> ledger.rejectIfFull(SLOT_ID));
+        ledger.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void failedFlushReconcilesAgainstCountedReservations() throws Exception {
+        slotInDatabase(0, 2);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("sin conexion"));
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(SLOT_ID))).thenReturn(List.of(2));
+        when(reservationRepository.countByDeliverySlotIdAndStatusIn(eq(SLOT_ID), any())).thenReturn(1L);
+
+        ledger.acquire(SLOT_ID);
+        ledger.acquire(SLOT_ID);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        ledger.flush();
+
+        // Solo una de las dos reservas llegó a la base: queda un cupo libre
+        verify(jdbcTemplate).update("UPDATE app.delivery_slot SET reserved_count = ? WHERE id = ?", 1, SLOT_ID);
+        ledger.acquire(SLOT_ID);
+        assertThrows(ConflictException.class, () -> ledger.acquire(SLOT_ID));
+    }
+
+    @Test
+    void disabledLedgerManagesNothing() {
+        SlotCapacityLedger disabled =
+                new SlotCapacityLedger(reservationRepository, jdbcTemplate, eventPublisher, false, "");
+        SlotCapacityLedger selected =
+                new SlotCapacityLedger(reservationRepository, jdbcTemplate, eventPublisher, true, "3, 4");
+
+        assertFalse(disabled.manages(SLOT_ID));
+        assertTrue(disabled.managedSlotIds().isEmpty());
+        assertFalse(selected.manages(SLOT_ID));
+        assertFalse(selected.managesAll());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void slotInDatabase(int reservedCount, int maxCapacity) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("reserved_count")).thenReturn(reservedCount);
+        when(rs.getInt("max_capacity")).thenReturn(maxCapacity);
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class), eq(SLOT_ID)))
+                .thenAnswer(invocation -> invocation.<RowMapper<?>>getArgument(1).mapRow(rs, 0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> capturedBatch() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), captor.capture());
+        return captor.getValue();
+    }
+
+    /**
+     * Simula el fin de la transacción actual y abre una nueva.
+     */
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+}
@@ -0,0 +1,82 @@
+package com.app.demo.service;
+
+import com.app.demo.exception.CapacityConflictException;
+import com.app.demo.exception.ConflictException;
+import com.app.demo.repository.ZoneCoverageRepository;
+import com.app.demo.repository.ZoneCoverageRepository.CapacitySnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlotCapacityServiceTest {
+
+    private static final Long SLOT_ID = 4L;
+    private static final Long ZONE_ID = 9L;
+
+    private final ZoneCoverageRepository zoneCoverageRepository = mock(ZoneCoverageRepository.class);
+    private final SlotCapacityLedger slotCapacityLedger = mock(SlotCapacityLedger.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SlotCapacityService service = new SlotCapacityService(
+            zoneCoverageRepository, slotCapacityLedger, eventPublisher, CapacityConcurrencyMode.OPTIMISTIC
+    );
+
+    @Test
+    void optimisticClaimUpdatesTheVersionItRead() {
+        snapshot(10, 3, 7L);
+        when(zoneCoverageRepository.claimCapacityIfVersion(ZONE_ID, 1, 7L)).thenReturn(1);
+
+        service.claim(SLOT_ID, ZONE_ID);
+
+        verify(zoneCoverageRepository).claimCapacityIfVersion(ZONE_ID, 1, 7L);
+    }
+
+    @Test
+    void versionConflictFailsFastForTheCallerToRetry() {
+        snapshot(10, 3, 7L);
+        when(zoneCoverageRepository.claimCapacityIfVersion(ZONE_ID, 1, 7L)).thenReturn(0);
+
+        assertThrows(CapacityConflictException.class, () -> service.claim(SLOT_ID, ZONE_ID));
+
+        // Sin reintentos dentro de la transacción del llamador
+        verify(zoneCoverageRepository, times(1)).findCapacitySnapshot(ZONE_ID);
+        verify(zoneCoverageRepository, times(1)).claimCapacityIfVersion(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    void fullZoneIsRejectedWithoutUpdating() {
+        snapshot(5, 5, 2L);
+
+        ConflictException error = assertThrows(ConflictException.class, () -> service.claim(SLOT_ID, ZONE_ID));
+
+        assertFalse(error instanceof CapacityConflictException, "una zona llena no se reintenta");
+        verify(zoneCoverageRepository, never()).claimCapacityIfVersion(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    void claimUpToGrantsWhatIsAvailable() {
+        snapshot(10, 8, 1L);
+        when(zoneCoverageRepository.claimCapacityIfVersion(ZONE_ID, 2, 1L)).thenReturn(1);
+
+        assertEquals(2, service.claimUpTo(SLOT_ID, ZONE_ID, 5));
+    }
+
+    private void snapshot(int maxCapacity, int reservedCount, long capacityVersion) {
+        CapacitySnapshot snapshot = mock(CapacitySnapshot.class);
+        when(snapshot.getMaxCapacity()).thenReturn(maxCapacity);
+        when(snapshot.getReservedCount()).thenReturn(reservedCount);
+        when(snapshot.getCapacityVersion()).thenReturn(capacityVersion);
+        when(zoneCoverageRepository.findCapacitySnapshot(ZONE_ID)).thenReturn(Optional.of(snapshot));
+    }
+}
@@ -872,6 +872,7 @@ function CustomerDetail() {
             <option value="CONFIRMED">Confirmada</option>
             <option value="CANCELLED">Cancelada</option>
             <option value="EXPIRED">Expirada</option>
+            <option value="HELD">Retenida</option>
           </select>
 
           <div className="actions">
@@ -3,6 +3,7 @@ import {
   createDeliverySlot,
   deleteDeliverySlot,
   getDeliverySlots,
+  subscribeToSlotCapacity,
   type DeliverySlot,
   type DeliverySlotPayload,
   updateDeliverySlot,
@@ -93,6 +94,26 @@ function DeliverySlots() {
     loadTimeSlotTemplates()
   }, [])
 
+  // Los cupos llegan por SSE en vez de recargar la lista completa
+  useEffect(() => {
+    return subscribeToSlotCapacity((deltas) => {
+      const deltaById = new Map(deltas.map((delta) => [delta.slotId, delta]))
+      setSlots((current) =>
+        current.map((slot) => {
+          const delta = deltaById.get(slot.id)
+          return delta
+            ? {
+                ...slot,
+                reservedCount: delta.reservedCount,
+                maxCapacity: delta.maxCapacity,
+                isActive: delta.isActive,
+              }
+            : slot
+        }),
+      )
+    })
+  }, [])
+
   const clearMessages = () => {
     setError(null)
     setSuccessMessage(null)
@@ -30,6 +30,12 @@ export interface DeliveryAddressPayload {
   isDefault?: boolean
 }
 
+export interface DeliveryAddressImportResult {
+  imported: number
+  rejected: number
+  errors: { row: number; status: number; error: string }[]
+}
+
 export async function getDeliveryAddressesByCustomer(customerId: number): Promise<DeliveryAddress[]> {
   const response = await api.get<DeliveryAddress[]>(`/delivery-addresses/by-customer/${customerId}`)
   return response.data
@@ -48,3 +54,13 @@ export async function updateDeliveryAddress(id: number, payload: DeliveryAddress
 export async function deleteDeliveryAddress(id: number): Promise<void> {
   await api.delete(`/delivery-addresses/${id}`)
 }
+
+// CSV con cabecera (street, locality, commune, region, ...) o FeatureCollection GeoJSON de puntos
+export async function importDeliveryAddresses(customerId: number, file: File): Promise<DeliveryAddressImportResult> {
+  const contentType = file.name.toLowerCase().endsWith('.csv') ? 'text/csv' : 'application/geo+json'
+  const response = await api.post<DeliveryAddressImportResult>('/delivery-addresses/import', file, {
+    params: { customerId },
+    headers: { 'Content-Type': contentType },
+  })
+  return response.data
+}
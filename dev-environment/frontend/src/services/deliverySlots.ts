@@ -21,11 +21,100 @@ export interface DeliverySlotPayload {
   isActive: boolean
 }
 
+export interface SlotAvailability {
+  deliverySlotId: number
+  deliveryDate: string
+  timeSlotTemplateId: number
+  startTime: string
+  endTime: string
+  deliveryCost: number
+  zoneCoverageId: number
+  zoneName: string
+  maxCapacity: number
+  reservedCount: number
+  remainingCapacity: number
+}
+
+export interface DeliverySlotView {
+  id: number
+  timeSlotTemplateId: number
+  deliveryDate: string
+  startTime: string
+  endTime: string
+  deliveryCost: number
+  maxCapacity: number
+  reservedCount: number
+  isActive: boolean
+}
+
+export interface DeliverySlotSearchParams {
+  from?: string
+  to?: string
+  active?: boolean
+  templateId?: number
+  hasCapacity?: boolean
+  page?: number
+  size?: number
+}
+
+export interface DeliverySlotPage {
+  items: DeliverySlotView[]
+  page: number
+  size: number
+  hasNext: boolean
+}
+
+export interface SlotCapacityDelta {
+  slotId: number
+  reservedCount: number
+  maxCapacity: number
+  isActive: boolean
+}
+
+// Celda d * templates.length + t: dia from + d, template templates[t]; slotId 0 = sin ventana
+export interface SlotCalendar {
+  from: string
+  days: number
+  templates: { id: number; startTime: string; endTime: string }[]
+  slotIds: number[]
+  remaining: number[]
+  maxCapacity: number[]
+}
+
 export async function getDeliverySlots(): Promise<DeliverySlot[]> {
   const response = await api.get<DeliverySlot[]>('/delivery-slots')
   return response.data
 }
 
+export async function getSlotAvailability(
+  deliveryAddressId: number,
+  from?: string,
+  to?: string,
+): Promise<SlotAvailability[]> {
+  const response = await api.get<SlotAvailability[]>('/availability', {
+    params: { deliveryAddressId, from, to },
+  })
+  return response.data
+}
+
+export async function searchDeliverySlots(params: DeliverySlotSearchParams): Promise<DeliverySlotPage> {
+  const response = await api.get<DeliverySlotPage>('/delivery-slots/search', { params })
+  return response.data
+}
+
+export async function getSlotCalendar(from?: string, days?: number): Promise<SlotCalendar> {
+  const response = await api.get<SlotCalendar>('/delivery-slots/calendar', { params: { from, days } })
+  return response.data
+}
+
+export function subscribeToSlotCapacity(onDeltas: (deltas: SlotCapacityDelta[]) => void): () => void {
+  const source = new EventSource(`${api.defaults.baseURL}/delivery-slots/stream`)
+  source.addEventListener('capacity', (event) => {
+    onDeltas(JSON.parse((event as MessageEvent<string>).data) as SlotCapacityDelta[])
+  })
+  return () => source.close()
+}
+
 export async function createDeliverySlot(payload: DeliverySlotPayload): Promise<DeliverySlot> {
   const response = await api.post<DeliverySlot>('/delivery-slots', payload)
   return response.data
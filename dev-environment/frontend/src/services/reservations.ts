@@ -1,17 +1,19 @@
 import api from './api'
 
-export type ReservationStatus = 'CONFIRMED' | 'CANCELLED' | 'EXPIRED'
+export type ReservationStatus = 'CONFIRMED' | 'CANCELLED' | 'EXPIRED' | 'HELD'
 
 export interface Reservation {
   id: number
   customerId: number
   deliveryAddressId: number
   deliverySlotId: number
+  zoneCoverageId: number | null
   status: ReservationStatus
   reservationDate: string
   reservationTime: string
   reservedAt: string
   cancelledAt: string | null
+  expiresAt: string | null
   version: number
 }
 
@@ -24,9 +26,23 @@ export interface ReservationPayload {
   status?: ReservationStatus
 }
 
+export interface ReservationPage {
+  items: Reservation[]
+  nextCursor: string | null
+}
+
 export async function getReservationsByCustomer(customerId: number): Promise<Reservation[]> {
-  const response = await api.get<Reservation[]>(`/reservations/by-customer/${customerId}`)
-  return response.data
+  const reservations: Reservation[] = []
+  let cursor: string | null = null
+  do {
+    const response = await api.get<ReservationPage>(`/reservations/by-customer/${customerId}`, {
+      params: { cursor: cursor ?? undefined, limit: 200 },
+    })
+    const page: ReservationPage = response.data
+    reservations.push(...page.items)
+    cursor = page.nextCursor
+  } while (cursor)
+  return reservations
 }
 
 export async function createReservation(payload: ReservationPayload): Promise<Reservation> {
@@ -20,6 +20,7 @@ export interface ZoneCoverage {
   postalCode: string | null
   deliverySlotId: number | null
   maxCapacity: number
+  reservedCount: number
   boundary: GeoJsonPolygon | null
   location: GeoJsonPoint | null
   isActive: boolean
@@ -40,8 +41,9 @@ export interface ZoneCoveragePayload {
   isActive: boolean
 }
 
-export async function getZoneCoverages(): Promise<ZoneCoverage[]> {
-  const response = await api.get<ZoneCoverage[]>('/zone-coverages')
+// Con zoom (0-22) el backend devuelve boundaries simplificados para ese nivel del mapa
+export async function getZoneCoverages(zoom?: number): Promise<ZoneCoverage[]> {
+  const response = await api.get<ZoneCoverage[]>('/zone-coverages', { params: { zoom } })
   return response.data
 }
 